@@ -1,8 +1,13 @@
 package com.library;
 
+import com.library.dao.BookAvailability;
+import com.library.dao.BookDAO;
+import com.library.dao.HoldDAO;
+import com.library.dao.SchemaMigrations;
 import com.library.gui.LoginFrame;
 import com.library.model.UserSession;
 import com.library.utils.DBConnection;
+import com.library.utils.FineAccrualScheduler;
 
 import javax.swing.*;
 import java.awt.*;
@@ -27,7 +32,6 @@ public class Main {
             Connection conn = DBConnection.getConnection();
             DBConnection.closeConnection(conn);
             System.out.println("Database connection established successfully.");
-            return true;
         } catch (SQLException e) {
             showFatalErrorDialog(
                     "Database Connection Error",
@@ -39,6 +43,49 @@ public class Main {
             );
             return false;
         }
+
+        try {
+            int applied = SchemaMigrations.migrate();
+            if (applied > 0) {
+                System.out.println("Applied " + applied + " schema migration(s).");
+            }
+            SchemaMigrations.verifyIndexes();
+        } catch (SQLException e) {
+            showFatalErrorDialog(
+                    "Database Migration Error",
+                    "Failed to update the database schema:\n" + e.getMessage() +
+                            "\n\nApplied versions are listed in the schema_version table."
+            );
+            return false;
+        }
+
+        try {
+            // Before anything can borrow or return, when availability is counted in memory
+            BookAvailability.start();
+            HoldDAO.load();
+        } catch (SQLException e) {
+            showFatalErrorDialog(
+                    "Database Startup Error",
+                    "Failed to load book availability and holds:\n" + e.getMessage()
+            );
+            return false;
+        }
+        startSearchIndexBuild();
+        FineAccrualScheduler.start();
+        return true;
+    }
+
+    private static void startSearchIndexBuild() {
+        // Built in the background so a large catalog doesn't delay the login screen
+        Thread indexer = new Thread(() -> {
+            try {
+                BookDAO.buildSearchIndex();
+            } catch (SQLException e) {
+                System.err.println("Search index build failed, searching with LIKE queries: " + e.getMessage());
+            }
+        }, "book-search-indexer");
+        indexer.setDaemon(true);
+        indexer.start();
     }
 
     private static void setupApplicationUI() {
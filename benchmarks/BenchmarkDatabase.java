@@ -0,0 +1,140 @@
+package com.library.bench;
+
+import com.library.dao.BookAvailability;
+import com.library.dao.SchemaMigrations;
+import com.library.tools.DataGenerator;
+import com.library.utils.DBConnection;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * Embedded H2 database in MySQL compatibility mode, seeded with a synthetic
+ * catalog and circulation history so the DAOs can be benchmarked in-process.
+ * The DAOs reach it through the regular DBConnection pool, pointed here via
+ * the library.config system property.
+ */
+public class BenchmarkDatabase {
+    private static final int MAX_OPEN_PER_USER = 4;
+
+    private static int seededBorrowCount;
+
+    /**
+     * Points DBConnection at a fresh in-memory database and seeds it.
+     * Must run before anything touches DBConnection in this JVM.
+     */
+    public static void start(int catalogSize, int userCount, int historySize, boolean statementPooling,
+                             boolean inMemoryAvailability) throws IOException, SQLException {
+        File config = File.createTempFile("library-bench", ".properties");
+        config.deleteOnExit();
+        Properties props = new Properties();
+        props.setProperty("db.url", "jdbc:h2:mem:library_bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=MONTH,YEAR,VALUE;DB_CLOSE_DELAY=-1");
+        props.setProperty("db.user", "sa");
+        props.setProperty("db.password", "");
+        props.setProperty("db.driver", "org.h2.Driver");
+        props.setProperty("db.pool.poolPreparedStatements", String.valueOf(statementPooling));
+        props.setProperty("db.availability.inMemory", String.valueOf(inMemoryAvailability));
+        try (Writer writer = new FileWriter(config)) {
+            props.store(writer, "Generated for benchmarks");
+        }
+        System.setProperty(DBConnection.CONFIG_PATH_PROPERTY, config.getAbsolutePath());
+
+        try (Connection conn = DBConnection.getConnection()) {
+            createSchema(conn);
+        }
+        // Baselines the schema above and adds the access-path indexes the way a production start would
+        SchemaMigrations.migrate();
+
+        // Keep a copy of every book on the shelf and a slot free for every user, so borrow benchmarks can succeed
+        DataGenerator generator = new DataGenerator(42);
+        generator.setMaxOpenPerUser(MAX_OPEN_PER_USER);
+        generator.setMinCopiesOnShelf(1);
+        generator.generate(userCount, catalogSize, historySize);
+
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM borrowed_books")) {
+            rs.next();
+            seededBorrowCount = rs.getInt(1);
+        }
+        BookAvailability.start();
+    }
+
+    /**
+     * Undoes the circulation a benchmark iteration produced, so every iteration
+     * starts from the seeded state.
+     */
+    public static void resetCirculation() throws SQLException {
+        BookAvailability.flush(); // Nothing left to write behind the reset
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM borrowed_books WHERE id > " + seededBorrowCount);
+            stmt.executeUpdate("UPDATE users u SET active_borrows = (SELECT COUNT(*) FROM borrowed_books bb " +
+                    "WHERE bb.user_id = u.id AND bb.status = 'borrowed')");
+            stmt.executeUpdate("UPDATE books b SET available = quantity - (SELECT COUNT(*) FROM borrowed_books bb " +
+                    "WHERE bb.book_id = b.id AND bb.status = 'borrowed')");
+        }
+        if (BookAvailability.isEnabled()) {
+            BookAvailability.replay();
+        }
+    }
+
+    private static void createSchema(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE users (" +
+                    "id INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "name VARCHAR(100) NOT NULL, " +
+                    "email VARCHAR(100) NOT NULL UNIQUE, " +
+                    "password VARCHAR(255) NOT NULL, " +
+                    "role VARCHAR(10) NOT NULL DEFAULT 'user', " +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                    "active_borrows INT NOT NULL DEFAULT 0, " +
+                    "fine_balance DECIMAL(10, 2) NOT NULL DEFAULT 0.00)");
+            stmt.execute("CREATE TABLE books (" +
+                    "id INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "title VARCHAR(255) NOT NULL, " +
+                    "author VARCHAR(255) NOT NULL, " +
+                    "genre VARCHAR(100), " +
+                    "isbn VARCHAR(20) NOT NULL UNIQUE, " +
+                    "publisher VARCHAR(255), " +
+                    "quantity INT NOT NULL DEFAULT 1, " +
+                    "available INT NOT NULL DEFAULT 1, " +
+                    "added_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            stmt.execute("CREATE TABLE borrowed_books (" +
+                    "id INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "user_id INT NOT NULL, " +
+                    "book_id INT NOT NULL, " +
+                    "borrow_date TIMESTAMP NOT NULL, " +
+                    "due_date TIMESTAMP NOT NULL, " +
+                    "return_date TIMESTAMP NULL, " +
+                    "fine DECIMAL(10, 2) DEFAULT 0.00, " +
+                    "status VARCHAR(10) NOT NULL DEFAULT 'borrowed', " +
+                    "fine_accrued_on DATE NULL, " +
+                    "FOREIGN KEY (user_id) REFERENCES users(id), " +
+                    "FOREIGN KEY (book_id) REFERENCES books(id))");
+            stmt.execute("CREATE TABLE payments (" +
+                    "id INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "user_id INT NOT NULL, " +
+                    "amount DECIMAL(10, 2) NOT NULL, " +
+                    "payment_date TIMESTAMP NOT NULL, " +
+                    "method VARCHAR(50), " +
+                    "description VARCHAR(255), " +
+                    "FOREIGN KEY (user_id) REFERENCES users(id))");
+            stmt.execute("CREATE TABLE book_stats (book_id INT PRIMARY KEY, times_borrowed INT NOT NULL DEFAULT 0)");
+            stmt.execute("CREATE INDEX idx_book_stats_times_borrowed ON book_stats (times_borrowed)");
+            stmt.execute("CREATE TABLE user_stats (user_id INT PRIMARY KEY, " +
+                    "total_borrowed INT NOT NULL DEFAULT 0, books_returned INT NOT NULL DEFAULT 0, " +
+                    "overdue_books INT NOT NULL DEFAULT 0)");
+            stmt.execute("CREATE TABLE monthly_stats (month CHAR(7) PRIMARY KEY, " +
+                    "books_borrowed INT NOT NULL DEFAULT 0, books_returned INT NOT NULL DEFAULT 0, " +
+                    "overdue_books INT NOT NULL DEFAULT 0, total_fines DECIMAL(12, 2) NOT NULL DEFAULT 0.00)");
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.library.bench;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Runs the DAO benchmarks and prints a compact throughput / p99 summary.
+ * Data set sizes and the benchmark selection come from system properties, e.g.
+ * <pre>
+ * gradle :jmh:run -Dbench.catalog=100000 -Dbench.users=5000 -Dbench.history=1000000 \
+ *      -Dbench.include=search
+ * </pre>
+ * -Dbench.statementPooling=true,false runs each benchmark with and without
+ * the prepared statement pool, and -Dbench.inMemoryAvailability=false,true
+ * with and without the in-memory availability counters, for before/after comparisons.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(DaoBenchmark.class.getSimpleName() + "." + System.getProperty("bench.include", ""));
+        setParam(options, "catalogSize", "bench.catalog");
+        setParam(options, "userCount", "bench.users");
+        setParam(options, "historySize", "bench.history");
+        setParam(options, "statementPooling", "bench.statementPooling");
+        setParam(options, "inMemoryAvailability", "bench.inMemoryAvailability");
+        if (System.getProperty("bench.threads") != null) {
+            options.threads(Integer.getInteger("bench.threads"));
+        }
+
+        Collection<RunResult> results = new Runner(options.build()).run();
+        printSummary(results);
+    }
+
+    // Comma-separated values run the benchmark once per size
+    private static void setParam(ChainedOptionsBuilder options, String param, String property) {
+        String value = System.getProperty(property);
+        if (value != null && !value.isBlank()) {
+            options.param(param, value.split(","));
+        }
+    }
+
+    private static void printSummary(Collection<RunResult> results) {
+        List<RunResult> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparing((RunResult r) -> r.getParams().getBenchmark())
+                .thenComparing(r -> r.getParams().getParam("catalogSize"))
+                .thenComparing(r -> r.getParams().getParam("historySize"))
+                .thenComparing(r -> r.getParams().getParam("statementPooling"))
+                .thenComparing(r -> r.getParams().getParam("inMemoryAvailability")));
+
+        System.out.println();
+        System.out.printf("%-28s %10s %10s %8s %8s %14s %12s%n",
+                "Benchmark", "Catalog", "History", "Pooled", "InMem", "Throughput", "p99");
+        for (RunResult result : sorted) {
+            if (result.getParams().getMode() != Mode.Throughput) {
+                continue;
+            }
+            String benchmark = result.getParams().getBenchmark();
+            String catalog = result.getParams().getParam("catalogSize");
+            String history = result.getParams().getParam("historySize");
+            String pooled = result.getParams().getParam("statementPooling");
+            String inMemory = result.getParams().getParam("inMemoryAvailability");
+            Result<?> throughput = result.getPrimaryResult();
+            Result<?> sample = findSample(sorted, benchmark, catalog, history, pooled, inMemory);
+
+            System.out.printf("%-28s %10s %10s %8s %8s %14s %12s%n",
+                    benchmark.substring(benchmark.lastIndexOf('.') + 1),
+                    catalog,
+                    history,
+                    pooled,
+                    inMemory,
+                    String.format("%.1f %s", throughput.getScore(), throughput.getScoreUnit()),
+                    sample != null
+                            ? String.format("%.3f ms", sample.getStatistics().getPercentile(99))
+                            : "-");
+        }
+    }
+
+    private static Result<?> findSample(List<RunResult> results, String benchmark, String catalog, String history,
+                                        String pooled, String inMemory) {
+        for (RunResult result : results) {
+            if (result.getParams().getMode() == Mode.SampleTime
+                    && result.getParams().getBenchmark().equals(benchmark)
+                    && result.getParams().getParam("catalogSize").equals(catalog)
+                    && result.getParams().getParam("historySize").equals(history)
+                    && result.getParams().getParam("statementPooling").equals(pooled)
+                    && result.getParams().getParam("inMemoryAvailability").equals(inMemory)) {
+                return result.getPrimaryResult();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,237 @@
+package com.library.bench;
+
+import com.library.dao.BookAvailability;
+import com.library.dao.BookDAO;
+import com.library.dao.BookSearchIndex;
+import com.library.dao.BorrowedBookDAO;
+import com.library.dao.PaymentDAO;
+import com.library.dao.UserDAO;
+import com.library.model.BorrowedBookView;
+import com.library.tools.DataGenerator;
+import com.library.utils.DBConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DAO hot paths against the seeded embedded database.
+ * Every benchmark runs in both throughput and sampling mode, so the report
+ * carries ops/s alongside the latency percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class DaoBenchmark {
+    private static final int BORROW_DAYS = 14;
+    private static final int STACK_SIZE = 3;
+
+    @Param({"10000"})
+    public int catalogSize;
+
+    @Param({"2000"})
+    public int userCount;
+
+    @Param({"100000"})
+    public int historySize;
+
+    // Run with "true,false" to compare the DAO paths with and without the prepared statement pool
+    @Param({"true"})
+    public boolean statementPooling;
+
+    // Run with "false,true" to compare checkouts against books.available with the in-memory counters
+    @Param({"false"})
+    public boolean inMemoryAvailability;
+
+    @Setup(Level.Trial)
+    public void startDatabase() throws Exception {
+        BenchmarkDatabase.start(catalogSize, userCount, historySize, statementPooling, inMemoryAvailability);
+        BookDAO.buildSearchIndex();
+    }
+
+    @TearDown(Level.Iteration)
+    public void resetCirculation() throws Exception {
+        BenchmarkDatabase.resetCirculation();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDatabase() {
+        BookAvailability.stop();
+        DBConnection.shutdown();
+    }
+
+    /**
+     * Per-thread source of random users, books and search terms,
+     * so concurrent runs don't contend on a shared Random.
+     */
+    @State(Scope.Thread)
+    public static class Picks {
+        private Random random;
+        private int catalogSize;
+        private int userCount;
+
+        @Setup(Level.Trial)
+        public void setUp(DaoBenchmark benchmark) {
+            random = new Random(Thread.currentThread().getId());
+            catalogSize = benchmark.catalogSize;
+            userCount = benchmark.userCount;
+        }
+
+        int user() {
+            return 1 + random.nextInt(userCount);
+        }
+
+        int book() {
+            return 1 + random.nextInt(catalogSize);
+        }
+
+        String email() {
+            return "user" + user() + "@loadtest.example";
+        }
+
+        String query() {
+            String word = DataGenerator.TITLE_WORDS.get(random.nextInt(DataGenerator.TITLE_WORDS.size()));
+            // Mix full words with the short prefixes typed while the user is still typing
+            return random.nextBoolean() ? word : word.substring(0, 3);
+        }
+
+        String filter() {
+            return switch (random.nextInt(3)) {
+                case 0 -> "Borrowed";
+                case 1 -> "Returned";
+                default -> "All";
+            };
+        }
+    }
+
+    // Borrow one copy and hand it straight back, leaving the data set as it was
+    @Benchmark
+    public boolean borrowAndReturn(Picks picks) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Timestamp due = new Timestamp(now.getTime() + TimeUnit.DAYS.toMillis(BORROW_DAYS));
+        List<BorrowedBookDAO.BatchResult> results =
+                BorrowedBookDAO.borrowBooks(picks.user(), List.of(picks.book()), now, due);
+        BorrowedBookDAO.BatchResult result = results.get(0);
+        return result.isSuccess() && BorrowedBookDAO.returnBook(result.getBorrowId());
+    }
+
+    // Single-item borrow through the conditional-update path; the slot is released by the iteration reset
+    @Benchmark
+    public boolean borrowBook(Picks picks) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Timestamp due = new Timestamp(now.getTime() + TimeUnit.DAYS.toMillis(BORROW_DAYS));
+        return BorrowedBookDAO.borrowBook(picks.user(), picks.book(), now, due);
+    }
+
+    // Counter desk flow: a small stack borrowed together, then returned together
+    @Benchmark
+    public int borrowAndReturnStack(Picks picks) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Timestamp due = new Timestamp(now.getTime() + TimeUnit.DAYS.toMillis(BORROW_DAYS));
+        List<Integer> bookIds = new ArrayList<>(STACK_SIZE);
+        for (int i = 0; i < STACK_SIZE; i++) {
+            bookIds.add(picks.book());
+        }
+
+        List<Integer> borrowIds = new ArrayList<>(STACK_SIZE);
+        for (BorrowedBookDAO.BatchResult result : BorrowedBookDAO.borrowBooks(picks.user(), bookIds, now, due)) {
+            if (result.isSuccess()) {
+                borrowIds.add(result.getBorrowId());
+            }
+        }
+        return BorrowedBookDAO.returnBooks(borrowIds).size();
+    }
+
+    @Benchmark
+    public void searchBooks(Picks picks, Blackhole blackhole) {
+        blackhole.consume(BookDAO.searchBooks(picks.query()));
+    }
+
+    @Benchmark
+    public void searchBooksByTitle(Picks picks, Blackhole blackhole) {
+        blackhole.consume(BookDAO.searchBooks(picks.query(), EnumSet.of(BookSearchIndex.Field.TITLE)));
+    }
+
+    @Benchmark
+    public void getBookById(Picks picks, Blackhole blackhole) {
+        blackhole.consume(BookDAO.getBookById(picks.book()));
+    }
+
+    @Benchmark
+    public void getUserByEmail(Picks picks, Blackhole blackhole) {
+        blackhole.consume(UserDAO.getUserByEmail(picks.email()));
+    }
+
+    @Benchmark
+    public void getTransactionsFirstPage(Picks picks, Blackhole blackhole) throws Exception {
+        blackhole.consume(BorrowedBookDAO.getTransactionsPage(picks.filter(), null, 0,
+                BorrowedBookDAO.DEFAULT_PAGE_SIZE));
+    }
+
+    // Scrolls five pages deep, the way the transactions table does
+    @Benchmark
+    public void getTransactionsScroll(Picks picks, Blackhole blackhole) throws Exception {
+        String filter = picks.filter();
+        BorrowedBookView last = null;
+        for (int page = 0; page < 5; page++) {
+            List<BorrowedBookView> rows = BorrowedBookDAO.getTransactionsPage(filter,
+                    last != null ? last.getBorrowDate() : null, last != null ? last.getId() : 0,
+                    BorrowedBookDAO.DEFAULT_PAGE_SIZE);
+            blackhole.consume(rows);
+            if (rows.size() < BorrowedBookDAO.DEFAULT_PAGE_SIZE) {
+                break;
+            }
+            last = rows.get(rows.size() - 1);
+        }
+    }
+
+    @Benchmark
+    public void getAllTransactions(Picks picks, Blackhole blackhole) throws Exception {
+        blackhole.consume(BorrowedBookDAO.getAllTransactions(picks.filter()));
+    }
+
+    @Benchmark
+    public void getOverdueBooks(Blackhole blackhole) throws Exception {
+        blackhole.consume(BorrowedBookDAO.getOverdueBooks());
+    }
+
+    @Benchmark
+    public void getFinesWithDetails(Blackhole blackhole) throws Exception {
+        blackhole.consume(BorrowedBookDAO.getFinesWithDetails("Unpaid Fines"));
+    }
+
+    @Benchmark
+    public void getUserBorrowedBooks(Picks picks, Blackhole blackhole) throws Exception {
+        blackhole.consume(BorrowedBookDAO.getUserBorrowedBooks(picks.user()));
+    }
+
+    @Benchmark
+    public void getTotalPaymentsByUser(Picks picks, Blackhole blackhole) {
+        blackhole.consume(PaymentDAO.getTotalPaymentsByUser(picks.user()));
+    }
+
+    @Benchmark
+    public void getPaymentHistory(Picks picks, Blackhole blackhole) throws Exception {
+        blackhole.consume(PaymentDAO.getPaymentHistory(picks.user()));
+    }
+}
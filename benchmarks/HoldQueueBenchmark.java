@@ -0,0 +1,137 @@
+package com.library.bench;
+
+import com.library.dao.HoldQueue;
+import com.library.model.Hold;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocation throughput under a stream of returns: each operation is a return of a
+ * random book that hands the copy to the next eligible patron, who then queues for
+ * it again so the lines stay at queueDepth. Compares the HoldQueue heap against a
+ * scan of every waiting hold for the book, the in-memory equivalent of picking the
+ * next patron with an ORDER BY over the holds table. One patron in ten turns out
+ * to be at the borrow limit and is passed over for that copy.
+ * Threads come from -Dbench.threads (default 4).
+ * <pre>
+ * java -Dbench.threads=8 -cp ... com.library.bench.HoldQueueBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HoldQueueBenchmark {
+    private static final int BOOKS = 64;
+    private static final HoldQueue.Eligibility ELIGIBLE = hold -> ThreadLocalRandom.current().nextInt(10) != 0;
+
+    @Param({"10", "1000", "10000"})
+    public int queueDepth;
+
+    private HoldQueue queue;
+    private List<List<Hold>> scanned; // Same holds, unordered, for the scan
+    private final AtomicLong clock = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        queue = new HoldQueue();
+        scanned = new ArrayList<>(BOOKS);
+        int holdId = 0;
+        for (int bookId = 1; bookId <= BOOKS; bookId++) {
+            List<Hold> line = new ArrayList<>(queueDepth);
+            for (int i = 0; i < queueDepth; i++) {
+                holdId++;
+                // A few priority levels, so ties fall back to placement time
+                Hold hold = new Hold(holdId, holdId, bookId, holdId % 3, nextPlacedAt(),
+                        Hold.Status.WAITING, null, null);
+                queue.add(hold);
+                line.add(new Hold(holdId, holdId, bookId, hold.getPriority(), hold.getPlacedAt(),
+                        Hold.Status.WAITING, null, null));
+            }
+            scanned.add(line);
+        }
+    }
+
+    private Timestamp nextPlacedAt() {
+        return new Timestamp(clock.incrementAndGet());
+    }
+
+    @Benchmark
+    public Hold allocateHeap() throws SQLException {
+        int bookId = ThreadLocalRandom.current().nextInt(BOOKS) + 1;
+        Hold hold = queue.poll(bookId, ELIGIBLE);
+        if (hold != null) {
+            hold.setPlacedAt(nextPlacedAt()); // Back of the line at the same priority
+            queue.add(hold);
+        }
+        return hold;
+    }
+
+    @Benchmark
+    public Hold allocateScan() throws SQLException {
+        List<Hold> line = scanned.get(ThreadLocalRandom.current().nextInt(BOOKS));
+        synchronized (line) {
+            List<Hold> passedOver = new ArrayList<>();
+            while (passedOver.size() < line.size()) {
+                // One full pass per candidate, skipping the patrons already passed over
+                int next = -1;
+                for (int i = 0; i < line.size(); i++) {
+                    Hold candidate = line.get(i);
+                    if (!passedOver.contains(candidate)
+                            && (next < 0 || HoldQueue.ORDER.compare(candidate, line.get(next)) < 0)) {
+                        next = i;
+                    }
+                }
+                Hold hold = line.get(next);
+                if (ELIGIBLE.test(hold)) {
+                    line.remove(next);
+                    hold.setPlacedAt(nextPlacedAt());
+                    line.add(hold);
+                    return hold;
+                }
+                passedOver.add(hold);
+            }
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(HoldQueueBenchmark.class.getSimpleName())
+                .threads(Integer.getInteger("bench.threads", 4));
+
+        System.out.println();
+        System.out.printf("%-16s %10s %14s%n", "Benchmark", "Depth", "ops/ms");
+        for (RunResult result : new Runner(options.build()).run()) {
+            String benchmark = result.getParams().getBenchmark();
+            System.out.printf("%-16s %10s %14.1f%n",
+                    benchmark.substring(benchmark.lastIndexOf('.') + 1),
+                    result.getParams().getParam("queueDepth"),
+                    result.getPrimaryResult().getScore());
+        }
+    }
+}
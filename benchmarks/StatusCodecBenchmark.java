@@ -0,0 +1,98 @@
+package com.library.bench;
+
+import com.library.dao.BorrowedBookDAO;
+import com.library.model.BorrowedBook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding and encoding of borrowed_books.status, the old way (upper-case the
+ * column value, then Enum.valueOf) against the EnumColumn codec.
+ * Runs with the GC profiler; gc.alloc.rate.norm is the bytes allocated per call.
+ * <pre>
+ * java -cp ... com.library.bench.StatusCodecBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatusCodecBenchmark {
+    private static final int VALUES = 1024; // Power of two, for the index mask
+
+    private String[] columnValues;
+    private BorrowedBook.Status[] statuses;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        columnValues = new String[VALUES];
+        statuses = new BorrowedBook.Status[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            // Fresh copies, like the Strings a driver builds for each row
+            columnValues[i] = new String(random.nextInt(4) == 0 ? "borrowed" : "returned");
+            statuses[i] = random.nextBoolean() ? BorrowedBook.Status.BORROWED : BorrowedBook.Status.RETURNED;
+        }
+    }
+
+    private int nextIndex() {
+        return next++ & (VALUES - 1);
+    }
+
+    @Benchmark
+    public BorrowedBook.Status decodeValueOf() {
+        return BorrowedBook.Status.valueOf(columnValues[nextIndex()].toUpperCase());
+    }
+
+    @Benchmark
+    public BorrowedBook.Status decodeCodec() {
+        return BorrowedBookDAO.STATUS.decode(columnValues[nextIndex()]);
+    }
+
+    @Benchmark
+    public String encodeToLowerCase() {
+        return statuses[nextIndex()].name().toLowerCase();
+    }
+
+    @Benchmark
+    public String encodeCodec() {
+        return BorrowedBookDAO.STATUS.encode(statuses[nextIndex()]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(StatusCodecBenchmark.class.getSimpleName());
+        options.addProfiler(GCProfiler.class);
+
+        System.out.println();
+        System.out.printf("%-20s %12s %14s%n", "Benchmark", "ns/op", "bytes/op");
+        for (RunResult result : new Runner(options.build()).run()) {
+            String benchmark = result.getParams().getBenchmark();
+            Result<?> allocated = result.getSecondaryResults().get("gc.alloc.rate.norm");
+            System.out.printf("%-20s %12.1f %14s%n",
+                    benchmark.substring(benchmark.lastIndexOf('.') + 1),
+                    result.getPrimaryResult().getScore(),
+                    allocated != null ? String.format("%.1f", allocated.getScore()) : "-");
+        }
+    }
+}
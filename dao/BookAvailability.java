@@ -0,0 +1,300 @@
+package com.library.dao;
+
+import com.library.utils.DBConnection;
+
+import java.sql.*;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-memory copy counts for every book, for single-node deployments
+ * (db.availability.inMemory). When enabled, these counters rather than
+ * books.available decide whether a copy can be borrowed: a checkout reserves a
+ * copy with a compare-and-set on the book's counter instead of an UPDATE holding
+ * the book row lock until commit, so concurrent checkouts of a popular title no
+ * longer queue behind each other in the database.
+ * <p>
+ * Committed changes are written behind: each book's net change accumulates in a
+ * pending delta, and a background flusher writes all the pending deltas every
+ * db.availability.flushMillis as one batch of UPDATEs. Until then, readers of
+ * books.available outside the DAOs can be behind by one flush interval; books
+ * mapped through the DAOs show the live count.
+ * <p>
+ * The counters are rebuilt at startup from quantity less the open borrows and
+ * the copies set aside for ready holds. Borrow records and holds are written in
+ * the transaction that moves the copy, so deltas lost in a crash cost nothing,
+ * and the rebuilt counts are written back to books.available before the
+ * flusher starts.
+ */
+public final class BookAvailability {
+    private static final Logger logger = Logger.getLogger(BookAvailability.class.getName());
+
+    // Copies set aside for ready holds are off the shelf as much as borrowed ones
+    private static final String REPLAY_SQL = "SELECT b.id, " +
+            "b.quantity - COALESCE(o.open_borrows, 0) - COALESCE(h.held, 0) AS available " +
+            "FROM books b LEFT JOIN (SELECT book_id, COUNT(*) AS open_borrows FROM borrowed_books " +
+            "WHERE status = 'borrowed' GROUP BY book_id) o ON o.book_id = b.id " +
+            "LEFT JOIN (SELECT book_id, COUNT(*) AS held FROM holds " +
+            "WHERE status = 'ready' GROUP BY book_id) h ON h.book_id = b.id";
+    private static final String SYNC_SQL = "UPDATE books SET available = ? WHERE id = ? AND available <> ?";
+    private static final String FLUSH_SQL = "UPDATE books SET available = available + ? WHERE id = ?";
+    private static final int SYNC_BATCH_SIZE = 1000;
+
+    // Copies on the shelf, the authority while enabled
+    private static final ConcurrentHashMap<Integer, AtomicInteger> available = new ConcurrentHashMap<>();
+    // Committed changes not yet written to books.available
+    private static final ConcurrentHashMap<Integer, AtomicInteger> pending = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = false;
+    private static ScheduledExecutorService flusher;
+
+    private BookAvailability() {
+    }
+
+    /**
+     * Rebuilds the counters and starts the flusher, if db.availability.inMemory is set.
+     * Call once at startup, after migrations and before any borrow or return.
+     */
+    public static synchronized void start() throws SQLException {
+        if (enabled || !DBConnection.isInMemoryAvailability()) {
+            return;
+        }
+        int books = replay();
+        enabled = true;
+
+        long interval = DBConnection.getAvailabilityFlushMillis();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "availability-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(BookAvailability::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(BookAvailability::flushQuietly, "availability-final-flush"));
+        logger.log(Level.INFO, "Counting availability in memory for " + books + " books, flushing every " +
+                interval + " ms");
+    }
+
+    /**
+     * Stops the flusher after writing what is pending
+     */
+    public static synchronized void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher = null;
+        }
+        flushQuietly();
+        enabled = false;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Recomputes every counter from quantity, the open borrows and the ready holds, and writes any
+     * count that differs back to books.available. Pending deltas are dropped, as
+     * the recomputed counts already include them.
+     * @return Number of books counted
+     */
+    public static int replay() throws SQLException {
+        Map<Integer, Integer> counts = new TreeMap<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(REPLAY_SQL,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(DBConnection.getFetchSize());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    counts.put(rs.getInt(1), rs.getInt(2));
+                }
+            }
+        }
+
+        pending.clear();
+        available.clear();
+        for (Map.Entry<Integer, Integer> count : counts.entrySet()) {
+            available.put(count.getKey(), new AtomicInteger(count.getValue()));
+        }
+        int corrected = sync(counts);
+        if (corrected > 0) {
+            logger.log(Level.WARNING, "Corrected books.available for " + corrected +
+                    " books from the borrow records");
+        }
+        return counts.size();
+    }
+
+    /**
+     * Applies an edit of a book's quantity to its count, as a delta on the live
+     * counter and the write-behind, so borrows and returns in flight keep theirs.
+     * Lowering quantity below the copies out leaves the count negative until enough come back.
+     */
+    public static void quantityChanged(int bookId, int delta) {
+        AtomicInteger counter = available.get(bookId);
+        if (counter == null || delta == 0) {
+            return;
+        }
+        counter.addAndGet(delta);
+        addPending(bookId, delta);
+    }
+
+    // Writes absolute counts to books.available where they differ; returns the rows changed
+    private static int sync(Map<Integer, Integer> counts) throws SQLException {
+        int changed = 0;
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SYNC_SQL)) {
+            int batched = 0;
+            for (Map.Entry<Integer, Integer> count : counts.entrySet()) {
+                pstmt.setInt(1, count.getValue());
+                pstmt.setInt(2, count.getKey());
+                pstmt.setInt(3, count.getValue());
+                pstmt.addBatch();
+                if (++batched == SYNC_BATCH_SIZE) {
+                    changed += sum(pstmt.executeBatch());
+                    batched = 0;
+                }
+            }
+            changed += sum(pstmt.executeBatch());
+        }
+        return changed;
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+
+    // A book added while running starts with its own available count
+    public static void track(int bookId, int copies) {
+        if (enabled) {
+            available.put(bookId, new AtomicInteger(copies));
+        }
+    }
+
+    public static void forget(int bookId) {
+        available.remove(bookId);
+        pending.remove(bookId);
+    }
+
+    public static boolean isTracked(int bookId) {
+        return available.containsKey(bookId);
+    }
+
+    /**
+     * Live count for a book read from the database, or the database value when not tracked
+     */
+    public static int current(int bookId, int stored) {
+        if (!enabled) {
+            return stored;
+        }
+        AtomicInteger counter = available.get(bookId);
+        return counter != null ? counter.get() : stored;
+    }
+
+    /**
+     * Takes copies off the shelf if that many are there. Pair with
+     * {@link #commitReserved} once the borrow commits, or {@link #cancel} if it doesn't.
+     */
+    public static boolean tryReserve(int bookId, int copies) {
+        AtomicInteger counter = available.get(bookId);
+        if (counter == null) {
+            return false;
+        }
+        while (true) {
+            int current = counter.get();
+            if (current < copies) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - copies)) {
+                return true;
+            }
+        }
+    }
+
+    // Puts back copies reserved by a borrow that rolled back
+    public static void cancel(int bookId, int copies) {
+        AtomicInteger counter = available.get(bookId);
+        if (counter != null) {
+            counter.addAndGet(copies);
+        }
+    }
+
+    // Queues the write for copies reserved by a committed borrow
+    public static void commitReserved(int bookId, int copies) {
+        addPending(bookId, -copies);
+    }
+
+    // Returns copies to the shelf once the return has committed
+    public static void returned(int bookId, int copies) {
+        cancel(bookId, copies);
+        addPending(bookId, copies);
+    }
+
+    private static void addPending(int bookId, int delta) {
+        pending.computeIfAbsent(bookId, id -> new AtomicInteger()).addAndGet(delta);
+    }
+
+    /**
+     * Writes the pending deltas as one batch, in book ID order.
+     * Deltas that fail to write are put back for the next flush.
+     * @return Number of books written
+     */
+    public static int flush() throws SQLException {
+        Map<Integer, Integer> deltas = new TreeMap<>();
+        for (Map.Entry<Integer, AtomicInteger> entry : pending.entrySet()) {
+            int delta = entry.getValue().getAndSet(0);
+            if (delta != 0) {
+                deltas.put(entry.getKey(), delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        Connection conn = null;
+        try {
+            conn = DBConnection.getConnection();
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(FLUSH_SQL)) {
+                for (Map.Entry<Integer, Integer> delta : deltas.entrySet()) {
+                    pstmt.setInt(1, delta.getValue());
+                    pstmt.setInt(2, delta.getKey());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            conn.commit();
+            return deltas.size();
+        } catch (SQLException e) {
+            DBConnection.rollbackTransaction(conn);
+            for (Map.Entry<Integer, Integer> delta : deltas.entrySet()) {
+                addPending(delta.getKey(), delta.getValue());
+            }
+            throw e;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    logger.log(Level.WARNING, "Error resetting auto-commit", e);
+                }
+            }
+            DBConnection.closeConnection(conn);
+        }
+    }
+
+    private static void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Availability flush failed, retrying on the next run", e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.library.dao;
+
+import com.library.model.Book;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of catalog entries, keyed by book ID with a secondary ISBN lookup.
+ * Entries are copied on the way in and out so callers can't mutate cached state.
+ * <p>
+ * Writers invalidate rather than update entries. A reader that misses takes a version
+ * before querying and caches the row only if nothing was invalidated since, so a row
+ * read before a concurrent borrow committed is never put back over the invalidation.
+ * Versions are striped by book ID to stay bounded; a collision only drops a put.
+ */
+public class BookCache {
+    private static final int VERSION_STRIPES = 1024;
+
+    private final int maxEntries;
+    private final Map<Integer, Book> byId;
+    private final Map<String, Integer> idByIsbn = new HashMap<>();
+    private final long[] versions = new long[VERSION_STRIPES];
+    private long invalidations; // All stripes, for lookups that don't know the ID up front
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public BookCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Book> eldest) {
+                if (size() > BookCache.this.maxEntries) {
+                    idByIsbn.remove(eldest.getValue().getIsbn());
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized Book getById(int bookId) {
+        Book book = byId.get(bookId);
+        record(book);
+        return copyOf(book);
+    }
+
+    public synchronized Book getByIsbn(String isbn) {
+        Integer bookId = idByIsbn.get(isbn);
+        Book book = bookId != null ? byId.get(bookId) : null;
+        record(book);
+        return copyOf(book);
+    }
+
+    // Take before querying for a book by ID, and pass to putIfCurrent
+    public synchronized long version(int bookId) {
+        return versions[stripe(bookId)];
+    }
+
+    // Take before querying for a book by anything else, and pass to putIfUnchanged
+    public synchronized long version() {
+        return invalidations;
+    }
+
+    /**
+     * Caches a book loaded by ID, unless it was invalidated since version(bookId) was taken
+     * @return false if the put was dropped
+     */
+    public synchronized boolean putIfCurrent(Book book, long version) {
+        if (versions[stripe(book.getBookId())] != version) {
+            return false;
+        }
+        put(book);
+        return true;
+    }
+
+    /**
+     * Caches a book loaded by ISBN, unless any book was invalidated since version() was taken
+     * @return false if the put was dropped
+     */
+    public synchronized boolean putIfUnchanged(Book book, long version) {
+        if (invalidations != version) {
+            return false;
+        }
+        put(book);
+        return true;
+    }
+
+    private void put(Book book) {
+        Book previous = byId.remove(book.getBookId());
+        if (previous != null) {
+            idByIsbn.remove(previous.getIsbn());
+        }
+        byId.put(book.getBookId(), copyOf(book));
+        if (book.getIsbn() != null) {
+            idByIsbn.put(book.getIsbn(), book.getBookId());
+        }
+    }
+
+    // Call after the change to the book's row has committed
+    public synchronized void invalidate(int bookId) {
+        versions[stripe(bookId)]++;
+        invalidations++;
+        Book previous = byId.remove(bookId);
+        if (previous != null) {
+            idByIsbn.remove(previous.getIsbn());
+        }
+    }
+
+    public synchronized void clear() {
+        byId.clear();
+        idByIsbn.clear();
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BookCache { size=%d/%d, hits=%d, misses=%d, evictions=%d, hitRatio=%.2f }",
+                size(), maxEntries, getHits(), getMisses(), getEvictions(), getHitRatio());
+    }
+
+    private void record(Book book) {
+        if (book != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+    }
+
+    private static int stripe(int bookId) {
+        return bookId & (VERSION_STRIPES - 1);
+    }
+
+    private static Book copyOf(Book book) {
+        if (book == null) {
+            return null;
+        }
+        return new Book(book.getBookId(), book.getTitle(), book.getAuthor(), book.getGenre(),
+                book.getIsbn(), book.getPublisher(), book.getQuantity(), book.getAvailable(), book.getAddedAt());
+    }
+}
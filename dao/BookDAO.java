@@ -1,17 +1,74 @@
 package com.library.dao;
 
 import com.library.model.Book;
+import com.library.utils.BulkInsert;
 import com.library.utils.DBConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class BookDAO {
 
     private static final Logger logger = Logger.getLogger(BookDAO.class.getName());
+    public static final int SEARCH_LIMIT = 500;
+    private static final int CACHE_SIZE = 10000;
+    private static final BookCache cache = new BookCache(CACHE_SIZE);
+    private static final BookSearchIndex searchIndex = new BookSearchIndex();
+    private static volatile boolean searchIndexReady = false;
+    private static final BulkInsert<Book> bulkInsert = new BulkInsert<>("books",
+            new String[]{"title", "author", "genre", "isbn", "publisher", "quantity", "available", "added_at"},
+            (pstmt, i, book) -> {
+                pstmt.setString(i, book.getTitle());
+                pstmt.setString(i + 1, book.getAuthor());
+                pstmt.setString(i + 2, book.getGenre());
+                pstmt.setString(i + 3, book.getIsbn());
+                pstmt.setString(i + 4, book.getPublisher());
+                pstmt.setInt(i + 5, book.getQuantity());
+                pstmt.setInt(i + 6, book.getAvailable());
+                pstmt.setTimestamp(i + 7, book.getAddedAt());
+            });
+
+    private static final String INSERT_BOOK_SQL = "INSERT INTO books (id, title, author, genre, isbn, publisher, quantity, available, added_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)";
+    private static final String SELECT_ALL_BOOKS_SQL = "SELECT id, title, author, genre, isbn, publisher, quantity, available, added_at FROM books";
+    private static final String SELECT_BOOK_BY_ID_SQL = "SELECT id, title, author, genre, isbn, publisher, quantity, available, added_at FROM books WHERE id = ?";
+    private static final String SELECT_BOOK_BY_ISBN_SQL = "SELECT id, title, author, genre, isbn, publisher, quantity, available, added_at FROM books WHERE isbn = ?";
+    private static final String SEARCH_BOOKS_LIKE_SQL = "SELECT id, title, author, genre, isbn, publisher, quantity, available, added_at FROM books WHERE ";
+    private static final String UPDATE_BOOK_SQL = "UPDATE books SET title = ?, author = ?, genre = ?, isbn = ?, publisher = ?, quantity = ?, available = ? WHERE id = ?";
+    // With in-memory availability the counter owns available; a quantity edit moves it by the difference
+    private static final String SELECT_QUANTITY_FOR_UPDATE_SQL = "SELECT quantity FROM books WHERE id = ? FOR UPDATE";
+    private static final String UPDATE_BOOK_DETAILS_SQL = "UPDATE books SET title = ?, author = ?, genre = ?, isbn = ?, publisher = ?, quantity = ? WHERE id = ?";
+    private static final String DELETE_BOOK_SQL = "DELETE FROM books WHERE id = ?";
+    private static final String UPDATE_AVAILABILITY_SQL = "UPDATE books SET available = available + ? WHERE id = ?";
+
+    /**
+     * Builds the in-memory search index from the full catalog.
+     * Until this completes, searches fall back to LIKE queries; if it fails, they keep doing so.
+     * Books added, edited or deleted while the catalog loads are reapplied on top of it.
+     */
+    public static void buildSearchIndex() throws SQLException {
+        long start = System.currentTimeMillis();
+        List<Book> books = new ArrayList<>();
+        searchIndex.beginRebuild();
+        try {
+            forEachBook(books::add);
+        } catch (SQLException e) {
+            searchIndex.abortRebuild();
+            throw e;
+        }
+        searchIndex.rebuild(books);
+        searchIndexReady = true;
+        logger.log(Level.INFO, "Indexed " + searchIndex.size() + " books for search in " +
+                (System.currentTimeMillis() - start) + " ms");
+    }
 
     // Add a new book if it doesn't exist
     public static boolean addBook(Book book) {
@@ -20,9 +77,8 @@ public class BookDAO {
             return false;
         }
 
-        String query = "INSERT INTO books (id, title, author, genre, isbn, publisher, quantity, available, added_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_BOOK_SQL, Statement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setInt(1, book.getBookId());
             pstmt.setString(2, book.getTitle());
@@ -33,7 +89,17 @@ public class BookDAO {
             pstmt.setInt(7, book.getQuantity());
             pstmt.setInt(8, book.getAvailable());
 
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    book.setBookId(generatedKeys.getInt(1));
+                }
+            }
+            searchIndex.index(book);
+            BookAvailability.track(book.getBookId(), book.getAvailable());
+            return true;
 
         } catch (SQLException e) {
             System.err.println("Error adding book: " + e.getMessage());
@@ -41,55 +107,55 @@ public class BookDAO {
         }
     }
 
+    /**
+     * Bulk-loads books with multi-row inserts on the caller's connection and sets their generated IDs.
+     * Bypasses the search index and cache; call buildSearchIndex() afterwards in a running application.
+     */
+    public static void insertBooks(List<Book> books, Connection conn) throws SQLException {
+        int[] ids = new int[books.size()];
+        bulkInsert.insert(conn, books, ids);
+        for (int i = 0; i < ids.length; i++) {
+            books.get(i).setBookId(ids[i]);
+        }
+    }
+
     // Fetch all books
     public static List<Book> getAllBooks() {
         List<Book> books = new ArrayList<>();
-        String query = "SELECT id, title, author, genre, isbn, publisher, quantity, available, added_at FROM books";
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                books.add(new Book(
-                        rs.getInt("id"),
-                        rs.getString("title"),
-                        rs.getString("author"),
-                        rs.getString("genre"),
-                        rs.getString("isbn"),
-                        rs.getString("publisher"),
-                        rs.getInt("quantity"),
-                        rs.getInt("available"),
-                        rs.getTimestamp("added_at")
-                ));
-            }
+        try {
+            forEachBook(books::add);
         } catch (SQLException e) {
             System.err.println("Error fetching books: " + e.getMessage());
         }
         return books;
     }
 
+    // Streams the whole catalog to the consumer without holding it in a list
+    public static void forEachBook(Consumer<Book> consumer) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_ALL_BOOKS_SQL,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(DBConnection.getFetchSize());
+            Rows.forEach(pstmt, RowMappers.BOOK, consumer);
+        }
+    }
+
     // ✅ **NEW: Get a book by ID**
     public static Book getBookById(int bookId) {
-        String query = "SELECT id, title, author, genre, isbn, publisher, quantity, available, added_at FROM books WHERE id = ?";
+        Book cached = cache.getById(bookId);
+        if (cached != null) {
+            return withLiveAvailability(cached);
+        }
+
+        long version = cache.version(bookId);
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BOOK_BY_ID_SQL)) {
 
             pstmt.setInt(1, bookId);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                return new Book(
-                        rs.getInt("id"),
-                        rs.getString("title"),
-                        rs.getString("author"),
-                        rs.getString("genre"),
-                        rs.getString("isbn"),
-                        rs.getString("publisher"),
-                        rs.getInt("quantity"),
-                        rs.getInt("available"),
-                        rs.getTimestamp("added_at")
-                );
+            Book book = Rows.first(pstmt, RowMappers.BOOK);
+            if (book != null) {
+                cache.putIfCurrent(book, version);
+                return book;
             }
         } catch (SQLException e) {
             System.err.println("Error fetching book by ID: " + e.getMessage());
@@ -97,45 +163,170 @@ public class BookDAO {
         return null;
     }
 
-    // ✅ **NEW: Search books by Title, Author, or ISBN**
+    // Get a book by ISBN
+    public static Book getBookByIsbn(String isbn) {
+        Book cached = cache.getByIsbn(isbn);
+        if (cached != null) {
+            return withLiveAvailability(cached);
+        }
+
+        long version = cache.version();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BOOK_BY_ISBN_SQL)) {
+
+            pstmt.setString(1, isbn);
+            Book book = Rows.first(pstmt, RowMappers.BOOK);
+            if (book != null) {
+                cache.putIfUnchanged(book, version);
+                return book;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching book by ISBN: " + e.getMessage());
+        }
+        return null;
+    }
+
+    // With in-memory availability the counter is newer than any cached copy count
+    private static Book withLiveAvailability(Book book) {
+        book.setAvailable(BookAvailability.current(book.getBookId(), book.getAvailable()));
+        return book;
+    }
+
+    // Drop a book from the cache after its row was changed outside this DAO
+    public static void invalidateCachedBook(int bookId) {
+        cache.invalidate(bookId);
+    }
+
+    // Cache counters, for sizing CACHE_SIZE against the catalog
+    public static BookCache getCache() {
+        return cache;
+    }
+
+    // Fetch books by ID, in the order the IDs are given
+    public static List<Book> getBooksByIds(List<Integer> bookIds) {
+        if (bookIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String query = "SELECT id, title, author, genre, isbn, publisher, quantity, available, added_at FROM books " +
+                "WHERE id IN (" + InList.placeholders(bookIds.size()) + ")";
+
+        Map<Integer, Book> byId = new HashMap<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            InList.bind(pstmt, 1, bookIds);
+            Rows.forEach(pstmt, RowMappers.BOOK, book -> byId.put(book.getBookId(), book));
+        } catch (SQLException e) {
+            System.err.println("Error fetching books by ID: " + e.getMessage());
+        }
+
+        List<Book> books = new ArrayList<>(byId.size());
+        for (int bookId : bookIds) {
+            Book book = byId.get(bookId);
+            if (book != null) {
+                books.add(book);
+            }
+        }
+        return books;
+    }
+
+    // Search books by Title, Author, Genre, Publisher or ISBN, best match first
     public static List<Book> searchBooks(String query) {
+        return searchBooks(query, BookSearchIndex.ALL_FIELDS);
+    }
+
+    // Search books in the given fields only, best match first
+    public static List<Book> searchBooks(String query, Set<BookSearchIndex.Field> fields) {
+        return searchBooks(query, fields, QueryControl.NONE);
+    }
+
+    // As above; a LIKE fallback gets the timeout and cancellation of the caller's control
+    public static List<Book> searchBooks(String query, Set<BookSearchIndex.Field> fields, QueryControl control) {
+        return searchBooks(query, fields, null, control);
+    }
+
+    /**
+     * Searches the given fields, keeping only books with copies on the shelf
+     * (available true) or without (false), or all of them (null). The filter is
+     * applied before SEARCH_LIMIT, so it never hides matches a filtered search would return.
+     */
+    public static List<Book> searchBooks(String query, Set<BookSearchIndex.Field> fields, Boolean available,
+                                         QueryControl control) {
+        if (!searchIndexReady) {
+            return searchBooksLike(query, fields, available, control);
+        }
+        if (query == null || query.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<Integer> bookIds = searchIndex.search(query, fields, available == null ? SEARCH_LIMIT : Integer.MAX_VALUE);
+        if (bookIds == null) {
+            return searchBooksLike(query, fields, available, control); // Every token is too short a prefix for the index
+        }
+        if (available == null) {
+            return getBooksByIds(bookIds);
+        }
+
+        // Read the ranked matches a page at a time until enough pass the filter
         List<Book> books = new ArrayList<>();
-        String sql = "SELECT id, title, author, genre, isbn, publisher, quantity, available, added_at FROM books " +
-                "WHERE title LIKE ? OR author LIKE ? OR isbn LIKE ?";
+        for (int from = 0; from < bookIds.size() && books.size() < SEARCH_LIMIT && !control.isCancelled();
+             from += SEARCH_LIMIT) {
+            for (Book book : getBooksByIds(bookIds.subList(from, Math.min(from + SEARCH_LIMIT, bookIds.size())))) {
+                if ((book.getAvailable() > 0) == available && books.size() < SEARCH_LIMIT) {
+                    books.add(book);
+                }
+            }
+        }
+        return books;
+    }
+
+    // Fallback used while the search index is still being built, or couldn't be
+    private static List<Book> searchBooksLike(String query, Set<BookSearchIndex.Field> fields, Boolean available,
+                                              QueryControl control) {
+        if (fields.isEmpty()) {
+            return new ArrayList<>();
+        }
+        StringBuilder sql = new StringBuilder(SEARCH_BOOKS_LIKE_SQL).append('(');
+        for (BookSearchIndex.Field field : fields) {
+            if (sql.charAt(sql.length() - 1) != '(') {
+                sql.append(" OR ");
+            }
+            sql.append("LOWER(").append(field.name().toLowerCase(Locale.ROOT)).append(") LIKE ?");
+        }
+        sql.append(')');
+        // The live counts are in memory, so the filter runs on the mapped rows below
+        if (available != null && !BookAvailability.isEnabled()) {
+            sql.append(" AND available ").append(available ? "> 0" : "= 0");
+        }
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            String searchPattern = "%" + query + "%";
-            pstmt.setString(1, searchPattern);
-            pstmt.setString(2, searchPattern);
-            pstmt.setString(3, searchPattern);
-
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                books.add(new Book(
-                        rs.getInt("id"),
-                        rs.getString("title"),
-                        rs.getString("author"),
-                        rs.getString("genre"),
-                        rs.getString("isbn"),
-                        rs.getString("publisher"),
-                        rs.getInt("quantity"),
-                        rs.getInt("available"),
-                        rs.getTimestamp("added_at")
-                ));
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+
+            String searchPattern = "%" + (query == null ? "" : query.toLowerCase(Locale.ROOT)) + "%";
+            for (int i = 1; i <= fields.size(); i++) {
+                pstmt.setString(i, searchPattern);
+            }
+            control.attach(pstmt);
+            List<Book> books = Rows.list(pstmt, RowMappers.BOOK);
+            if (available != null) {
+                books.removeIf(book -> (book.getAvailable() > 0) != available);
             }
+            return books;
         } catch (SQLException e) {
             System.err.println("Error searching books: " + e.getMessage());
+        } finally {
+            control.detach();
         }
-        return books;
+        return new ArrayList<>();
     }
 
     // Update book details
     public static boolean updateBook(Book book) {
-        String query = "UPDATE books SET title = ?, author = ?, genre = ?, isbn = ?, publisher = ?, quantity = ?, available = ? WHERE id = ?";
+        if (BookAvailability.isEnabled()) {
+            return updateBookDetails(book);
+        }
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_BOOK_SQL)) {
 
             pstmt.setString(1, book.getTitle());
             pstmt.setString(2, book.getAuthor());
@@ -146,7 +337,12 @@ public class BookDAO {
             pstmt.setInt(7, book.getAvailable());
             pstmt.setInt(8, book.getBookId());
 
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+            searchIndex.index(book);
+            cache.invalidate(book.getBookId());
+            return true;
 
         } catch (SQLException e) {
             System.err.println("Error updating book: " + e.getMessage());
@@ -154,14 +350,65 @@ public class BookDAO {
         }
     }
 
+    /**
+     * Update for in-memory availability: leaves available to the counter and moves
+     * the counter by the change in quantity, read under the row lock in the same transaction
+     */
+    private static boolean updateBookDetails(Book book) {
+        Connection conn = null;
+        try {
+            conn = DBConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            int oldQuantity;
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_QUANTITY_FOR_UPDATE_SQL)) {
+                pstmt.setInt(1, book.getBookId());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return false;
+                    }
+                    oldQuantity = rs.getInt(1);
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_BOOK_DETAILS_SQL)) {
+                pstmt.setString(1, book.getTitle());
+                pstmt.setString(2, book.getAuthor());
+                pstmt.setString(3, book.getGenre());
+                pstmt.setString(4, book.getIsbn());
+                pstmt.setString(5, book.getPublisher());
+                pstmt.setInt(6, book.getQuantity());
+                pstmt.setInt(7, book.getBookId());
+                pstmt.executeUpdate();
+            }
+            conn.commit();
+
+            searchIndex.index(book);
+            BookAvailability.quantityChanged(book.getBookId(), book.getQuantity() - oldQuantity);
+            cache.invalidate(book.getBookId());
+            return true;
+        } catch (SQLException e) {
+            DBConnection.rollbackTransaction(conn);
+            System.err.println("Error updating book: " + e.getMessage());
+            return false;
+        } finally {
+            DBConnection.closeConnection(conn);
+        }
+    }
+
     // Delete a book by ID
     public static boolean deleteBook(int bookId) {
-        String query = "DELETE FROM books WHERE id = ?";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
+             PreparedStatement pstmt = conn.prepareStatement(DELETE_BOOK_SQL)) {
 
             pstmt.setInt(1, bookId);
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+            searchIndex.remove(bookId);
+            BookAvailability.forget(bookId);
+            cache.invalidate(bookId);
+            return true;
 
         } catch (SQLException e) {
             System.err.println("Error deleting book: " + e.getMessage());
@@ -171,23 +418,30 @@ public class BookDAO {
 
     // Check if a book with the given ISBN already exists
     public static boolean bookExists(String isbn) {
-        String query = "SELECT COUNT(*) FROM books WHERE isbn = ?";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setString(1, isbn);
-            ResultSet rs = pstmt.executeQuery();
-            return rs.next() && rs.getInt(1) > 0;
-        } catch (SQLException e) {
-            System.err.println("Error checking book existence: " + e.getMessage());
-            return false;
-        }
+        return getBookByIsbn(isbn) != null;
     }
 
+    /**
+     * Adjusts a book's available copies. With in-memory availability the change goes
+     * to the counter and is written with the next flush instead of its own transaction.
+     * @return false if the book doesn't exist, or the change would take it below zero
+     */
     public static boolean updateBookAvailability(int bookId, int change) {
-        String query = "UPDATE books SET available = available + ? WHERE id = ?";
+        if (BookAvailability.isEnabled()) {
+            if (change < 0 ? !BookAvailability.tryReserve(bookId, -change) : !BookAvailability.isTracked(bookId)) {
+                return false;
+            }
+            if (change < 0) {
+                BookAvailability.commitReserved(bookId, -change);
+            } else {
+                BookAvailability.returned(bookId, change);
+            }
+            cache.invalidate(bookId);
+            return true;
+        }
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_AVAILABILITY_SQL)) {
 
             conn.setAutoCommit(false);
             pstmt.setInt(1, change);
@@ -200,6 +454,7 @@ public class BookDAO {
             }
 
             conn.commit();
+            cache.invalidate(bookId);
             return true;
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Error updating book availability: " + e.getMessage(), e);
@@ -0,0 +1,533 @@
+package com.library.dao;
+
+import com.library.model.Book;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the searchable book fields.
+ * Terms are kept in a sorted map so prefix lookups are a range scan over the
+ * dictionary instead of a scan over the catalog. Each posting records which
+ * fields of the book contain the term, which drives the ranking.
+ */
+public class BookSearchIndex {
+
+    public enum Field {
+        TITLE(3), AUTHOR(2), GENRE(1), PUBLISHER(1), ISBN(4);
+
+        private final int weight;
+        private final int bit;
+
+        Field(int weight) {
+            this.weight = weight;
+            this.bit = 1 << ordinal();
+        }
+    }
+
+    public static final Set<Field> ALL_FIELDS = Collections.unmodifiableSet(EnumSet.allOf(Field.class));
+
+    // Upper bound on dictionary terms a single prefix may expand to, keeps one-letter queries cheap.
+    // A token past the cap is checked against the other tokens' candidates instead.
+    private static final int MAX_PREFIX_TERMS = 512;
+    private static final Pattern TOKEN_SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern ISBN_LIKE = Pattern.compile("^[0-9Xx][0-9Xx\\- ]*$");
+    // Summed field weight for every possible field bitmask
+    private static final int[] MASK_WEIGHTS = new int[1 << Field.values().length];
+
+    static {
+        for (int mask = 0; mask < MASK_WEIGHTS.length; mask++) {
+            for (Field field : Field.values()) {
+                if ((mask & field.bit) != 0) {
+                    MASK_WEIGHTS[mask] += field.weight;
+                }
+            }
+        }
+    }
+
+    // term -> (bookId -> bitmask of fields containing the term)
+    private final NavigableMap<String, IntIntMap> postings = new TreeMap<>();
+    // bookId -> terms indexed for it, so updates and deletes can unlink the old postings
+    private final Map<Integer, Set<String>> documentTerms = new HashMap<>();
+    // Books indexed or removed since beginRebuild, newer than the catalog snapshot; null entries are removals
+    private Map<Integer, Book> changedSinceSnapshot;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Starts recording index changes, before the catalog snapshot for
+     * {@link #rebuild} is read, so changes made while it loads aren't lost
+     */
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            changedSinceSnapshot = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Stops recording after the snapshot failed to load; the current index is kept
+    public void abortRebuild() {
+        lock.writeLock().lock();
+        try {
+            changedSinceSnapshot = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole index with the given catalog, then reapplies the changes
+     * recorded since {@link #beginRebuild}, which are newer than the snapshot
+     */
+    public void rebuild(Collection<Book> books) {
+        lock.writeLock().lock();
+        try {
+            Map<Integer, Book> changed = changedSinceSnapshot != null ? changedSinceSnapshot : Map.of();
+            changedSinceSnapshot = null;
+            postings.clear();
+            documentTerms.clear();
+            for (Book book : books) {
+                if (!changed.containsKey(book.getBookId())) {
+                    addDocument(book);
+                }
+            }
+            for (Book book : changed.values()) {
+                if (book != null) {
+                    addDocument(book);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a book, or re-indexes it if it is already present
+     */
+    public void index(Book book) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(book.getBookId());
+            addDocument(book);
+            if (changedSinceSnapshot != null) {
+                changedSinceSnapshot.put(book.getBookId(), book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int bookId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(bookId);
+            if (changedSinceSnapshot != null) {
+                changedSinceSnapshot.put(bookId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds books matching every token of the query in any of the given fields.
+     * Each token matches terms it is a prefix of; exact term matches rank above
+     * prefix matches, and matches in heavier fields rank above lighter ones.
+     * @param query Free text query
+     * @param fields Fields to search in
+     * @param limit Maximum number of ids to return
+     * @return Book ids, best match first, or null if every token expands past
+     *         MAX_PREFIX_TERMS and the caller should search another way
+     */
+    public List<Integer> search(String query, Set<Field> fields, int limit) {
+        List<String> tokens = queryTokens(query, fields);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        int fieldMask = 0;
+        for (Field field : fields) {
+            fieldMask |= field.bit;
+        }
+
+        lock.readLock().lock();
+        try {
+            List<TokenMatch> matches = new ArrayList<>(tokens.size());
+            List<String> capped = new ArrayList<>();
+            for (String token : tokens) {
+                TokenMatch match = expand(token);
+                if (match.estimate == 0) {
+                    return Collections.emptyList();
+                }
+                if (match.capped) {
+                    capped.add(token);
+                } else {
+                    matches.add(match);
+                }
+            }
+            if (matches.isEmpty()) {
+                return null;
+            }
+            // Score the most selective token, then probe the others only for its candidates
+            matches.sort((a, b) -> Long.compare(a.estimate, b.estimate));
+
+            IntIntMap scores = matches.get(0).score(fieldMask);
+            for (int i = 1; i < matches.size() && scores.size() > 0; i++) {
+                TokenMatch match = matches.get(i);
+                IntIntMap narrowed = new IntIntMap(scores.size());
+                for (int slot = 0; slot < scores.capacity(); slot++) {
+                    int bookId = scores.keyAt(slot);
+                    if (bookId != IntIntMap.EMPTY) {
+                        int score = match.probe(bookId, fieldMask);
+                        if (score > 0) {
+                            narrowed.put(bookId, scores.valueAt(slot) + score);
+                        }
+                    }
+                }
+                scores = narrowed;
+            }
+            // Capped tokens are matched against each candidate's own terms
+            for (int i = 0; i < capped.size() && scores.size() > 0; i++) {
+                String token = capped.get(i);
+                IntIntMap narrowed = new IntIntMap(scores.size());
+                for (int slot = 0; slot < scores.capacity(); slot++) {
+                    int bookId = scores.keyAt(slot);
+                    if (bookId != IntIntMap.EMPTY) {
+                        int score = probePrefix(bookId, token, fieldMask);
+                        if (score > 0) {
+                            narrowed.put(bookId, scores.valueAt(slot) + score);
+                        }
+                    }
+                }
+                scores = narrowed;
+            }
+
+            return topK(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Must hold the read lock
+    private TokenMatch expand(String token) {
+        TokenMatch match = new TokenMatch(token.length());
+        for (Map.Entry<String, IntIntMap> term :
+                postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            if (match.terms.size() >= MAX_PREFIX_TERMS) {
+                match.capped = true;
+                break;
+            }
+            match.add(term.getKey(), term.getValue());
+        }
+        return match;
+    }
+
+    // Must hold the read lock; same scoring as TokenMatch.probe, over one book's terms
+    private int probePrefix(int bookId, String token, int fieldMask) {
+        int best = 0;
+        for (String term : documentTerms.getOrDefault(bookId, Collections.emptySet())) {
+            if (term.startsWith(token)) {
+                int mask = postings.get(term).get(bookId) & fieldMask;
+                if (mask != 0) {
+                    best = Math.max(best, weightOf(mask) * (term.length() == token.length() ? 2 : 1));
+                }
+            }
+        }
+        return best;
+    }
+
+    private static List<Integer> topK(IntIntMap scores, int limit) {
+        // Min-heap of slots on score (ties broken by lower id first) holding the best `limit` entries
+        PriorityQueue<Integer> heap = new PriorityQueue<>((a, b) -> {
+            int byScore = Integer.compare(scores.valueAt(a), scores.valueAt(b));
+            return byScore != 0 ? byScore : Integer.compare(scores.keyAt(b), scores.keyAt(a));
+        });
+        for (int slot = 0; slot < scores.capacity(); slot++) {
+            if (scores.keyAt(slot) != IntIntMap.EMPTY) {
+                heap.offer(slot);
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+        }
+
+        Integer[] ids = new Integer[heap.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = scores.keyAt(heap.poll());
+        }
+        return List.of(ids);
+    }
+
+    private static int weightOf(int mask) {
+        return MASK_WEIGHTS[mask];
+    }
+
+    // Must hold the write lock
+    private void addDocument(Book book) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, book.getTitle(), Field.TITLE);
+        addTerms(terms, book.getAuthor(), Field.AUTHOR);
+        addTerms(terms, book.getGenre(), Field.GENRE);
+        addTerms(terms, book.getPublisher(), Field.PUBLISHER);
+        String isbn = normalizeIsbn(book.getIsbn());
+        if (!isbn.isEmpty()) {
+            terms.merge(isbn, Field.ISBN.bit, (a, b) -> a | b);
+        }
+
+        for (Map.Entry<String, Integer> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), k -> new IntIntMap(4))
+                    .put(book.getBookId(), term.getValue());
+        }
+        documentTerms.put(book.getBookId(), new HashSet<>(terms.keySet()));
+    }
+
+    // Must hold the write lock
+    private void removeDocument(int bookId) {
+        Set<String> terms = documentTerms.remove(bookId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            IntIntMap docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(bookId);
+                if (docs.size() == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, Field field) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, field.bit, (a, b) -> a | b);
+        }
+    }
+
+    private static List<String> queryTokens(String query, Set<Field> fields) {
+        if (query == null || query.isBlank() || fields.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // ISBNs are indexed without separators, so search them the same way
+        if (fields.contains(Field.ISBN) && ISBN_LIKE.matcher(query.trim()).matches()) {
+            String isbn = normalizeIsbn(query);
+            if (fields.size() == 1 || isbn.length() > 4) {
+                return List.of(isbn);
+            }
+        }
+        return tokenize(query);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SPLIT.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    static String normalizeIsbn(String isbn) {
+        if (isbn == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(isbn.length());
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Terms one query token expanded to, with a cheap upper bound on matching books
+     */
+    private static final class TokenMatch {
+        private final int tokenLength;
+        private final List<IntIntMap> terms = new ArrayList<>();
+        private final List<Integer> multipliers = new ArrayList<>();
+        private long estimate;
+        private boolean capped; // More terms than MAX_PREFIX_TERMS start with the token
+
+        TokenMatch(int tokenLength) {
+            this.tokenLength = tokenLength;
+        }
+
+        void add(String term, IntIntMap docs) {
+            terms.add(docs);
+            multipliers.add(term.length() == tokenLength ? 2 : 1); // Exact matches count double
+            estimate += docs.size();
+        }
+
+        IntIntMap score(int fieldMask) {
+            IntIntMap scores = new IntIntMap((int) Math.min(estimate, 1 << 20));
+            for (int t = 0; t < terms.size(); t++) {
+                IntIntMap docs = terms.get(t);
+                int multiplier = multipliers.get(t);
+                for (int slot = 0; slot < docs.capacity(); slot++) {
+                    int bookId = docs.keyAt(slot);
+                    if (bookId == IntIntMap.EMPTY) {
+                        continue;
+                    }
+                    int mask = docs.valueAt(slot) & fieldMask;
+                    if (mask != 0) {
+                        int score = weightOf(mask) * multiplier;
+                        if (score > scores.get(bookId)) {
+                            scores.put(bookId, score);
+                        }
+                    }
+                }
+            }
+            return scores;
+        }
+
+        int probe(int bookId, int fieldMask) {
+            int best = 0;
+            for (int t = 0; t < terms.size(); t++) {
+                int mask = terms.get(t).get(bookId) & fieldMask;
+                if (mask != 0) {
+                    best = Math.max(best, weightOf(mask) * multipliers.get(t));
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Open-addressing int to int map, avoids boxing in the postings lists.
+     * Missing keys read as 0, which is never a valid field mask or score.
+     */
+    static final class IntIntMap {
+        static final int EMPTY = Integer.MIN_VALUE;
+
+        private int[] keys;
+        private int[] values;
+        private int size;
+
+        IntIntMap(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+            keys = new int[capacity];
+            values = new int[capacity];
+            java.util.Arrays.fill(keys, EMPTY);
+        }
+
+        int size() {
+            return size;
+        }
+
+        int capacity() {
+            return keys.length;
+        }
+
+        int keyAt(int slot) {
+            return keys[slot];
+        }
+
+        int valueAt(int slot) {
+            return values[slot];
+        }
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                if (keys[slot] == EMPTY) {
+                    return 0;
+                }
+            }
+        }
+
+        void put(int key, int value) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                if (++size * 2 > keys.length) {
+                    values[slot] = value;
+                    resize();
+                    return;
+                }
+            }
+            values[slot] = value;
+        }
+
+        void remove(int key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != key) {
+                if (keys[slot] == EMPTY) {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = EMPTY;
+            size--;
+
+            // Shift following entries of the probe run back so lookups never stop early
+            for (int next = (slot + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+                int home = mix(keys[next]) & mask;
+                boolean between = slot <= next ? (slot < home && home <= next) : (slot < home || home <= next);
+                if (!between) {
+                    keys[slot] = keys[next];
+                    values[slot] = values[next];
+                    keys[next] = EMPTY;
+                    slot = next;
+                }
+            }
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            java.util.Arrays.fill(keys, EMPTY);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -1,45 +1,146 @@
 package com.library.dao;
 
 import com.library.model.BorrowedBook;
+import com.library.model.BorrowedBookView;
+import com.library.model.Hold;
+import com.library.utils.BulkInsert;
 import com.library.utils.DBConnection;
 
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import static com.library.gui.admin.OverdueBooksPanel.FINE_PER_DAY;
-
 public class BorrowedBookDAO {
-    private static final int MAX_BORROW_LIMIT = 5;
+    public static final int MAX_BORROW_LIMIT = 5;
+    public static final int DEFAULT_PAGE_SIZE = 200;
     private static final BigDecimal DAILY_FINE_RATE = BigDecimal.valueOf(5);
+    // Codec for borrowed_books.status, shared by every query that reads or writes it
+    public static final EnumColumn<BorrowedBook.Status> STATUS = EnumColumn.of(BorrowedBook.Status.class);
     private static final Logger logger = Logger.getLogger(BorrowedBookDAO.class.getName());
-
+    private static final BulkInsert<BorrowedBook> bulkInsert = new BulkInsert<>("borrowed_books",
+            new String[]{"user_id", "book_id", "borrow_date", "due_date", "return_date", "fine", "status"},
+            (pstmt, i, record) -> {
+                pstmt.setInt(i, record.getUserId());
+                pstmt.setInt(i + 1, record.getBookId());
+                pstmt.setTimestamp(i + 2, record.getBorrowDate());
+                pstmt.setTimestamp(i + 3, record.getDueDate());
+                pstmt.setTimestamp(i + 4, record.getReturnDate());
+                pstmt.setBigDecimal(i + 5, record.getFine());
+                pstmt.setString(i + 6, STATUS.encode(record.getStatus()));
+            });
+
+    // Each statement is one fixed string, so it is prepared once per pooled connection and then
+    // served from the statement pool, which is keyed on the SQL text
+    private static final String VIEW_SELECT = "SELECT bb.id, bb.user_id, bb.book_id, u.name AS user_name, " +
+            "b.title AS book_title, bb.borrow_date, bb.due_date, bb.return_date, bb.fine, bb.status " +
+            "FROM borrowed_books bb " +
+            "JOIN users u ON bb.user_id = u.id " +
+            "JOIN books b ON bb.book_id = b.id ";
+    private static final String CLAIM_SLOT_SQL = "UPDATE users SET active_borrows = active_borrows + 1 " +
+            "WHERE id = ? AND active_borrows < ?";
+    private static final String RESERVE_COPY_SQL = "UPDATE books SET available = available - 1 WHERE id = ? AND available > 0";
+    private static final String INSERT_BORROW_SQL = "INSERT INTO borrowed_books (user_id, book_id, borrow_date, due_date, status) " +
+            "VALUES (?, ?, ?, ?, 'borrowed')";
+    private static final String LOCK_BORROW_SQL = "SELECT user_id, book_id, borrow_date, due_date, fine_accrued_on " +
+            "FROM borrowed_books WHERE id = ? FOR UPDATE";
+    private static final String CLOSE_BORROW_SQL = "UPDATE borrowed_books SET return_date = ?, fine = COALESCE(fine, 0) + ?, " +
+            "fine_accrued_on = ?, status = 'returned' WHERE id = ? AND status = 'borrowed'";
+    private static final String RELEASE_SLOT_SQL = "UPDATE users SET active_borrows = GREATEST(active_borrows - 1, 0), " +
+            "fine_balance = fine_balance + ?, fines_assessed = fines_assessed + ? WHERE id = ?";
+    private static final String RETURN_COPY_SQL = "UPDATE books SET available = available + 1 WHERE id = ?";
+    private static final String LOCK_USER_SLOTS_SQL = "SELECT active_borrows FROM users WHERE id = ? FOR UPDATE";
+    private static final String CLAIM_SLOTS_SQL = "UPDATE users SET active_borrows = active_borrows + ? WHERE id = ?";
+    private static final String RESERVE_COPIES_SQL = "UPDATE books SET available = available - ? WHERE id = ? AND available >= ?";
+    private static final String RELEASE_SLOTS_SQL = "UPDATE users SET active_borrows = GREATEST(active_borrows - ?, 0), " +
+            "fine_balance = fine_balance + ?, fines_assessed = fines_assessed + ? WHERE id = ?";
+    private static final String RETURN_COPIES_SQL = "UPDATE books SET available = available + ? WHERE id = ?";
+    private static final String LOCK_FINE_SQL = "SELECT user_id, borrow_date, fine FROM borrowed_books WHERE id = ? FOR UPDATE";
+    private static final String DEDUCT_BALANCE_SQL = "UPDATE users SET fine_balance = GREATEST(fine_balance - ?, 0), " +
+            "fines_paid = fines_paid + ? WHERE id = ?";
+    private static final String CLEAR_FINE_SQL = "UPDATE borrowed_books SET fine = 0 WHERE id = ?";
+    private static final String USER_EXISTS_SQL = "SELECT 1 FROM users WHERE id = ?";
+    private static final String SELECT_USER_BORROWS_SQL = VIEW_SELECT +
+            "WHERE bb.user_id = ? AND bb.status = 'borrowed'";
+    private static final String HAS_BORROWED_SQL = "SELECT 1 FROM borrowed_books " +
+            "WHERE user_id = ? AND book_id = ? AND status = 'borrowed'";
+    private static final String SELECT_OVERDUE_SQL = VIEW_SELECT +
+            "WHERE bb.status = 'borrowed' AND bb.due_date < CURRENT_DATE ORDER BY bb.due_date";
+    // Filtered listings get one constant per filter rather than being assembled per call
+    private static final String ALL_FINES_SQL = VIEW_SELECT +
+            "ORDER BY bb.due_date DESC";
+    private static final String UNPAID_FINES_SQL = VIEW_SELECT +
+            "WHERE bb.fine > 0 ORDER BY bb.due_date DESC";
+    private static final String PAID_FINES_SQL = VIEW_SELECT +
+            "WHERE (bb.fine = 0 OR bb.fine IS NULL) ORDER BY bb.due_date DESC";
+    private static final String ALL_TRANSACTIONS_SQL = VIEW_SELECT +
+            "ORDER BY bb.borrow_date DESC";
+    private static final String BORROWED_TRANSACTIONS_SQL = VIEW_SELECT +
+            "WHERE bb.status = 'borrowed' ORDER BY bb.borrow_date DESC";
+    private static final String RETURNED_TRANSACTIONS_SQL = VIEW_SELECT +
+            "WHERE bb.status = 'returned' ORDER BY bb.borrow_date DESC";
+    // [all, borrowed, returned][first page, later pages]
+    private static final String[][] TRANSACTIONS_PAGE_SQL = {
+            transactionsPageSql(""),
+            transactionsPageSql("AND bb.status = 'borrowed' "),
+            transactionsPageSql("AND bb.status = 'returned' ")
+    };
+
+    /**
+     * Borrows one copy of a book. Each check is folded into the write that depends on it:
+     * the user's borrow slot and the book copy are claimed with conditional updates that
+     * only succeed if the limit and availability still hold, so concurrent checkouts
+     * can't overshoot either, and the happy path is three statements on one connection.
+     * A copy set aside for the user by a hold is taken instead of one from the shelf.
+     */
     public static boolean borrowBook(int userId, int bookId, Timestamp borrowDate, Timestamp dueDate) {
         Connection conn = null;
+        boolean reserved = false;
+        List<Hold> claimed = new ArrayList<>(1);
         try {
             conn = DBConnection.getConnection();
             conn.setAutoCommit(false);
 
-            // Validate user and book
-            if (!doesUserExist(userId, conn)) {
-                throw new SQLException("User does not exist");
-            }
-            if (!isBookAvailable(bookId, conn)) {
-                throw new SQLException("Book is not available");
+            // 1. Claim a borrow slot; the row lock serialises concurrent checkouts for this user
+            try (PreparedStatement pstmt = conn.prepareStatement(CLAIM_SLOT_SQL)) {
+                pstmt.setInt(1, userId);
+                pstmt.setInt(2, MAX_BORROW_LIMIT);
+                if (pstmt.executeUpdate() == 0) {
+                    throw new SQLException(doesUserExist(userId, conn)
+                            ? "User has reached borrow limit of " + MAX_BORROW_LIMIT
+                            : "User does not exist");
+                }
             }
-            if (getUserBorrowCount(userId, conn) >= MAX_BORROW_LIMIT) {
-                throw new SQLException("User has reached borrow limit of " + MAX_BORROW_LIMIT);
+
+            // 2. Take the copy held for the user, or reserve one, in memory when BookAvailability holds the counts
+            Hold hold = HoldDAO.claimReady(userId, bookId);
+            if (hold != null) {
+                claimed.add(hold);
+                HoldDAO.fulfil(claimed, conn);
+            } else if (BookAvailability.isEnabled()) {
+                reserved = BookAvailability.tryReserve(bookId, 1);
+                if (!reserved) {
+                    throw new SQLException("Book is not available");
+                }
+            } else {
+                try (PreparedStatement pstmt = conn.prepareStatement(RESERVE_COPY_SQL)) {
+                    pstmt.setInt(1, bookId);
+                    if (pstmt.executeUpdate() == 0) {
+                        throw new SQLException("Book is not available");
+                    }
+                }
             }
 
-            // Create borrow record
-            String borrowQuery = "INSERT INTO borrowed_books (user_id, book_id, borrow_date, due_date, status) " +
-                    "VALUES (?, ?, ?, ?, 'borrowed')";
-            try (PreparedStatement pstmt = conn.prepareStatement(borrowQuery, Statement.RETURN_GENERATED_KEYS)) {
+            // 3. Create borrow record
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_BORROW_SQL)) {
                 pstmt.setInt(1, userId);
                 pstmt.setInt(2, bookId);
                 pstmt.setTimestamp(3, borrowDate);
@@ -50,19 +151,24 @@ public class BorrowedBookDAO {
                 }
             }
 
-            // Update book availability
-            String updateQuery = "UPDATE books SET available = available - 1 WHERE id = ? AND available > 0";
-            try (PreparedStatement pstmt = conn.prepareStatement(updateQuery)) {
-                pstmt.setInt(1, bookId);
-                if (pstmt.executeUpdate() == 0) {
-                    throw new SQLException("Failed to update book availability");
-                }
-            }
+            // 4. Report rollups
+            ReportStatsDAO.Delta stats = new ReportStatsDAO.Delta();
+            stats.borrowed(userId, bookId, borrowDate);
+            stats.apply(conn);
 
             conn.commit();
+            if (reserved) {
+                BookAvailability.commitReserved(bookId, 1);
+            }
+            HoldDAO.fulfilled(claimed);
+            BookDAO.invalidateCachedBook(bookId);
             return true;
         } catch (SQLException e) {
             DBConnection.rollbackTransaction(conn);
+            if (reserved) {
+                BookAvailability.cancel(bookId, 1);
+            }
+            HoldDAO.unclaim(claimed);
             logger.log(Level.SEVERE, "Error borrowing book", e);
             return false;
         } finally {
@@ -72,6 +178,7 @@ public class BorrowedBookDAO {
 
     public static boolean returnBook(int borrowId) {
         Connection conn = null;
+        HoldDAO.Allocation allocation = null;
         try {
             conn = DBConnection.getConnection();
             conn.setAutoCommit(false);  // Start transaction
@@ -80,37 +187,73 @@ public class BorrowedBookDAO {
             LocalDate currentDate = LocalDate.now();
             Date returnDate = Date.valueOf(currentDate);
 
-            // 2. Get book details and validate borrow record
-            int bookId = getBookIdFromBorrowId(borrowId, conn);
-            if (bookId == -1) {
-                throw new SQLException("Invalid borrow record ID: " + borrowId);
+            // 2. Lock and read the borrow record
+            int userId;
+            int bookId;
+            Timestamp borrowDate;
+            Date accruedOn;
+            BigDecimal fine;
+            try (PreparedStatement pstmt = conn.prepareStatement(LOCK_BORROW_SQL)) {
+                pstmt.setInt(1, borrowId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("Invalid borrow record ID: " + borrowId);
+                    }
+                    userId = rs.getInt("user_id");
+                    bookId = rs.getInt("book_id");
+                    borrowDate = rs.getTimestamp("borrow_date");
+                    accruedOn = rs.getDate("fine_accrued_on");
+
+                    // 3. Fine accrued since the last daily accrual run
+                    fine = FineDAO.fineForDays(FineDAO.daysToAccrue(rs.getDate("due_date"), accruedOn, currentDate));
+                }
             }
 
-            // 3. Calculate fine based on current date
-            BigDecimal fine = calculateFine(borrowId, returnDate, conn);
-
             // 4. Update borrow record with return date and fine
-            String updateBorrowSql = "UPDATE borrowed_books SET return_date = ?, fine = ?, status = 'returned' WHERE id = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(updateBorrowSql)) {
+            try (PreparedStatement pstmt = conn.prepareStatement(CLOSE_BORROW_SQL)) {
                 pstmt.setDate(1, returnDate);
                 pstmt.setBigDecimal(2, fine);
-                pstmt.setInt(3, borrowId);
+                pstmt.setDate(3, returnDate);
+                pstmt.setInt(4, borrowId);
 
                 if (pstmt.executeUpdate() != 1) {
                     throw new SQLException("Failed to update borrow record");
                 }
             }
 
-            // 5. Update book availability
-            String updateBookSql = "UPDATE books SET available = available + 1 WHERE id = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(updateBookSql)) {
-                pstmt.setInt(1, bookId);
-                if (pstmt.executeUpdate() != 1) {
-                    throw new SQLException("Failed to update book availability");
+            // 4b. Release the user's borrow slot and add the new fine to their balance and ledger
+            try (PreparedStatement pstmt = conn.prepareStatement(RELEASE_SLOT_SQL)) {
+                pstmt.setBigDecimal(1, fine);
+                pstmt.setBigDecimal(2, fine);
+                pstmt.setInt(3, userId);
+                pstmt.executeUpdate();
+            }
+
+            // 5. Set the copy aside for the next patron waiting for it, otherwise update book
+            // availability, or leave it to BookAvailability after commit
+            allocation = HoldDAO.allocate(bookId, 1, new Timestamp(System.currentTimeMillis()), conn);
+            boolean toShelf = allocation.size() == 0;
+            boolean inMemory = BookAvailability.isEnabled();
+            if (toShelf && !inMemory) {
+                try (PreparedStatement pstmt = conn.prepareStatement(RETURN_COPY_SQL)) {
+                    pstmt.setInt(1, bookId);
+                    if (pstmt.executeUpdate() != 1) {
+                        throw new SQLException("Failed to update book availability");
+                    }
                 }
             }
 
+            // 6. Report rollups
+            ReportStatsDAO.Delta stats = new ReportStatsDAO.Delta();
+            stats.returned(userId, borrowDate, fine, accruedOn != null);
+            stats.apply(conn);
+
             conn.commit();
+            allocation.committed();
+            if (toShelf && inMemory) {
+                BookAvailability.returned(bookId, 1);
+            }
+            BookDAO.invalidateCachedBook(bookId);
             return true;
 
         } catch (SQLException e) {
@@ -121,6 +264,9 @@ public class BorrowedBookDAO {
                     logger.log(Level.SEVERE, "Error rolling back transaction", ex);
                 }
             }
+            if (allocation != null) {
+                allocation.rolledBack();
+            }
             logger.log(Level.SEVERE, "Error returning book with ID: " + borrowId, e);
             return false;
         } finally {
@@ -135,140 +281,507 @@ public class BorrowedBookDAO {
         }
     }
 
-    public static List<BorrowedBook> getFinesWithDetails(String filter) throws SQLException {
-        List<BorrowedBook> fines = new ArrayList<>();
-        String sql = "SELECT bb.id, bb.user_id, bb.book_id, u.name AS user_name, b.title AS book_title, " +
-                "bb.borrow_date, bb.due_date, bb.return_date, bb.fine, bb.status " +
-                "FROM borrowed_books bb " +
-                "JOIN users u ON bb.user_id = u.id " +
-                "JOIN books b ON bb.book_id = b.id " +
-                "WHERE (bb.fine > 0 OR bb.fine = 0 OR bb.fine IS NULL)";
+    /**
+     * Outcome of one item in a batch borrow or return
+     */
+    public static class BatchResult {
+        private final int itemId;
+        private final int borrowId;
+        private final boolean success;
+        private final String message;
+
+        public BatchResult(int itemId, int borrowId, boolean success, String message) {
+            this.itemId = itemId;
+            this.borrowId = borrowId;
+            this.success = success;
+            this.message = message;
+        }
 
-        if ("Unpaid Fines".equals(filter)) {
-            sql += " AND bb.fine > 0";
-        } else if ("Paid Fines".equals(filter)) {
-            sql += " AND (bb.fine = 0 OR bb.fine IS NULL)";
+        // Book ID for borrows, borrow record ID for returns
+        public int getItemId() {
+            return itemId;
         }
 
-        sql += " ORDER BY bb.due_date DESC";
+        // Borrow record ID created or closed, -1 on failure
+        public int getBorrowId() {
+            return borrowId;
+        }
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                fines.add(new BorrowedBook(
-                        rs.getInt("id"),
-                        rs.getInt("user_id"),
-                        rs.getInt("book_id"),
-                        rs.getTimestamp("borrow_date"),
-                        rs.getTimestamp("due_date"),
-                        rs.getTimestamp("return_date"),
-                        rs.getBigDecimal("fine"),
-                        BorrowedBook.Status.valueOf(rs.getString("status").toUpperCase())
-                ));
-            }
+        public boolean isSuccess() {
+            return success;
         }
-        return fines;
-    }
 
-    public static boolean clearFine(int borrowId, Connection conn) throws SQLException {
-        String query = "UPDATE borrowed_books SET fine = 0 WHERE id = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setInt(1, borrowId);
-            return pstmt.executeUpdate() > 0;
+        public String getMessage() {
+            return message;
         }
     }
 
-    // Helper methods with connection parameter for transaction support
-    private static boolean doesUserExist(int userId, Connection conn) throws SQLException {
-        String query = "SELECT 1 FROM users WHERE id = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setInt(1, userId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                return rs.next();
+    /**
+     * Borrows a stack of books for one user in a single transaction.
+     * Validation is done with set-based queries, the borrow records are inserted
+     * as one JDBC batch and availability is updated once per distinct book, so the
+     * whole stack costs a fixed handful of round trips.
+     * Books that can't be borrowed (unknown, no copies left, borrow limit reached)
+     * are reported as failed without affecting the rest of the stack. Copies set
+     * aside for the user by holds are taken before any from the shelf.
+     * @return One result per requested book, in request order
+     */
+    public static List<BatchResult> borrowBooks(int userId, List<Integer> bookIds,
+                                                Timestamp borrowDate, Timestamp dueDate) {
+        List<BatchResult> results = new ArrayList<>(bookIds.size());
+        if (bookIds.isEmpty()) {
+            return results;
+        }
+
+        Connection conn = null;
+        boolean inMemory = BookAvailability.isEnabled();
+        Map<Integer, Integer> taken = new LinkedHashMap<>();
+        List<Hold> claimed = new ArrayList<>();
+        try {
+            conn = DBConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            // 1. User existence and current borrow count in one query, locking the user's slots
+            int borrowed;
+            try (PreparedStatement pstmt = conn.prepareStatement(LOCK_USER_SLOTS_SQL)) {
+                pstmt.setInt(1, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        for (int bookId : bookIds) {
+                            results.add(new BatchResult(bookId, -1, false, "User does not exist"));
+                        }
+                        conn.rollback();
+                        return results;
+                    }
+                    borrowed = rs.getInt(1);
+                }
+            }
+
+            // 2. Lock and read availability of every requested book at once,
+            // unless BookAvailability holds the counts
+            Map<Integer, Integer> available = new HashMap<>();
+            if (!inMemory) {
+                String booksSql = "SELECT id, available FROM books WHERE id IN (" +
+                        InList.placeholders(bookIds.size()) + ") FOR UPDATE";
+                try (PreparedStatement pstmt = conn.prepareStatement(booksSql)) {
+                    InList.bind(pstmt, 1, bookIds);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            available.put(rs.getInt(1), rs.getInt(2)); // id, available
+                        }
+                    }
+                }
+            }
+
+            // 3. Decide each item in request order
+            List<Integer> accepted = new ArrayList<>();
+            for (int bookId : bookIds) {
+                if (borrowed + accepted.size() < MAX_BORROW_LIMIT) {
+                    Hold hold = HoldDAO.claimReady(userId, bookId);
+                    if (hold != null) {
+                        claimed.add(hold);
+                        accepted.add(results.size());
+                        results.add(null);
+                        continue;
+                    }
+                }
+                Integer copies = inMemory
+                        ? (BookAvailability.isTracked(bookId) ? BookAvailability.current(bookId, 0) : null)
+                        : available.get(bookId);
+                int alreadyTaken = inMemory ? 0 : taken.getOrDefault(bookId, 0); // In memory, taken copies are already off the count
+                if (copies == null) {
+                    results.add(new BatchResult(bookId, -1, false, "Book does not exist"));
+                } else if (copies - alreadyTaken <= 0) {
+                    results.add(new BatchResult(bookId, -1, false, "Book is not available"));
+                } else if (borrowed + accepted.size() >= MAX_BORROW_LIMIT) {
+                    results.add(new BatchResult(bookId, -1, false,
+                            "User has reached borrow limit of " + MAX_BORROW_LIMIT));
+                } else if (inMemory && !BookAvailability.tryReserve(bookId, 1)) {
+                    results.add(new BatchResult(bookId, -1, false, "Book is not available")); // Taken meanwhile
+                } else {
+                    accepted.add(results.size());
+                    taken.merge(bookId, 1, Integer::sum);
+                    results.add(null); // Filled in once the insert returns its key
+                }
+            }
+
+            if (accepted.isEmpty()) {
+                conn.rollback();
+                return results;
+            }
+
+            // 4. Insert all borrow records as one batch
+            ReportStatsDAO.Delta stats = new ReportStatsDAO.Delta();
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_BORROW_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (int index : accepted) {
+                    pstmt.setInt(1, userId);
+                    pstmt.setInt(2, bookIds.get(index));
+                    pstmt.setTimestamp(3, borrowDate);
+                    pstmt.setTimestamp(4, dueDate);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    for (int index : accepted) {
+                        stats.borrowed(userId, bookIds.get(index), borrowDate);
+                        int borrowId = keys.next() ? keys.getInt(1) : -1;
+                        results.set(index, new BatchResult(bookIds.get(index), borrowId, true, "Borrowed"));
+                    }
+                }
+            }
+
+            // 5. Claim the user's borrow slots
+            try (PreparedStatement pstmt = conn.prepareStatement(CLAIM_SLOTS_SQL)) {
+                pstmt.setInt(1, accepted.size());
+                pstmt.setInt(2, userId);
+                pstmt.executeUpdate();
             }
+
+            // 6. Close the holds taken, and one availability update per distinct book from the shelf
+            if (!claimed.isEmpty()) {
+                HoldDAO.fulfil(claimed, conn);
+            }
+            if (!inMemory && !taken.isEmpty()) {
+                try (PreparedStatement pstmt = conn.prepareStatement(RESERVE_COPIES_SQL)) {
+                    for (Map.Entry<Integer, Integer> entry : taken.entrySet()) {
+                        pstmt.setInt(1, entry.getValue());
+                        pstmt.setInt(2, entry.getKey());
+                        pstmt.setInt(3, entry.getValue());
+                        pstmt.addBatch();
+                    }
+                    for (int count : pstmt.executeBatch()) {
+                        if (count == 0) {
+                            throw new SQLException("Failed to update book availability");
+                        }
+                    }
+                }
+            }
+
+            // 7. Report rollups
+            stats.apply(conn);
+
+            conn.commit();
+            for (Map.Entry<Integer, Integer> entry : taken.entrySet()) {
+                if (inMemory) {
+                    BookAvailability.commitReserved(entry.getKey(), entry.getValue());
+                }
+                BookDAO.invalidateCachedBook(entry.getKey());
+            }
+            HoldDAO.fulfilled(claimed);
+            return results;
+        } catch (SQLException e) {
+            DBConnection.rollbackTransaction(conn);
+            if (inMemory) {
+                for (Map.Entry<Integer, Integer> entry : taken.entrySet()) {
+                    BookAvailability.cancel(entry.getKey(), entry.getValue());
+                }
+            }
+            HoldDAO.unclaim(claimed);
+            logger.log(Level.SEVERE, "Error borrowing books for user: " + userId, e);
+            return failAll(bookIds, "Batch failed: " + e.getMessage());
+        } finally {
+            DBConnection.closeConnection(conn);
         }
     }
 
-    private static boolean isBookAvailable(int bookId, Connection conn) throws SQLException {
-        String query = "SELECT available FROM books WHERE id = ? AND available > 0";
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setInt(1, bookId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                return rs.next();
+    /**
+     * Returns a stack of borrowed books in a single transaction, assessing
+     * fines the same way as {@link #returnBook(int)}.
+     * Records that don't exist or are already returned are reported as failed
+     * without affecting the rest of the stack.
+     * @return One result per requested borrow record, in request order
+     */
+    public static List<BatchResult> returnBooks(List<Integer> borrowIds) {
+        List<BatchResult> results = new ArrayList<>(borrowIds.size());
+        if (borrowIds.isEmpty()) {
+            return results;
+        }
+
+        Connection conn = null;
+        List<HoldDAO.Allocation> allocations = new ArrayList<>();
+        try {
+            conn = DBConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            LocalDate currentDate = LocalDate.now();
+            Date returnDate = Date.valueOf(currentDate);
+
+            // 1. Lock and read every borrow record at once
+            Map<Integer, Integer> bookIdByBorrow = new HashMap<>();
+            Map<Integer, Integer> userIdByBorrow = new HashMap<>();
+            Map<Integer, Date> dueDateByBorrow = new HashMap<>();
+            Map<Integer, Date> accruedOnByBorrow = new HashMap<>();
+            Map<Integer, BigDecimal> fineByBorrow = new HashMap<>();
+            Map<Integer, Timestamp> borrowDateByBorrow = new HashMap<>();
+            Map<Integer, BorrowedBook.Status> statusByBorrow = new HashMap<>();
+            String selectSql = "SELECT id, user_id, book_id, borrow_date, due_date, fine, fine_accrued_on, status " +
+                    "FROM borrowed_books WHERE id IN (" +
+                    InList.placeholders(borrowIds.size()) + ") FOR UPDATE";
+            try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
+                InList.bind(pstmt, 1, borrowIds);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    Rows.Columns columns = Rows.columns(rs);
+                    int idColumn = columns.index("id");
+                    int bookIdColumn = columns.index("book_id");
+                    int userIdColumn = columns.index("user_id");
+                    int dueDateColumn = columns.index("due_date");
+                    int accruedOnColumn = columns.index("fine_accrued_on");
+                    int fineColumn = columns.index("fine");
+                    int borrowDateColumn = columns.index("borrow_date");
+                    int statusColumn = columns.index("status");
+                    while (rs.next()) {
+                        int borrowId = rs.getInt(idColumn);
+                        bookIdByBorrow.put(borrowId, rs.getInt(bookIdColumn));
+                        userIdByBorrow.put(borrowId, rs.getInt(userIdColumn));
+                        dueDateByBorrow.put(borrowId, rs.getDate(dueDateColumn));
+                        accruedOnByBorrow.put(borrowId, rs.getDate(accruedOnColumn));
+                        fineByBorrow.put(borrowId, rs.getBigDecimal(fineColumn));
+                        borrowDateByBorrow.put(borrowId, rs.getTimestamp(borrowDateColumn));
+                        statusByBorrow.put(borrowId, STATUS.read(rs, statusColumn));
+                    }
+                }
+            }
+
+            // 2. Close each returnable record in one batch
+            // Sorted, so concurrent batches lock the users and books rows in the same order
+            Map<Integer, Integer> returnedPerBook = new TreeMap<>();
+            Map<Integer, Integer> returnedPerUser = new TreeMap<>();
+            Map<Integer, BigDecimal> finesPerUser = new HashMap<>();
+            ReportStatsDAO.Delta stats = new ReportStatsDAO.Delta();
+            try (PreparedStatement pstmt = conn.prepareStatement(CLOSE_BORROW_SQL)) {
+                for (int borrowId : borrowIds) {
+                    Integer bookId = bookIdByBorrow.get(borrowId);
+                    if (bookId == null) {
+                        results.add(new BatchResult(borrowId, -1, false, "Invalid borrow record ID"));
+                        continue;
+                    }
+                    if (statusByBorrow.get(borrowId) != BorrowedBook.Status.BORROWED) {
+                        results.add(new BatchResult(borrowId, -1, false, "Book already returned"));
+                        continue;
+                    }
+                    statusByBorrow.put(borrowId, BorrowedBook.Status.RETURNED); // Guards against the same ID twice in one batch
+
+                    // Only what accrued since the last daily run is new
+                    BigDecimal newFine = FineDAO.fineForDays(FineDAO.daysToAccrue(
+                            dueDateByBorrow.get(borrowId), accruedOnByBorrow.get(borrowId), currentDate));
+                    BigDecimal previousFine = fineByBorrow.get(borrowId);
+                    BigDecimal fine = previousFine != null ? previousFine.add(newFine) : newFine;
+
+                    pstmt.setDate(1, returnDate);
+                    pstmt.setBigDecimal(2, newFine);
+                    pstmt.setDate(3, returnDate);
+                    pstmt.setInt(4, borrowId);
+                    pstmt.addBatch();
+
+                    returnedPerBook.merge(bookId, 1, Integer::sum);
+                    returnedPerUser.merge(userIdByBorrow.get(borrowId), 1, Integer::sum);
+                    finesPerUser.merge(userIdByBorrow.get(borrowId), newFine, BigDecimal::add);
+                    stats.returned(userIdByBorrow.get(borrowId), borrowDateByBorrow.get(borrowId), newFine,
+                            accruedOnByBorrow.get(borrowId) != null);
+                    results.add(new BatchResult(borrowId, borrowId, true,
+                            fine.signum() > 0 ? "Returned with fine of " + fine : "Returned"));
+                }
+
+                if (returnedPerBook.isEmpty()) {
+                    conn.rollback();
+                    return results;
+                }
+                for (int count : pstmt.executeBatch()) {
+                    if (count == 0) {
+                        throw new SQLException("Failed to update borrow record");
+                    }
+                }
+            }
+
+            // 3. Release the borrow slots of each user involved and add the new fines to their balance and ledger
+            try (PreparedStatement pstmt = conn.prepareStatement(RELEASE_SLOTS_SQL)) {
+                for (Map.Entry<Integer, Integer> entry : returnedPerUser.entrySet()) {
+                    pstmt.setInt(1, entry.getValue());
+                    pstmt.setBigDecimal(2, finesPerUser.get(entry.getKey()));
+                    pstmt.setBigDecimal(3, finesPerUser.get(entry.getKey()));
+                    pstmt.setInt(4, entry.getKey());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+
+            // 4. Set copies aside for the patrons waiting for each book; the rest go back on the
+            // shelf with one availability update per distinct book, or left to BookAvailability after commit
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            Map<Integer, Integer> shelvedPerBook = new TreeMap<>();
+            for (Map.Entry<Integer, Integer> entry : returnedPerBook.entrySet()) {
+                HoldDAO.Allocation allocation = HoldDAO.allocate(entry.getKey(), entry.getValue(), now, conn);
+                allocations.add(allocation);
+                if (allocation.size() < entry.getValue()) {
+                    shelvedPerBook.put(entry.getKey(), entry.getValue() - allocation.size());
+                }
             }
+            boolean inMemory = BookAvailability.isEnabled();
+            if (!inMemory && !shelvedPerBook.isEmpty()) {
+                try (PreparedStatement pstmt = conn.prepareStatement(RETURN_COPIES_SQL)) {
+                    for (Map.Entry<Integer, Integer> entry : shelvedPerBook.entrySet()) {
+                        pstmt.setInt(1, entry.getValue());
+                        pstmt.setInt(2, entry.getKey());
+                        pstmt.addBatch();
+                    }
+                    for (int count : pstmt.executeBatch()) {
+                        if (count == 0) {
+                            throw new SQLException("Failed to update book availability");
+                        }
+                    }
+                }
+            }
+
+            // 5. Report rollups
+            stats.apply(conn);
+
+            conn.commit();
+            for (HoldDAO.Allocation allocation : allocations) {
+                allocation.committed();
+            }
+            for (int bookId : returnedPerBook.keySet()) {
+                if (inMemory && shelvedPerBook.containsKey(bookId)) {
+                    BookAvailability.returned(bookId, shelvedPerBook.get(bookId));
+                }
+                BookDAO.invalidateCachedBook(bookId);
+            }
+            return results;
+        } catch (SQLException e) {
+            DBConnection.rollbackTransaction(conn);
+            for (HoldDAO.Allocation allocation : allocations) {
+                allocation.rolledBack();
+            }
+            logger.log(Level.SEVERE, "Error returning books: " + borrowIds, e);
+            return failAll(borrowIds, "Batch failed: " + e.getMessage());
+        } finally {
+            DBConnection.closeConnection(conn);
         }
     }
 
-    private static int getUserBorrowCount(int userId, Connection conn) throws SQLException {
-        String query = "SELECT COUNT(*) FROM borrowed_books WHERE user_id = ? AND status = 'borrowed'";
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setInt(1, userId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                return rs.next() ? rs.getInt(1) : 0;
-            }
+    private static List<BatchResult> failAll(List<Integer> itemIds, String message) {
+        List<BatchResult> results = new ArrayList<>(itemIds.size());
+        for (int itemId : itemIds) {
+            results.add(new BatchResult(itemId, -1, false, message));
         }
+        return results;
     }
 
-    private static int getBookIdFromBorrowId(int borrowId, Connection conn) throws SQLException {
-        String sql = "SELECT book_id FROM borrowed_books WHERE id = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, borrowId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                return rs.next() ? rs.getInt("book_id") : -1;
-            }
+    private static String[] transactionsPageSql(String statusFilter) {
+        String select = VIEW_SELECT + "WHERE 1=1 " + statusFilter;
+        String order = "ORDER BY bb.borrow_date DESC, bb.id DESC LIMIT ?";
+        return new String[]{
+                select + order,
+                select + "AND (bb.borrow_date < ? OR (bb.borrow_date = ? AND bb.id < ?)) " + order
+        };
+    }
+
+    /**
+     * Bulk-loads historical borrow records with multi-row inserts on the caller's connection.
+     * Book availability and users' active_borrows are not touched; the caller keeps them consistent.
+     */
+    public static int insertBorrowRecords(List<BorrowedBook> records, Connection conn) throws SQLException {
+        return bulkInsert.insert(conn, records, null);
+    }
+
+    public static List<BorrowedBookView> getFinesWithDetails(String filter) throws SQLException {
+        List<BorrowedBookView> fines = new ArrayList<>();
+        forEachFineWithDetails(filter, fines::add);
+        return fines;
+    }
+
+    /**
+     * Streams the fine records matching the filter to the consumer as they are read,
+     * using the configured fetch size, so large histories are never held in memory
+     */
+    public static void forEachFineWithDetails(String filter, Consumer<BorrowedBookView> consumer) throws SQLException {
+        forEachFineWithDetails(filter, QueryControl.NONE, consumer);
+    }
+
+    // As above, with a timeout and cancellation from the caller's control
+    public static void forEachFineWithDetails(String filter, QueryControl control,
+                                              Consumer<BorrowedBookView> consumer) throws SQLException {
+        String sql;
+        if ("Unpaid Fines".equals(filter)) {
+            sql = UNPAID_FINES_SQL;
+        } else if ("Paid Fines".equals(filter)) {
+            sql = PAID_FINES_SQL;
+        } else {
+            sql = ALL_FINES_SQL;
+        }
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(DBConnection.getFetchSize());
+            control.attach(pstmt);
+            Rows.forEach(pstmt, RowMappers.BORROWED_BOOK_VIEW, consumer);
+        } finally {
+            control.detach();
         }
     }
 
-    private static BigDecimal calculateFine(int borrowId, Date returnDate, Connection conn) throws SQLException {
-        String sql = "SELECT due_date FROM borrowed_books WHERE id = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * Clears a record's fine, moving it to fines paid on its owner's ledger, in the caller's transaction
+     * @return false if the record doesn't exist or has no fine outstanding; nothing is written then
+     */
+    public static boolean clearFine(int borrowId, Connection conn) throws SQLException {
+        int userId;
+        Timestamp borrowDate;
+        BigDecimal fine;
+        try (PreparedStatement pstmt = conn.prepareStatement(LOCK_FINE_SQL)) {
             pstmt.setInt(1, borrowId);
             try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    Date dueDate = rs.getDate("due_date");
-                    long daysLate = ChronoUnit.DAYS.between(dueDate.toLocalDate(), returnDate.toLocalDate());
-                    return daysLate > 0 ? BigDecimal.valueOf(daysLate * FINE_PER_DAY) : BigDecimal.ZERO;
+                if (!rs.next()) {
+                    return false;
                 }
-                throw new SQLException("Borrow record not found");
+                userId = rs.getInt("user_id");
+                borrowDate = rs.getTimestamp("borrow_date");
+                fine = rs.getBigDecimal("fine") != null ? rs.getBigDecimal("fine") : BigDecimal.ZERO;
             }
         }
-    }
+        if (fine.signum() <= 0) {
+            return false; // Nothing owed, e.g. already settled at another desk
+        }
 
-    public static List<BorrowedBook> getUserBorrowedBooks(int userId) throws SQLException {
-        List<BorrowedBook> books = new ArrayList<>();
-        String query = "SELECT bb.id, bb.user_id, bb.book_id, b.title, " +
-                "bb.borrow_date, bb.due_date, bb.return_date, bb.fine, bb.status " +
-                "FROM borrowed_books bb JOIN books b ON bb.book_id = b.id " +
-                "WHERE bb.user_id = ? AND bb.status = 'borrowed'";
+        // Take the fine off the user's balance, into fines paid, and off the monthly totals before zeroing it
+        try (PreparedStatement pstmt = conn.prepareStatement(DEDUCT_BALANCE_SQL)) {
+            pstmt.setBigDecimal(1, fine);
+            pstmt.setBigDecimal(2, fine);
+            pstmt.setInt(3, userId);
+            pstmt.executeUpdate();
+        }
+        ReportStatsDAO.Delta stats = new ReportStatsDAO.Delta();
+        stats.fineCleared(borrowDate, fine);
+        stats.apply(conn);
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(CLEAR_FINE_SQL)) {
+            pstmt.setInt(1, borrowId);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    // Helper methods with connection parameter for transaction support
+    private static boolean doesUserExist(int userId, Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(USER_EXISTS_SQL)) {
             pstmt.setInt(1, userId);
             try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    books.add(new BorrowedBook(
-                            rs.getInt("id"),
-                            rs.getInt("user_id"),
-                            rs.getInt("book_id"),
-                            rs.getTimestamp("borrow_date"),
-                            rs.getTimestamp("due_date"),
-                            rs.getTimestamp("return_date"),
-                            rs.getBigDecimal("fine"),
-                            BorrowedBook.Status.valueOf(rs.getString("status").toUpperCase())
-                    ));
-                }
+                return rs.next();
             }
         }
-        return books;
+    }
+
+    public static List<BorrowedBookView> getUserBorrowedBooks(int userId) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_USER_BORROWS_SQL)) {
+            pstmt.setInt(1, userId);
+            return Rows.list(pstmt, RowMappers.BORROWED_BOOK_VIEW);
+        }
     }
 
     public static boolean hasUserBorrowedBook(int userId, int bookId) throws SQLException {
-        String query = "SELECT 1 FROM borrowed_books " +
-                "WHERE user_id = ? AND book_id = ? AND status = 'borrowed'";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
+             PreparedStatement pstmt = conn.prepareStatement(HAS_BORROWED_SQL)) {
             pstmt.setInt(1, userId);
             pstmt.setInt(2, bookId);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -277,71 +790,68 @@ public class BorrowedBookDAO {
         }
     }
 
-    public static List<BorrowedBook> getAllTransactions(String filter) throws SQLException {
-        List<BorrowedBook> transactions = new ArrayList<>();
-        String sql = "SELECT bb.id, bb.user_id, bb.book_id, u.name AS user_name, " +
-                "b.title AS book_title, bb.borrow_date, bb.due_date, " +
-                "bb.return_date, bb.fine, bb.status " +
-                "FROM borrowed_books bb " +
-                "JOIN users u ON bb.user_id = u.id " +
-                "JOIN books b ON bb.book_id = b.id ";
+    public static List<BorrowedBookView> getAllTransactions(String filter) throws SQLException {
+        List<BorrowedBookView> transactions = new ArrayList<>();
+        forEachTransaction(filter, transactions::add);
+        return transactions;
+    }
 
+    /**
+     * Streams the whole transaction history matching the filter to the consumer, newest first
+     * @param filter "Borrowed", "Returned" or anything else for all
+     */
+    public static void forEachTransaction(String filter, Consumer<BorrowedBookView> consumer) throws SQLException {
+        String sql;
         if ("Borrowed".equals(filter)) {
-            sql += "WHERE bb.status = 'borrowed' ";
+            sql = BORROWED_TRANSACTIONS_SQL;
         } else if ("Returned".equals(filter)) {
-            sql += "WHERE bb.status = 'returned' ";
+            sql = RETURNED_TRANSACTIONS_SQL;
+        } else {
+            sql = ALL_TRANSACTIONS_SQL;
+        }
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(DBConnection.getFetchSize());
+            Rows.forEach(pstmt, RowMappers.BORROWED_BOOK_VIEW, consumer);
         }
+    }
 
-        sql += "ORDER BY bb.borrow_date DESC";
+    /**
+     * Fetches one page of transactions, newest first, using keyset pagination
+     * on (borrow_date, id) so each page costs the same regardless of depth.
+     * @param filter "Borrowed", "Returned" or anything else for all
+     * @param afterBorrowDate borrow_date of the last row of the previous page, or null for the first page
+     * @param afterId id of the last row of the previous page (ignored when afterBorrowDate is null)
+     * @param pageSize maximum number of rows to return
+     * @return up to pageSize rows; fewer means the history is exhausted
+     */
+    public static List<BorrowedBookView> getTransactionsPage(String filter, Timestamp afterBorrowDate,
+                                                             int afterId, int pageSize) throws SQLException {
+        List<BorrowedBookView> transactions = new ArrayList<>(pageSize);
+        int variant = "Borrowed".equals(filter) ? 1 : "Returned".equals(filter) ? 2 : 0;
+        String sql = TRANSACTIONS_PAGE_SQL[variant][afterBorrowDate != null ? 1 : 0];
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                transactions.add(new BorrowedBook(
-                        rs.getInt("id"),
-                        rs.getInt("user_id"),
-                        rs.getInt("book_id"),
-                        rs.getTimestamp("borrow_date"),
-                        rs.getTimestamp("due_date"),
-                        rs.getTimestamp("return_date"),
-                        rs.getBigDecimal("fine"),
-                        BorrowedBook.Status.valueOf(rs.getString("status").toUpperCase())
-                ));
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            if (afterBorrowDate != null) {
+                pstmt.setTimestamp(index++, afterBorrowDate);
+                pstmt.setTimestamp(index++, afterBorrowDate);
+                pstmt.setInt(index++, afterId);
             }
+            pstmt.setInt(index, pageSize);
+
+            Rows.forEach(pstmt, RowMappers.BORROWED_BOOK_VIEW, transactions::add);
         }
         return transactions;
     }
 
-    public static List<BorrowedBook> getOverdueBooks() throws SQLException {
-        List<BorrowedBook> books = new ArrayList<>();
-        String query = "SELECT bb.id, bb.user_id, bb.book_id, u.name AS user_name, " +
-                "b.title AS book_title, bb.borrow_date, bb.due_date, " +
-                "bb.return_date, bb.fine, bb.status " +
-                "FROM borrowed_books bb " +
-                "JOIN users u ON bb.user_id = u.id " +
-                "JOIN books b ON bb.book_id = b.id " +
-                "WHERE bb.status = 'borrowed' AND bb.due_date < CURRENT_DATE " +
-                "ORDER BY bb.due_date";
-
+    public static List<BorrowedBookView> getOverdueBooks() throws SQLException {
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                books.add(new BorrowedBook(
-                        rs.getInt("id"),
-                        rs.getInt("user_id"),
-                        rs.getInt("book_id"),
-                        rs.getTimestamp("borrow_date"),
-                        rs.getTimestamp("due_date"),
-                        rs.getTimestamp("return_date"),
-                        rs.getBigDecimal("fine"),
-                        BorrowedBook.Status.valueOf(rs.getString("status").toUpperCase()) // Ensure parentheses close properly here
-                ));
-            }
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_OVERDUE_SQL)) {
+            return Rows.list(pstmt, RowMappers.BORROWED_BOOK_VIEW);
         }
-        return books;
     }
-}
\ No newline at end of file
+}
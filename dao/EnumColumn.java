@@ -0,0 +1,61 @@
+package com.library.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Maps an enum to a column holding its lowercase name, like borrowed_books.status.
+ * Decoding compares the column value against the names prepared up front instead of
+ * upper-casing it for Enum.valueOf, so reading a row allocates nothing beyond the
+ * String the driver returns, and encoding hands out the same prepared names.
+ * New enum constants are picked up without changes here.
+ */
+public final class EnumColumn<E extends Enum<E>> {
+    private final Class<E> type;
+    private final E[] constants;
+    private final String[] values;
+
+    private EnumColumn(Class<E> type) {
+        this.type = type;
+        this.constants = type.getEnumConstants();
+        this.values = new String[constants.length];
+        for (int i = 0; i < constants.length; i++) {
+            values[i] = constants[i].name().toLowerCase(Locale.ROOT).intern();
+        }
+    }
+
+    public static <E extends Enum<E>> EnumColumn<E> of(Class<E> type) {
+        return new EnumColumn<>(type);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value names none of the constants, as Enum.valueOf does
+     */
+    public E decode(String value) {
+        if (value == null) {
+            return null;
+        }
+        // Exact match first: the database stores the lowercase names
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return constants[i];
+            }
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equalsIgnoreCase(value)) {
+                return constants[i];
+            }
+        }
+        throw new IllegalArgumentException("No " + type.getSimpleName() + " for column value '" + value + "'");
+    }
+
+    public E read(ResultSet rs, int column) throws SQLException {
+        return decode(rs.getString(column));
+    }
+
+    // Column value for the constant, e.g. "borrowed"
+    public String encode(E constant) {
+        return constant != null ? values[constant.ordinal()] : null;
+    }
+}
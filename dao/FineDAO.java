@@ -0,0 +1,161 @@
+package com.library.dao;
+
+import com.library.utils.DBConnection;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.library.gui.admin.OverdueBooksPanel.FINE_PER_DAY;
+
+/**
+ * Fine accrual and per-user outstanding balances.
+ * <p>
+ * Open overdue borrows carry their fine so far in borrowed_books.fine, with
+ * fine_accrued_on recording the day it was last brought up to date. The daily
+ * accrual only visits open rows that are past due and not yet accrued for the
+ * day, adds the days since their last accrual, and moves users.fine_balance (and
+ * the fines_assessed side of the ledger, see LedgerDAO) by the same amount, so
+ * screens read fines and balances instead of computing them.
+ * Returns add whatever accrued since the last run; clearing a fine takes it back
+ * off the balance.
+ */
+public class FineDAO {
+    private static final Logger logger = Logger.getLogger(FineDAO.class.getName());
+    private static final int ACCRUAL_CHUNK_SIZE = 1000;
+
+    private static final String SELECT_ACCRUABLE_SQL = "SELECT id, user_id, borrow_date, due_date, fine_accrued_on FROM borrowed_books " +
+            "WHERE status = 'borrowed' AND due_date < ? " +
+            "AND (fine_accrued_on IS NULL OR fine_accrued_on < ?) " +
+            "ORDER BY id LIMIT ? FOR UPDATE";
+    private static final String ACCRUE_FINE_SQL = "UPDATE borrowed_books SET fine = COALESCE(fine, 0) + ?, fine_accrued_on = ? WHERE id = ?";
+    private static final String ADD_BALANCE_SQL = "UPDATE users SET fine_balance = fine_balance + ?, " +
+            "fines_assessed = fines_assessed + ? WHERE id = ?";
+    private static final String SELECT_BALANCE_SQL = "SELECT fine_balance FROM users WHERE id = ?";
+
+    /**
+     * Number of days of fine owed between the last accrual point of a borrow and the given day
+     * @param dueDate The borrow's due date
+     * @param accruedOn The day fines were last accrued for the borrow, or null if never
+     * @param asOf The day to accrue up to
+     */
+    public static long daysToAccrue(Date dueDate, Date accruedOn, LocalDate asOf) {
+        LocalDate from = dueDate.toLocalDate();
+        if (accruedOn != null && accruedOn.toLocalDate().isAfter(from)) {
+            from = accruedOn.toLocalDate();
+        }
+        return Math.max(0, ChronoUnit.DAYS.between(from, asOf));
+    }
+
+    public static BigDecimal fineForDays(long days) {
+        return days > 0 ? BigDecimal.valueOf(days * FINE_PER_DAY) : BigDecimal.ZERO;
+    }
+
+    /**
+     * Brings the fines of all open overdue borrows up to the given day.
+     * Works through the backlog in chunks, one transaction each, and is idempotent:
+     * rows already accrued for the day are skipped, so a rerun or a run after missed
+     * days only adds what is actually owed.
+     * @return number of borrow records whose fine changed
+     */
+    public static int accrueFines(LocalDate asOf) throws SQLException {
+        Date asOfDate = Date.valueOf(asOf);
+        int accrued = 0;
+        Connection conn = null;
+        try {
+            conn = DBConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            int chunk;
+            do {
+                Map<Integer, BigDecimal> accruedPerUser = new HashMap<>();
+                ReportStatsDAO.Delta stats = new ReportStatsDAO.Delta();
+                chunk = 0;
+                try (PreparedStatement select = conn.prepareStatement(SELECT_ACCRUABLE_SQL);
+                     PreparedStatement accrue = conn.prepareStatement(ACCRUE_FINE_SQL)) {
+                    select.setDate(1, asOfDate);
+                    select.setDate(2, asOfDate);
+                    select.setInt(3, ACCRUAL_CHUNK_SIZE);
+                    try (ResultSet rs = select.executeQuery()) {
+                        Rows.Columns columns = Rows.columns(rs);
+                        int idColumn = columns.index("id");
+                        int userIdColumn = columns.index("user_id");
+                        int borrowDateColumn = columns.index("borrow_date");
+                        int dueDateColumn = columns.index("due_date");
+                        int accruedOnColumn = columns.index("fine_accrued_on");
+                        while (rs.next()) {
+                            int userId = rs.getInt(userIdColumn);
+                            Date accruedOn = rs.getDate(accruedOnColumn);
+                            BigDecimal fine = fineForDays(daysToAccrue(rs.getDate(dueDateColumn), accruedOn, asOf));
+                            accrue.setBigDecimal(1, fine);
+                            accrue.setDate(2, asOfDate);
+                            accrue.setInt(3, rs.getInt(idColumn));
+                            accrue.addBatch();
+                            accruedPerUser.merge(userId, fine, BigDecimal::add);
+                            stats.accrued(userId, rs.getTimestamp(borrowDateColumn), fine, accruedOn == null);
+                            chunk++;
+                        }
+                    }
+                    if (chunk > 0) {
+                        accrue.executeBatch();
+                    }
+                }
+
+                if (chunk > 0) {
+                    try (PreparedStatement balance = conn.prepareStatement(ADD_BALANCE_SQL)) {
+                        for (Map.Entry<Integer, BigDecimal> entry : accruedPerUser.entrySet()) {
+                            balance.setBigDecimal(1, entry.getValue());
+                            balance.setBigDecimal(2, entry.getValue());
+                            balance.setInt(3, entry.getKey());
+                            balance.addBatch();
+                        }
+                        balance.executeBatch();
+                    }
+                    stats.apply(conn);
+                }
+                conn.commit();
+                accrued += chunk;
+            } while (chunk == ACCRUAL_CHUNK_SIZE);
+
+            logger.log(Level.INFO, "Accrued fines on " + accrued + " overdue borrows as of " + asOf);
+            return accrued;
+        } catch (SQLException e) {
+            DBConnection.rollbackTransaction(conn);
+            throw e;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    logger.log(Level.WARNING, "Error resetting auto-commit", e);
+                }
+            }
+            DBConnection.closeConnection(conn);
+        }
+    }
+
+    /**
+     * Gets a user's outstanding fine balance
+     * @param userId The user ID to check
+     * @return Outstanding balance or BigDecimal.ZERO if error occurs
+     */
+    public static BigDecimal getOutstandingBalance(int userId) {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BALANCE_SQL)) {
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next() && rs.getBigDecimal(1) != null) {
+                    return rs.getBigDecimal(1);
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error fetching fine balance for user " + userId, e);
+        }
+        return BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,332 @@
+package com.library.dao;
+
+import com.library.model.Hold;
+import com.library.utils.DBConnection;
+
+import java.sql.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Holds placed on books that have no copy on the shelf. The open holds live in a
+ * {@link HoldQueue} loaded at startup, and every change is written to the holds
+ * table in the transaction that makes it. When a copy comes back, the return hands
+ * it to the first eligible waiting patron instead of the shelf: the copy stays off
+ * the shelf as a ready hold for HOLD_PICKUP_DAYS, and the patron's next borrow of
+ * the book takes it. Finding that patron is a poll of the book's queue and a
+ * primary-key read of their borrow count, never a scan of holds.
+ */
+public class HoldDAO {
+    public static final int HOLD_PICKUP_DAYS = 3;
+    public static final EnumColumn<Hold.Status> STATUS = EnumColumn.of(Hold.Status.class);
+    private static final Logger logger = Logger.getLogger(HoldDAO.class.getName());
+
+    private static final String HOLD_COLUMNS = "id, user_id, book_id, priority, placed_at, status, ready_at, expires_at";
+    private static final String SELECT_OPEN_HOLDS_SQL = "SELECT " + HOLD_COLUMNS + " FROM holds " +
+            "WHERE status IN ('waiting', 'ready')";
+    private static final String INSERT_HOLD_SQL = "INSERT INTO holds (user_id, book_id, priority, placed_at, status) " +
+            "VALUES (?, ?, ?, ?, 'waiting')";
+    private static final String SET_READY_SQL = "UPDATE holds SET status = 'ready', ready_at = ?, expires_at = ? " +
+            "WHERE id = ? AND status = 'waiting'";
+    private static final String CLOSE_HOLD_SQL = "UPDATE holds SET status = ? WHERE id = ? AND status = ?";
+    private static final String ACTIVE_BORROWS_SQL = "SELECT active_borrows FROM users WHERE id = ?";
+    private static final String RETURN_COPY_SQL = "UPDATE books SET available = available + 1 WHERE id = ?";
+
+    private static final HoldQueue queue = new HoldQueue();
+
+    /**
+     * Copies set aside by one return for the patrons next in line. Becomes
+     * visible to them through {@link #committed()} once the return commits;
+     * {@link #rolledBack()} puts the patrons back in their place.
+     */
+    public static class Allocation {
+        private final List<Hold> holds;
+
+        private Allocation(List<Hold> holds) {
+            this.holds = holds;
+        }
+
+        public int size() {
+            return holds.size();
+        }
+
+        public List<Hold> getHolds() {
+            return holds;
+        }
+
+        public void committed() {
+            for (Hold hold : holds) {
+                queue.markReady(hold);
+            }
+        }
+
+        public void rolledBack() {
+            for (Hold hold : holds) {
+                hold.setReadyAt(null);
+                hold.setExpiresAt(null);
+                queue.requeue(hold);
+            }
+        }
+    }
+
+    /**
+     * Loads the waiting and ready holds. Call once at startup, after migrations
+     * and before any borrow or return.
+     * @return Number of open holds
+     */
+    public static int load() throws SQLException {
+        queue.clear();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_OPEN_HOLDS_SQL,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(DBConnection.getFetchSize());
+            return Rows.forEach(pstmt, RowMappers.HOLD, hold -> {
+                if (hold.getStatus() == Hold.Status.READY) {
+                    queue.markReady(hold);
+                } else {
+                    queue.add(hold);
+                }
+            });
+        }
+    }
+
+    /**
+     * Puts a patron in line for a book
+     * @param priority Higher goes first; equal priorities are first come, first served
+     * @throws SQLException if the patron already has an open hold on the book
+     */
+    public static synchronized Hold placeHold(int userId, int bookId, int priority) throws SQLException {
+        if (queue.isOpen(userId, bookId)) {
+            throw new SQLException("User already has a hold on this book");
+        }
+        Timestamp placedAt = new Timestamp(System.currentTimeMillis());
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_HOLD_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, bookId);
+            pstmt.setInt(3, priority);
+            pstmt.setTimestamp(4, placedAt);
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("Failed to place hold");
+                }
+                Hold hold = new Hold(keys.getInt(1), userId, bookId, priority, placedAt,
+                        Hold.Status.WAITING, null, null);
+                queue.add(hold);
+                return hold;
+            }
+        }
+    }
+
+    /**
+     * Cancels an open hold. A copy set aside for it goes to the next patron in
+     * line, or back on the shelf.
+     * @return false if the hold is not open
+     */
+    public static boolean cancelHold(int holdId) throws SQLException {
+        Hold hold = queue.find(holdId);
+        if (hold == null) {
+            return false;
+        }
+        if (hold.getStatus() == Hold.Status.READY) {
+            return queue.takeReady(hold) && closeReadyHold(hold, Hold.Status.CANCELLED);
+        }
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(CLOSE_HOLD_SQL)) {
+            pstmt.setString(1, STATUS.encode(Hold.Status.CANCELLED));
+            pstmt.setInt(2, holdId);
+            pstmt.setString(3, STATUS.encode(Hold.Status.WAITING));
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+        }
+        queue.cancel(hold);
+        return true;
+    }
+
+    /**
+     * The patrons waiting for a book, in the order copies will go to them
+     */
+    public static List<Hold> getQueue(int bookId) {
+        return queue.waitingFor(bookId);
+    }
+
+    /**
+     * Expires ready holds not picked up by their deadline, passing each copy on
+     * @return Number of holds expired
+     */
+    public static int expireReadyHolds(Timestamp now) throws SQLException {
+        int expired = 0;
+        for (Hold hold : queue.readyHolds()) {
+            if (hold.getExpiresAt() == null || hold.getExpiresAt().after(now)) {
+                continue;
+            }
+            if (queue.takeReady(hold) && closeReadyHold(hold, Hold.Status.EXPIRED)) {
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            logger.log(Level.INFO, "Expired " + expired + " holds not picked up within " +
+                    HOLD_PICKUP_DAYS + " days");
+        }
+        return expired;
+    }
+
+    // Closes a ready hold already taken off the ready map and passes its copy on
+    private static boolean closeReadyHold(Hold hold, Hold.Status outcome) throws SQLException {
+        Connection conn = null;
+        Allocation allocation = null;
+        try {
+            conn = DBConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement pstmt = conn.prepareStatement(CLOSE_HOLD_SQL)) {
+                pstmt.setString(1, STATUS.encode(outcome));
+                pstmt.setInt(2, hold.getId());
+                pstmt.setString(3, STATUS.encode(Hold.Status.READY));
+                if (pstmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    queue.close(hold); // Closed elsewhere
+                    return false;
+                }
+            }
+
+            // The copy goes to the next in line, or back on the shelf
+            int bookId = hold.getBookId();
+            allocation = allocate(bookId, 1, new Timestamp(System.currentTimeMillis()), conn);
+            boolean toShelf = allocation.size() == 0;
+            boolean inMemory = BookAvailability.isEnabled();
+            if (toShelf && !inMemory) {
+                try (PreparedStatement pstmt = conn.prepareStatement(RETURN_COPY_SQL)) {
+                    pstmt.setInt(1, bookId);
+                    pstmt.executeUpdate();
+                }
+            }
+
+            conn.commit();
+            hold.setStatus(outcome);
+            queue.close(hold);
+            allocation.committed();
+            if (toShelf && inMemory) {
+                BookAvailability.returned(bookId, 1);
+            }
+            BookDAO.invalidateCachedBook(bookId);
+            return true;
+        } catch (SQLException e) {
+            DBConnection.rollbackTransaction(conn);
+            if (allocation != null) {
+                allocation.rolledBack();
+            }
+            queue.restoreReady(hold);
+            throw e;
+        } finally {
+            DBConnection.closeConnection(conn);
+        }
+    }
+
+    /**
+     * Sets returned copies aside for the first eligible patrons waiting for the
+     * book, in the caller's transaction. Patrons at their borrow limit are passed
+     * over and keep their place. Call {@link Allocation#committed()} or
+     * {@link Allocation#rolledBack()} once the transaction ends.
+     * @return The holds allocated, fewer than copies if the line runs out
+     */
+    public static Allocation allocate(int bookId, int copies, Timestamp now, Connection conn) throws SQLException {
+        List<Hold> allocated = new ArrayList<>();
+        Allocation allocation = new Allocation(allocated);
+        Timestamp expiresAt = new Timestamp(now.getTime() + Duration.ofDays(HOLD_PICKUP_DAYS).toMillis());
+        try (PreparedStatement eligibility = conn.prepareStatement(ACTIVE_BORROWS_SQL);
+             PreparedStatement setReady = conn.prepareStatement(SET_READY_SQL)) {
+            while (allocated.size() < copies) {
+                Hold hold = queue.poll(bookId, next -> canBorrow(next.getUserId(), eligibility));
+                if (hold == null) {
+                    break;
+                }
+                allocated.add(hold); // Listed first, so a failure below puts it back in line
+                setReady.setTimestamp(1, now);
+                setReady.setTimestamp(2, expiresAt);
+                setReady.setInt(3, hold.getId());
+                if (setReady.executeUpdate() == 0) {
+                    allocated.remove(allocated.size() - 1);
+                    queue.close(hold); // No longer waiting on record
+                    continue;
+                }
+                hold.setReadyAt(now);
+                hold.setExpiresAt(expiresAt);
+            }
+        } catch (SQLException e) {
+            allocation.rolledBack();
+            throw e;
+        }
+        return allocation;
+    }
+
+    private static boolean canBorrow(int userId, PreparedStatement eligibility) throws SQLException {
+        eligibility.setInt(1, userId);
+        try (ResultSet rs = eligibility.executeQuery()) {
+            return rs.next() && rs.getInt(1) < BorrowedBookDAO.MAX_BORROW_LIMIT;
+        }
+    }
+
+    // Books with a copy set aside for pickup, in memory only, for marking them in listings
+    public static Set<Integer> booksWithReadyHolds() {
+        Set<Integer> bookIds = new HashSet<>();
+        for (Hold hold : queue.readyHolds()) {
+            bookIds.add(hold.getBookId());
+        }
+        return bookIds;
+    }
+
+    // In memory only, so screens can ask before offering a borrow
+    public static boolean hasReadyHold(int userId, int bookId) {
+        return queue.isReady(userId, bookId);
+    }
+
+    /**
+     * Takes the copy set aside for the patron, if any, so a borrow can use it
+     * instead of one from the shelf. Pair with {@link #fulfil} in the borrow's
+     * transaction, then {@link #fulfilled} after commit or {@link #unclaim} after rollback.
+     * @return The ready hold, or null if nothing is set aside for the patron
+     */
+    public static Hold claimReady(int userId, int bookId) {
+        return queue.takeReady(userId, bookId);
+    }
+
+    /**
+     * Marks claimed holds fulfilled in the borrow's transaction
+     */
+    public static void fulfil(List<Hold> holds, Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(CLOSE_HOLD_SQL)) {
+            for (Hold hold : holds) {
+                pstmt.setString(1, STATUS.encode(Hold.Status.FULFILLED));
+                pstmt.setInt(2, hold.getId());
+                pstmt.setString(3, STATUS.encode(Hold.Status.READY));
+                pstmt.addBatch();
+            }
+            for (int count : pstmt.executeBatch()) {
+                if (count == 0) {
+                    throw new SQLException("Hold is no longer ready for pickup");
+                }
+            }
+        }
+    }
+
+    public static void fulfilled(List<Hold> holds) {
+        for (Hold hold : holds) {
+            hold.setStatus(Hold.Status.FULFILLED);
+            queue.close(hold);
+        }
+    }
+
+    public static void unclaim(List<Hold> holds) {
+        for (Hold hold : holds) {
+            queue.restoreReady(hold);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.library.dao;
+
+import com.library.model.Hold;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Open holds in memory: a priority queue of waiting holds per book, and the ready
+ * holds keyed by patron and book. Taking the next patron for a returned copy is a
+ * heap poll, O(log n) in the book's queue, and cancelling marks the hold so later
+ * polls drop it instead of searching the heap. Each book's queue is guarded by its
+ * own monitor, so returns of different books never wait on each other.
+ * Persistence is left to HoldDAO.
+ */
+public class HoldQueue {
+    // Highest priority first, then first come, first served
+    public static final Comparator<Hold> ORDER = Comparator.comparingInt(Hold::getPriority).reversed()
+            .thenComparing(Hold::getPlacedAt)
+            .thenComparingInt(Hold::getId);
+
+    private final ConcurrentHashMap<Integer, PriorityQueue<Hold>> waiting = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Hold> ready = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Hold> open = new ConcurrentHashMap<>(); // Waiting and ready, by hold ID
+    private final Set<Long> openKeys = ConcurrentHashMap.newKeySet(); // One open hold per patron and book
+
+    private final AtomicLong allocations = new AtomicLong();
+    private final AtomicLong skips = new AtomicLong();
+
+    /**
+     * Decides whether a waiting patron can take a copy now; patrons passed over keep their place
+     */
+    @FunctionalInterface
+    public interface Eligibility {
+        boolean test(Hold hold) throws SQLException;
+    }
+
+    private static long key(int userId, int bookId) {
+        return ((long) userId << 32) | (bookId & 0xffffffffL);
+    }
+
+    private PriorityQueue<Hold> queueFor(int bookId) {
+        return waiting.computeIfAbsent(bookId, id -> new PriorityQueue<>(ORDER));
+    }
+
+    public boolean isOpen(int userId, int bookId) {
+        return openKeys.contains(key(userId, bookId));
+    }
+
+    public Hold find(int holdId) {
+        return open.get(holdId);
+    }
+
+    public void add(Hold hold) {
+        open.put(hold.getId(), hold);
+        openKeys.add(key(hold.getUserId(), hold.getBookId()));
+        PriorityQueue<Hold> queue = queueFor(hold.getBookId());
+        synchronized (queue) {
+            queue.add(hold);
+        }
+    }
+
+    /**
+     * Takes the first eligible waiting hold for the book off its queue
+     * @return The hold, or null if nobody eligible is waiting
+     */
+    public Hold poll(int bookId, Eligibility eligibility) throws SQLException {
+        PriorityQueue<Hold> queue = waiting.get(bookId);
+        if (queue == null) {
+            return null;
+        }
+        synchronized (queue) {
+            List<Hold> passedOver = null;
+            try {
+                Hold hold;
+                while ((hold = queue.poll()) != null) {
+                    if (hold.getStatus() != Hold.Status.WAITING) {
+                        continue; // Cancelled since it was queued
+                    }
+                    boolean eligible;
+                    try {
+                        eligible = eligibility.test(hold);
+                    } catch (SQLException | RuntimeException e) {
+                        queue.add(hold);
+                        throw e;
+                    }
+                    if (eligible) {
+                        allocations.incrementAndGet();
+                        return hold;
+                    }
+                    if (passedOver == null) {
+                        passedOver = new ArrayList<>();
+                    }
+                    passedOver.add(hold);
+                    skips.incrementAndGet();
+                }
+                return null;
+            } finally {
+                if (passedOver != null) {
+                    queue.addAll(passedOver);
+                }
+            }
+        }
+    }
+
+    // Puts a polled hold back in its place, when the allocation didn't commit
+    public void requeue(Hold hold) {
+        PriorityQueue<Hold> queue = queueFor(hold.getBookId());
+        synchronized (queue) {
+            queue.add(hold);
+        }
+    }
+
+    // Marks a waiting hold cancelled; the next poll of its book drops it
+    public void cancel(Hold hold) {
+        hold.setStatus(Hold.Status.CANCELLED);
+        close(hold);
+    }
+
+    public void markReady(Hold hold) {
+        hold.setStatus(Hold.Status.READY);
+        open.put(hold.getId(), hold);
+        openKeys.add(key(hold.getUserId(), hold.getBookId()));
+        ready.put(key(hold.getUserId(), hold.getBookId()), hold);
+    }
+
+    /**
+     * Takes the patron's ready hold on the book, so only one borrow or expiry can use it
+     * @return The hold, or null if the patron has no copy set aside
+     */
+    public Hold takeReady(int userId, int bookId) {
+        return ready.remove(key(userId, bookId));
+    }
+
+    public boolean isReady(int userId, int bookId) {
+        return ready.containsKey(key(userId, bookId));
+    }
+
+    public boolean takeReady(Hold hold) {
+        return ready.remove(key(hold.getUserId(), hold.getBookId()), hold);
+    }
+
+    // Puts back a ready hold taken by a transaction that rolled back
+    public void restoreReady(Hold hold) {
+        ready.put(key(hold.getUserId(), hold.getBookId()), hold);
+    }
+
+    // Forgets a hold that was fulfilled, cancelled or expired
+    public void close(Hold hold) {
+        open.remove(hold.getId(), hold);
+        openKeys.remove(key(hold.getUserId(), hold.getBookId()));
+    }
+
+    public Collection<Hold> readyHolds() {
+        return new ArrayList<>(ready.values());
+    }
+
+    /**
+     * The book's waiting holds in allocation order
+     */
+    public List<Hold> waitingFor(int bookId) {
+        List<Hold> holds = new ArrayList<>();
+        PriorityQueue<Hold> queue = waiting.get(bookId);
+        if (queue != null) {
+            synchronized (queue) {
+                for (Hold hold : queue) {
+                    if (hold.getStatus() == Hold.Status.WAITING) {
+                        holds.add(hold);
+                    }
+                }
+            }
+        }
+        holds.sort(ORDER);
+        return holds;
+    }
+
+    public void clear() {
+        waiting.clear();
+        ready.clear();
+        open.clear();
+        openKeys.clear();
+    }
+
+    public long getAllocations() {
+        return allocations.get();
+    }
+
+    // Patrons passed over because they couldn't take a copy at the time
+    public long getSkips() {
+        return skips.get();
+    }
+}
@@ -0,0 +1,42 @@
+package com.library.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Placeholders for IN (...) lists, padded to the next power of two so lists of
+ * any length map onto a handful of distinct statements that stay in the prepared
+ * statement cache instead of one statement per list size.
+ * Padding slots repeat the last value, which doesn't change what matches.
+ */
+final class InList {
+    private InList() {
+    }
+
+    static int paddedSize(int count) {
+        return count <= 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
+    }
+
+    // "?, ?, ?, ?" for the padded size of count
+    static String placeholders(int count) {
+        int size = paddedSize(count);
+        StringBuilder sb = new StringBuilder(size * 3);
+        for (int i = 0; i < size; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Binds the IDs from parameter firstIndex on, filling the padding with the last ID
+     * @return Index of the first parameter after the list
+     */
+    static int bind(PreparedStatement pstmt, int firstIndex, List<Integer> ids) throws SQLException {
+        int size = paddedSize(ids.size());
+        for (int i = 0; i < size; i++) {
+            pstmt.setInt(firstIndex + i, ids.get(Math.min(i, ids.size() - 1)));
+        }
+        return firstIndex + size;
+    }
+}
@@ -0,0 +1,138 @@
+package com.library.dao;
+
+import com.library.model.UserLedger;
+import com.library.utils.DBConnection;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per-user fine ledger kept on the users row: fines_assessed, fines_paid,
+ * fine_balance (outstanding) and payments_total. Fine accrual and returns add to
+ * assessed and outstanding, clearing a fine moves it from outstanding to paid, and
+ * recording a payment adds to payments_total, each in the transaction making the
+ * change, so a balance is one primary-key read instead of a SUM over the history.
+ * <p>
+ * reconcile checks the ledger against the raw tables: outstanding against the
+ * fines on borrowed_books, payments_total against payments, and assessed less
+ * paid against outstanding.
+ */
+public class LedgerDAO {
+    private static final Logger logger = Logger.getLogger(LedgerDAO.class.getName());
+
+    private static final String SELECT_LEDGER_SQL = "SELECT id, fines_assessed, fines_paid, fine_balance, payments_total " +
+            "FROM users WHERE id = ?";
+    // One statement, so it reads a single consistent snapshot while returns and payments carry on
+    private static final String SELECT_MISMATCHES_SQL = "SELECT u.id, u.fines_assessed, u.fines_paid, u.fine_balance, " +
+            "u.payments_total, COALESCE(f.fines, 0) AS expected_balance, COALESCE(p.paid, 0) AS expected_payments " +
+            "FROM users u " +
+            "LEFT JOIN (SELECT user_id, SUM(fine) AS fines FROM borrowed_books GROUP BY user_id) f ON f.user_id = u.id " +
+            "LEFT JOIN (SELECT user_id, SUM(amount) AS paid FROM payments GROUP BY user_id) p ON p.user_id = u.id " +
+            "WHERE u.fine_balance <> COALESCE(f.fines, 0) " +
+            "OR u.payments_total <> COALESCE(p.paid, 0) " +
+            "OR u.fines_assessed - u.fines_paid <> u.fine_balance " +
+            "ORDER BY u.id";
+    // Recomputed under the row lock rather than from the values the check read; fines_paid is
+    // kept, as cleared fines are not on record anywhere else, and assessed is squared to it
+    private static final String REPAIR_LEDGER_SQL = "UPDATE users SET " +
+            "fine_balance = (SELECT COALESCE(SUM(fine), 0) FROM borrowed_books WHERE user_id = users.id), " +
+            "fines_assessed = fines_paid + (SELECT COALESCE(SUM(fine), 0) FROM borrowed_books WHERE user_id = users.id), " +
+            "payments_total = (SELECT COALESCE(SUM(amount), 0) FROM payments WHERE user_id = users.id) " +
+            "WHERE id = ?";
+
+    /**
+     * A user whose ledger disagrees with the raw tables
+     */
+    public static class Mismatch {
+        private final UserLedger recorded;
+        private final BigDecimal expectedOutstanding;
+        private final BigDecimal expectedPayments;
+
+        public Mismatch(UserLedger recorded, BigDecimal expectedOutstanding, BigDecimal expectedPayments) {
+            this.recorded = recorded;
+            this.expectedOutstanding = expectedOutstanding;
+            this.expectedPayments = expectedPayments;
+        }
+
+        public UserLedger getRecorded() {
+            return recorded;
+        }
+
+        // Sum of fines on the user's borrow records
+        public BigDecimal getExpectedOutstanding() {
+            return expectedOutstanding;
+        }
+
+        // Sum of the user's payments
+        public BigDecimal getExpectedPayments() {
+            return expectedPayments;
+        }
+
+        @Override
+        public String toString() {
+            return recorded + " expected outstanding=" + expectedOutstanding + ", payments=" + expectedPayments;
+        }
+    }
+
+    /**
+     * Gets a user's ledger
+     * @return The ledger, or null if the user doesn't exist
+     */
+    public static UserLedger getLedger(int userId) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_LEDGER_SQL)) {
+            pstmt.setInt(1, userId);
+            return Rows.first(pstmt, RowMappers.USER_LEDGER);
+        }
+    }
+
+    /**
+     * Checks every user's ledger against borrowed_books and payments
+     * @param repair Whether to rewrite mismatched ledgers from the raw tables
+     * @return The mismatches found, before any repair
+     */
+    public static List<Mismatch> reconcile(boolean repair) throws SQLException {
+        List<Mismatch> mismatches = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_MISMATCHES_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                pstmt.setFetchSize(DBConnection.getFetchSize());
+                RowMapper<Mismatch> mapper = rs -> {
+                    RowMapper.Row<UserLedger> ledger = RowMappers.USER_LEDGER.bind(rs);
+                    Rows.Columns columns = Rows.columns(rs);
+                    int expectedBalance = columns.index("expected_balance");
+                    int expectedPayments = columns.index("expected_payments");
+                    return row -> new Mismatch(ledger.map(row),
+                            row.getBigDecimal(expectedBalance), row.getBigDecimal(expectedPayments));
+                };
+                Rows.forEach(pstmt, mapper, mismatches::add);
+            }
+
+            for (Mismatch mismatch : mismatches) {
+                logger.log(Level.WARNING, "Ledger mismatch: " + mismatch);
+            }
+            if (repair && !mismatches.isEmpty()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement pstmt = conn.prepareStatement(REPAIR_LEDGER_SQL)) {
+                    for (Mismatch mismatch : mismatches) {
+                        pstmt.setInt(1, mismatch.getRecorded().getUserId());
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                    conn.commit();
+                } catch (SQLException e) {
+                    DBConnection.rollbackTransaction(conn);
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+                logger.log(Level.INFO, "Repaired " + mismatches.size() + " ledgers");
+            }
+        }
+        return mismatches;
+    }
+}
@@ -1,17 +1,57 @@
 package com.library.dao;
 
+import com.library.model.Payment;
+import com.library.utils.BulkInsert;
 import com.library.utils.DBConnection;
 
 import java.math.BigDecimal;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class PaymentDAO {
     private static final Logger logger = Logger.getLogger(PaymentDAO.class.getName());
+    private static final BulkInsert<Payment> bulkInsert = new BulkInsert<>("payments",
+            new String[]{"user_id", "amount", "payment_date", "method", "description"},
+            (pstmt, i, payment) -> {
+                pstmt.setInt(i, payment.getUserId());
+                pstmt.setBigDecimal(i + 1, payment.getAmount());
+                pstmt.setTimestamp(i + 2, payment.getPaymentDate());
+                pstmt.setString(i + 3, payment.getMethod());
+                pstmt.setString(i + 4, payment.getDescription());
+            });
+
+    private static final String INSERT_PAYMENT_SQL = "INSERT INTO payments (user_id, amount, payment_date, method, description) " +
+            "VALUES (?, ?, CURRENT_TIMESTAMP, ?, ?)";
+    private static final String ADD_PAYMENTS_TOTAL_SQL = "UPDATE users SET payments_total = payments_total + ? WHERE id = ?";
+    private static final String SETTLE_FINE_SQL = "UPDATE borrowed_books SET fine = 0 WHERE id = ?";
+    private static final String SETTLE_LEDGER_SQL = "UPDATE users SET fine_balance = GREATEST(fine_balance - ?, 0), " +
+            "fines_paid = fines_paid + ?, payments_total = payments_total + ? WHERE id = ?";
+    private static final String INSERT_ALLOCATION_SQL = "INSERT INTO payment_allocations (payment_id, borrow_id, amount) " +
+            "VALUES (?, ?, ?)";
+    private static final String TOTAL_PAYMENTS_SQL = "SELECT payments_total FROM users WHERE id = ?";
+    // Range bounds are always bound (open ends as the sentinels below) so each query has a single SQL text
+    private static final String PAYMENT_HISTORY_SELECT = "SELECT id, user_id, amount, payment_date, method, description " +
+            "FROM payments WHERE user_id = ? AND payment_date >= ? AND payment_date < ? ";
+    private static final String PAYMENT_HISTORY_ORDER = "ORDER BY payment_date DESC, id DESC";
+    private static final String SELECT_PAYMENT_HISTORY_SQL = PAYMENT_HISTORY_SELECT + PAYMENT_HISTORY_ORDER;
+    // [first page, later pages]
+    private static final String[] PAYMENT_HISTORY_PAGE_SQL = {
+            PAYMENT_HISTORY_SELECT + PAYMENT_HISTORY_ORDER + " LIMIT ?",
+            PAYMENT_HISTORY_SELECT + "AND (payment_date < ? OR (payment_date = ? AND id < ?)) " +
+                    PAYMENT_HISTORY_ORDER + " LIMIT ?"
+    };
+    private static final Timestamp EARLIEST = Timestamp.valueOf("1970-01-01 00:00:00");
+    private static final Timestamp LATEST = Timestamp.valueOf("9999-12-31 23:59:59");
 
     /**
-     * Records a payment in the database
+     * Records a payment in the database and adds it to the user's ledger, atomically
      * @param userId The user ID making the payment
      * @param amount The payment amount
      * @param method Payment method (Cash, Credit Card, etc.)
@@ -25,6 +65,7 @@ public class PaymentDAO {
         if (conn == null) {
             try {
                 conn = DBConnection.getConnection();
+                conn.setAutoCommit(false);
                 shouldCloseConnection = true;
             } catch (SQLException e) {
                 logger.log(Level.SEVERE, "Failed to get database connection", e);
@@ -32,10 +73,44 @@ public class PaymentDAO {
             }
         }
 
-        String sql = "INSERT INTO payments (user_id, amount, payment_date, method, description) " +
-                "VALUES (?, ?, CURRENT_TIMESTAMP, ?, ?)";
+        try {
+            int paymentId = insertPayment(userId, amount, method, description, conn);
+            logger.log(Level.INFO, "Recorded payment ID: " + paymentId);
+
+            try (PreparedStatement ledger = conn.prepareStatement(ADD_PAYMENTS_TOTAL_SQL)) {
+                ledger.setBigDecimal(1, amount);
+                ledger.setInt(2, userId);
+                if (ledger.executeUpdate() == 0) {
+                    throw new SQLException("Recording payment failed, no user with ID " + userId);
+                }
+            }
+
+            if (shouldCloseConnection) {
+                conn.commit();
+            }
+            return true;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error recording payment", e);
+            if (shouldCloseConnection) {
+                DBConnection.rollbackTransaction(conn);
+            }
+            return false;
+        } finally {
+            if (shouldCloseConnection && conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    logger.log(Level.WARNING, "Error closing connection", e);
+                }
+            }
+        }
+    }
 
-        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+    // Inserts the payment row; returns its ID, or -1 if the driver didn't report one
+    private static int insertPayment(int userId, BigDecimal amount, String method, String description,
+                                     Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_PAYMENT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setInt(1, userId);
             pstmt.setBigDecimal(2, amount);
             pstmt.setString(3, method);
@@ -47,39 +122,231 @@ public class PaymentDAO {
             }
 
             try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    logger.log(Level.INFO, "Recorded payment ID: " + generatedKeys.getInt(1));
+                return generatedKeys.next() ? generatedKeys.getInt(1) : -1;
+            }
+        }
+    }
+
+    /**
+     * Outcome of a bulk fine settlement
+     */
+    public static class Settlement {
+        private final int paymentId;
+        private final int userId;
+        private final BigDecimal total;
+        private final List<BorrowedBookDAO.BatchResult> items;
+
+        public Settlement(int paymentId, int userId, BigDecimal total, List<BorrowedBookDAO.BatchResult> items) {
+            this.paymentId = paymentId;
+            this.userId = userId;
+            this.total = total;
+            this.items = items;
+        }
+
+        // Payment recorded, -1 if nothing was settled
+        public int getPaymentId() {
+            return paymentId;
+        }
+
+        // Patron charged, -1 if none of the records were found
+        public int getUserId() {
+            return userId;
+        }
+
+        public BigDecimal getTotal() {
+            return total;
+        }
+
+        // One per requested borrow record, in request order
+        public List<BorrowedBookDAO.BatchResult> getItems() {
+            return items;
+        }
+
+        public int getSettledCount() {
+            int settled = 0;
+            for (BorrowedBookDAO.BatchResult item : items) {
+                if (item.isSuccess()) {
+                    settled++;
                 }
             }
-            return true;
+            return settled;
+        }
+    }
+
+    /**
+     * Settles the fines on a set of borrow records under one payment, in one transaction:
+     * the records are locked, their fines cleared in a batch, the patron's ledger moved once,
+     * and one payment recorded for the total with an allocation line per record.
+     * <p>
+     * The amount charged is what the locked records owe, not what a screen last showed,
+     * so a fine settled concurrently by another desk is reported as already paid
+     * rather than charged twice. The patron is the owner of the first record found;
+     * records belonging to someone else, unknown records and records with no fine
+     * are reported as failed without affecting the rest.
+     * @param borrowIds Borrow records to settle
+     * @param method Payment method, may be null
+     * @param description Payment description
+     */
+    public static Settlement settleFines(List<Integer> borrowIds, String method, String description) throws SQLException {
+        if (borrowIds.isEmpty()) {
+            return new Settlement(-1, -1, BigDecimal.ZERO, new ArrayList<>());
+        }
+
+        Connection conn = null;
+        try {
+            conn = DBConnection.getConnection();
+            conn.setAutoCommit(false);
+            Settlement settlement = settleFines(borrowIds, -1, null, method, description, conn);
+            if (settlement.getSettledCount() == 0) {
+                conn.rollback();
+            } else {
+                conn.commit();
+                logger.log(Level.INFO, "Recorded payment ID " + settlement.getPaymentId() + " settling " +
+                        settlement.getSettledCount() + " fines for user " + settlement.getUserId());
+            }
+            return settlement;
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Error recording payment", e);
-            return false;
+            DBConnection.rollbackTransaction(conn);
+            throw e;
         } finally {
-            if (shouldCloseConnection && conn != null) {
+            if (conn != null) {
                 try {
-                    conn.close();
+                    conn.setAutoCommit(true);
                 } catch (SQLException e) {
-                    logger.log(Level.WARNING, "Error closing connection", e);
+                    logger.log(Level.WARNING, "Error resetting auto-commit", e);
                 }
             }
+            DBConnection.closeConnection(conn);
         }
     }
 
     /**
-     * Gets the total payments made by a user
+     * The settlement itself, in the caller's transaction. Nothing is written unless
+     * at least one fine is settled, and the caller commits or rolls back.
+     * @param userId Patron the records must belong to, or -1 for the owner of the first record found
+     * @param expectedTotal Amount the caller is collecting; if the locked records owe
+     *                      anything else, nothing is settled. Null to charge what they owe.
+     */
+    private static Settlement settleFines(List<Integer> borrowIds, int userId, BigDecimal expectedTotal,
+                                          String method, String description, Connection conn) throws SQLException {
+        List<BorrowedBookDAO.BatchResult> items = new ArrayList<>(borrowIds.size());
+
+        // 1. Lock every record at once, in primary key order like other batch paths
+        Map<Integer, Integer> userIdByBorrow = new HashMap<>();
+        Map<Integer, Timestamp> borrowDateByBorrow = new HashMap<>();
+        Map<Integer, BigDecimal> fineByBorrow = new HashMap<>();
+        String lockSql = "SELECT id, user_id, borrow_date, fine FROM borrowed_books WHERE id IN (" +
+                InList.placeholders(borrowIds.size()) + ") FOR UPDATE";
+        try (PreparedStatement pstmt = conn.prepareStatement(lockSql)) {
+            InList.bind(pstmt, 1, borrowIds);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int borrowId = rs.getInt(1);
+                    userIdByBorrow.put(borrowId, rs.getInt(2));
+                    borrowDateByBorrow.put(borrowId, rs.getTimestamp(3));
+                    fineByBorrow.put(borrowId, rs.getBigDecimal(4) != null ? rs.getBigDecimal(4) : BigDecimal.ZERO);
+                }
+            }
+        }
+
+        // 2. Decide each item in request order
+        if (userId < 0) {
+            for (int borrowId : borrowIds) {
+                if (userIdByBorrow.containsKey(borrowId)) {
+                    userId = userIdByBorrow.get(borrowId);
+                    break;
+                }
+            }
+        }
+        Map<Integer, BigDecimal> allocations = new LinkedHashMap<>();
+        BigDecimal total = BigDecimal.ZERO;
+        ReportStatsDAO.Delta stats = new ReportStatsDAO.Delta();
+        for (int borrowId : borrowIds) {
+            BigDecimal fine = fineByBorrow.get(borrowId);
+            if (fine == null) {
+                items.add(new BorrowedBookDAO.BatchResult(borrowId, -1, false, "Invalid borrow record ID"));
+            } else if (userIdByBorrow.get(borrowId) != userId) {
+                items.add(new BorrowedBookDAO.BatchResult(borrowId, -1, false, "Belongs to another patron"));
+            } else if (fine.signum() <= 0 || allocations.containsKey(borrowId)) {
+                items.add(new BorrowedBookDAO.BatchResult(borrowId, -1, false, "No fine outstanding"));
+            } else {
+                allocations.put(borrowId, fine);
+                total = total.add(fine);
+                stats.fineCleared(borrowDateByBorrow.get(borrowId), fine);
+                items.add(new BorrowedBookDAO.BatchResult(borrowId, borrowId, true, "Paid " + fine));
+            }
+        }
+
+        if (allocations.isEmpty()) {
+            return new Settlement(-1, userId, BigDecimal.ZERO, items);
+        }
+        if (expectedTotal != null && total.compareTo(expectedTotal) != 0) {
+            items.clear();
+            for (int borrowId : borrowIds) {
+                items.add(new BorrowedBookDAO.BatchResult(borrowId, -1, false, "Amount due is " + total));
+            }
+            return new Settlement(-1, userId, BigDecimal.ZERO, items);
+        }
+
+        // 3. Clear the fines in one batch
+        try (PreparedStatement pstmt = conn.prepareStatement(SETTLE_FINE_SQL)) {
+            for (int borrowId : allocations.keySet()) {
+                pstmt.setInt(1, borrowId);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+
+        // 4. One ledger update: outstanding down, fines paid and payments up
+        try (PreparedStatement pstmt = conn.prepareStatement(SETTLE_LEDGER_SQL)) {
+            pstmt.setBigDecimal(1, total);
+            pstmt.setBigDecimal(2, total);
+            pstmt.setBigDecimal(3, total);
+            pstmt.setInt(4, userId);
+            pstmt.executeUpdate();
+        }
+
+        // 5. One payment for the total, split across the records it settled
+        int paymentId = insertPayment(userId, total, method, description, conn);
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_ALLOCATION_SQL)) {
+            for (Map.Entry<Integer, BigDecimal> allocation : allocations.entrySet()) {
+                pstmt.setInt(1, paymentId);
+                pstmt.setInt(2, allocation.getKey());
+                pstmt.setBigDecimal(3, allocation.getValue());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+
+        // 6. Report rollups
+        stats.apply(conn);
+
+        return new Settlement(paymentId, userId, total, items);
+    }
+
+    /**
+     * Bulk-loads historical payments with multi-row inserts
+     * @param payments The payments to insert
+     * @param conn Connection to insert on; transaction handling is left to the caller,
+     *             as is keeping users.payments_total in step
+     * @return number of rows inserted
+     */
+    public static int insertPayments(List<Payment> payments, Connection conn) throws SQLException {
+        return bulkInsert.insert(conn, payments, null);
+    }
+
+    /**
+     * Gets the total payments made by a user, read from their ledger rather than summed from payments
      * @param userId The user ID to check
      * @return Total payment amount or BigDecimal.ZERO if error occurs
      */
     public static BigDecimal getTotalPaymentsByUser(int userId) {
-        String sql = "SELECT COALESCE(SUM(amount), 0) FROM payments WHERE user_id = ?";
-
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(TOTAL_PAYMENTS_SQL)) {
             pstmt.setInt(1, userId);
 
             try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
+                if (rs.next() && rs.getBigDecimal(1) != null) {
                     return rs.getBigDecimal(1);
                 }
             }
@@ -90,30 +357,85 @@ public class PaymentDAO {
     }
 
     /**
-     * Gets payment history for a user
+     * Gets the full payment history for a user, newest first
      * @param userId The user ID
-     * @return ResultSet containing payment history (caller must close)
-     * @throws SQLException if database error occurs
      */
-    public static ResultSet getPaymentHistory(int userId) throws SQLException {
-        Connection conn = DBConnection.getConnection();
-        String sql = "SELECT id, amount, payment_date, method, description " +
-                "FROM payments WHERE user_id = ? ORDER BY payment_date DESC";
+    public static List<Payment> getPaymentHistory(int userId) throws SQLException {
+        List<Payment> payments = new ArrayList<>();
+        forEachPayment(userId, null, null, payments::add);
+        return payments;
+    }
 
-        PreparedStatement pstmt = conn.prepareStatement(sql);
+    /**
+     * Streams a user's payments in a date range to the consumer, newest first.
+     * The connection is returned to the pool when this returns or throws, including
+     * when the consumer throws.
+     * @param from Earliest payment_date to include, or null for no lower bound
+     * @param to payment_date to stop before (exclusive), or null for no upper bound
+     * @return Number of payments read
+     */
+    public static int forEachPayment(int userId, Timestamp from, Timestamp to,
+                                     Consumer<Payment> consumer) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_PAYMENT_HISTORY_SQL,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(DBConnection.getFetchSize());
+            bindRange(pstmt, userId, from, to);
+            return Rows.forEach(pstmt, RowMappers.PAYMENT, consumer);
+        }
+    }
+
+    /**
+     * Fetches one page of a user's payments in a date range, newest first, using keyset
+     * pagination on (payment_date, id) so deep pages cost the same as the first.
+     * @param from Earliest payment_date to include, or null for no lower bound
+     * @param to payment_date to stop before (exclusive), or null for no upper bound
+     * @param afterPaymentDate payment_date of the last row of the previous page, or null for the first page
+     * @param afterId id of the last row of the previous page (ignored when afterPaymentDate is null)
+     * @param pageSize maximum number of rows to return
+     * @return up to pageSize rows; fewer means the history is exhausted
+     */
+    public static List<Payment> getPaymentHistoryPage(int userId, Timestamp from, Timestamp to,
+                                                      Timestamp afterPaymentDate, int afterId,
+                                                      int pageSize) throws SQLException {
+        List<Payment> payments = new ArrayList<>(pageSize);
+        String sql = PAYMENT_HISTORY_PAGE_SQL[afterPaymentDate != null ? 1 : 0];
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = bindRange(pstmt, userId, from, to);
+            if (afterPaymentDate != null) {
+                pstmt.setTimestamp(index++, afterPaymentDate);
+                pstmt.setTimestamp(index++, afterPaymentDate);
+                pstmt.setInt(index++, afterId);
+            }
+            pstmt.setInt(index, pageSize);
+
+            Rows.forEach(pstmt, RowMappers.PAYMENT, payments::add);
+        }
+        return payments;
+    }
+
+    // Binds user_id and the date range; returns the next parameter index
+    private static int bindRange(PreparedStatement pstmt, int userId, Timestamp from, Timestamp to) throws SQLException {
         pstmt.setInt(1, userId);
-        return pstmt.executeQuery();
+        pstmt.setTimestamp(2, from != null ? from : EARLIEST);
+        pstmt.setTimestamp(3, to != null ? to : LATEST);
+        return 4;
     }
 
     /**
-     * Records a fine payment and updates the borrowed book record
+     * Records a fine payment and clears the fine on the borrowed book record, the
+     * single-record form of {@link #settleFines}: the record is locked, and its fine
+     * is charged to its owner only if that is the paying user and the amount matches.
      * @param borrowId The borrow record ID
      * @param userId The user ID paying the fine
-     * @param amount The payment amount
+     * @param amount The payment amount, which must equal the fine on the record
      * @param method Payment method
      * @param description Payment description
      * @param conn Optional existing connection for transactions
-     * @return true if both operations succeeded
+     * @return true if the fine was settled; false if the record is not the user's,
+     *         has no fine outstanding (e.g. settled by another desk) or owes another amount
      */
     public static boolean recordFinePayment(int borrowId, int userId, BigDecimal amount,
                                             String method, String description, Connection conn) {
@@ -130,23 +452,21 @@ public class PaymentDAO {
         }
 
         try {
-            // 1. Record the payment
-            boolean paymentRecorded = recordPayment(userId, amount, method, description, conn);
-
-            // 2. Update the borrowed book record
-            boolean fineUpdated = BorrowedBookDAO.clearFine(borrowId, conn);
+            Settlement settlement = settleFines(List.of(borrowId), userId, amount, method, description, conn);
+            boolean settled = settlement.getSettledCount() == 1;
+            if (!settled) {
+                logger.log(Level.WARNING, "Fine payment for borrow " + borrowId + " not recorded: " +
+                        settlement.getItems().get(0).getMessage());
+            }
 
-            if (paymentRecorded && fineUpdated) {
-                if (shouldCloseConnection) {
+            if (shouldCloseConnection) {
+                if (settled) {
                     conn.commit();
-                }
-                return true;
-            } else {
-                if (shouldCloseConnection) {
+                } else {
                     conn.rollback();
                 }
-                return false;
             }
+            return settled;
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Error recording fine payment", e);
             if (shouldCloseConnection && conn != null) {
@@ -0,0 +1,72 @@
+package com.library.dao;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Handle a caller passes to a streaming DAO query so it can bound the query with a
+ * timeout and cancel it from another thread, e.g. when a screen supersedes a load.
+ * The DAO attaches its statement before executing it and detaches it once closed.
+ */
+public final class QueryControl {
+    private static final Logger logger = Logger.getLogger(QueryControl.class.getName());
+
+    // No timeout and never cancelled, for callers that don't need either
+    public static final QueryControl NONE = new QueryControl(0);
+
+    private volatile int timeoutSeconds;
+    private volatile boolean cancelled;
+    private volatile Statement active;
+
+    public QueryControl(int timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    // Seconds before the database gives up on the query, 0 for no limit
+    public void setTimeoutSeconds(int timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    /**
+     * Applies the timeout and makes the statement cancellable; call before executing it
+     * @throws SQLException if the query was cancelled before it started
+     */
+    public void attach(Statement statement) throws SQLException {
+        if (this == NONE) {
+            return;
+        }
+        statement.setQueryTimeout(timeoutSeconds);
+        active = statement;
+        if (cancelled) {
+            throw new SQLException("Query cancelled");
+        }
+    }
+
+    public void detach() {
+        active = null;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Cancels the statement in flight, if any, and any the query attaches later
+     */
+    public void cancel() {
+        if (this == NONE) {
+            return;
+        }
+        cancelled = true;
+        Statement statement = active;
+        if (statement != null) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                logger.log(Level.FINE, "Could not cancel query", e); // Usually already finished
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.library.dao;
+
+import com.library.utils.DBConnection;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Rollup tables behind the aggregate reports: borrow counts per book, activity
+ * per user and circulation per borrow month. The borrow, return, accrual and
+ * fine-clearing paths add their changes through a Delta inside their own
+ * transaction, so the reports read the rollups instead of grouping the history.
+ * <p>
+ * "Overdue" here means an open borrow the daily fine accrual has charged at
+ * least once, which is when a borrow enters and leaves the overdue counts.
+ */
+public class ReportStatsDAO {
+    private static final Logger logger = Logger.getLogger(ReportStatsDAO.class.getName());
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+    // Same yyyy-MM key as monthKey, built in SQL for the rebuild
+    private static final String MONTH_SQL = "CONCAT(YEAR(borrow_date), '-', LPAD(MONTH(borrow_date), 2, '0'))";
+    private static final String UPSERT_BOOK_STATS_SQL = "INSERT INTO book_stats (book_id, times_borrowed) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE times_borrowed = times_borrowed + VALUES(times_borrowed)";
+    private static final String UPSERT_USER_STATS_SQL = "INSERT INTO user_stats (user_id, total_borrowed, books_returned, overdue_books) " +
+            "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "total_borrowed = total_borrowed + VALUES(total_borrowed), " +
+            "books_returned = books_returned + VALUES(books_returned), " +
+            "overdue_books = overdue_books + VALUES(overdue_books)";
+    private static final String UPSERT_MONTHLY_STATS_SQL = "INSERT INTO monthly_stats (month, books_borrowed, books_returned, overdue_books, " +
+            "total_fines) VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "books_borrowed = books_borrowed + VALUES(books_borrowed), " +
+            "books_returned = books_returned + VALUES(books_returned), " +
+            "overdue_books = overdue_books + VALUES(overdue_books), " +
+            "total_fines = total_fines + VALUES(total_fines)";
+
+    /**
+     * Changes to the rollups made by one transaction, applied with one batched
+     * upsert per table. Keys are sorted so concurrent transactions lock rollup
+     * rows in the same order.
+     */
+    public static class Delta {
+        private final Map<Integer, Integer> borrowsPerBook = new TreeMap<>();
+        private final Map<Integer, int[]> perUser = new TreeMap<>(); // borrowed, returned, overdue
+        private final Map<String, int[]> perMonth = new TreeMap<>(); // borrowed, returned, overdue
+        private final Map<String, BigDecimal> finesPerMonth = new TreeMap<>();
+
+        public void borrowed(int userId, int bookId, Timestamp borrowDate) {
+            borrowsPerBook.merge(bookId, 1, Integer::sum);
+            userCounts(userId)[0]++;
+            monthCounts(borrowDate)[0]++;
+        }
+
+        /**
+         * @param fine Fine added by the return itself
+         * @param wasOverdue Whether the borrow was already counted as overdue
+         */
+        public void returned(int userId, Timestamp borrowDate, BigDecimal fine, boolean wasOverdue) {
+            userCounts(userId)[1]++;
+            monthCounts(borrowDate)[1]++;
+            if (wasOverdue) {
+                userCounts(userId)[2]--;
+                monthCounts(borrowDate)[2]--;
+            }
+            fines(borrowDate, fine);
+        }
+
+        /**
+         * @param firstAccrual Whether this is the borrow's first accrual, i.e. it just became overdue
+         */
+        public void accrued(int userId, Timestamp borrowDate, BigDecimal fine, boolean firstAccrual) {
+            if (firstAccrual) {
+                userCounts(userId)[2]++;
+                monthCounts(borrowDate)[2]++;
+            }
+            fines(borrowDate, fine);
+        }
+
+        public void fineCleared(Timestamp borrowDate, BigDecimal fine) {
+            fines(borrowDate, fine.negate());
+        }
+
+        public boolean isEmpty() {
+            return borrowsPerBook.isEmpty() && perUser.isEmpty() && perMonth.isEmpty() && finesPerMonth.isEmpty();
+        }
+
+        /**
+         * Writes the changes on the caller's connection; call just before commit
+         * to keep the rollup row locks short.
+         */
+        public void apply(Connection conn) throws SQLException {
+            if (!borrowsPerBook.isEmpty()) {
+                try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_BOOK_STATS_SQL)) {
+                    for (Map.Entry<Integer, Integer> entry : borrowsPerBook.entrySet()) {
+                        pstmt.setInt(1, entry.getKey());
+                        pstmt.setInt(2, entry.getValue());
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+            }
+
+            if (!perUser.isEmpty()) {
+                try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_USER_STATS_SQL)) {
+                    for (Map.Entry<Integer, int[]> entry : perUser.entrySet()) {
+                        int[] counts = entry.getValue();
+                        pstmt.setInt(1, entry.getKey());
+                        pstmt.setInt(2, counts[0]);
+                        pstmt.setInt(3, counts[1]);
+                        pstmt.setInt(4, counts[2]);
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+            }
+
+            if (!perMonth.isEmpty() || !finesPerMonth.isEmpty()) {
+                Map<String, int[]> months = new TreeMap<>(perMonth);
+                for (String month : finesPerMonth.keySet()) {
+                    months.putIfAbsent(month, new int[3]);
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_MONTHLY_STATS_SQL)) {
+                    for (Map.Entry<String, int[]> entry : months.entrySet()) {
+                        int[] counts = entry.getValue();
+                        pstmt.setString(1, entry.getKey());
+                        pstmt.setInt(2, counts[0]);
+                        pstmt.setInt(3, counts[1]);
+                        pstmt.setInt(4, counts[2]);
+                        pstmt.setBigDecimal(5, finesPerMonth.getOrDefault(entry.getKey(), BigDecimal.ZERO));
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+            }
+        }
+
+        private int[] userCounts(int userId) {
+            return perUser.computeIfAbsent(userId, id -> new int[3]);
+        }
+
+        private int[] monthCounts(Timestamp borrowDate) {
+            return perMonth.computeIfAbsent(monthKey(borrowDate), month -> new int[3]);
+        }
+
+        private void fines(Timestamp borrowDate, BigDecimal amount) {
+            if (amount != null && amount.signum() != 0) {
+                finesPerMonth.merge(monthKey(borrowDate), amount, BigDecimal::add);
+            }
+        }
+    }
+
+    public static String monthKey(Timestamp borrowDate) {
+        return borrowDate.toLocalDateTime().format(MONTH_FORMAT);
+    }
+
+    public static String monthKey(LocalDate date) {
+        return date.format(MONTH_FORMAT);
+    }
+
+    /**
+     * Recomputes all rollups from the borrow history in one transaction.
+     * For backfill after a schema upgrade or a bulk load; this is the one
+     * full scan of the history, so run it off-peak.
+     */
+    public static void rebuild() throws SQLException {
+        String[] statements = {
+                "DELETE FROM book_stats",
+                "INSERT INTO book_stats (book_id, times_borrowed) " +
+                        "SELECT book_id, COUNT(*) FROM borrowed_books GROUP BY book_id",
+                "DELETE FROM user_stats",
+                "INSERT INTO user_stats (user_id, total_borrowed, books_returned, overdue_books) " +
+                        "SELECT user_id, COUNT(*), " +
+                        "SUM(CASE WHEN status = 'returned' THEN 1 ELSE 0 END), " +
+                        "SUM(CASE WHEN status = 'borrowed' AND fine_accrued_on IS NOT NULL THEN 1 ELSE 0 END) " +
+                        "FROM borrowed_books GROUP BY user_id",
+                "DELETE FROM monthly_stats",
+                "INSERT INTO monthly_stats (month, books_borrowed, books_returned, overdue_books, total_fines) " +
+                        "SELECT " + MONTH_SQL + ", COUNT(*), " +
+                        "SUM(CASE WHEN status = 'returned' THEN 1 ELSE 0 END), " +
+                        "SUM(CASE WHEN status = 'borrowed' AND fine_accrued_on IS NOT NULL THEN 1 ELSE 0 END), " +
+                        "COALESCE(SUM(fine), 0) " +
+                        "FROM borrowed_books GROUP BY " + MONTH_SQL
+        };
+
+        Connection conn = null;
+        try {
+            conn = DBConnection.getConnection();
+            conn.setAutoCommit(false);
+            long start = System.currentTimeMillis();
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : statements) {
+                    stmt.executeUpdate(sql);
+                }
+            }
+            conn.commit();
+            logger.log(Level.INFO, "Rebuilt report rollups in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (SQLException e) {
+            DBConnection.rollbackTransaction(conn);
+            throw e;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    logger.log(Level.WARNING, "Error resetting auto-commit", e);
+                }
+            }
+            DBConnection.closeConnection(conn);
+        }
+    }
+}
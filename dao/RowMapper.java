@@ -0,0 +1,29 @@
+package com.library.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the rows of a result set to model objects.
+ * A mapper resolves the columns it needs once per ResultSet in {@link #bind},
+ * and the returned Row reads every row by position, so there is no column
+ * label lookup per field per row.
+ * @see Rows
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Looks up the positions of this mapper's columns in the result set
+     * @throws SQLException if a required column is missing
+     */
+    Row<T> bind(ResultSet rs) throws SQLException;
+
+    /**
+     * Reads the current row of the result set it was bound to
+     */
+    @FunctionalInterface
+    interface Row<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+}
@@ -0,0 +1,139 @@
+package com.library.dao;
+
+import com.library.model.Book;
+import com.library.model.BorrowedBookView;
+import com.library.model.Hold;
+import com.library.model.Payment;
+import com.library.model.User;
+import com.library.model.UserLedger;
+
+/**
+ * Row mappers for the models the DAOs return, one per model
+ */
+public final class RowMappers {
+    private RowMappers() {
+    }
+
+    public static final RowMapper<Book> BOOK = rs -> {
+        Rows.Columns columns = Rows.columns(rs);
+        int id = columns.index("id");
+        int title = columns.index("title");
+        int author = columns.index("author");
+        int genre = columns.index("genre");
+        int isbn = columns.index("isbn");
+        int publisher = columns.index("publisher");
+        int quantity = columns.index("quantity");
+        int available = columns.index("available");
+        int addedAt = columns.index("added_at");
+        // Available copies come from BookAvailability when it holds the live counts
+        return row -> {
+            int bookId = row.getInt(id);
+            return new Book(
+                    bookId,
+                    row.getString(title),
+                    row.getString(author),
+                    row.getString(genre),
+                    row.getString(isbn),
+                    row.getString(publisher),
+                    row.getInt(quantity),
+                    BookAvailability.current(bookId, row.getInt(available)),
+                    row.getTimestamp(addedAt));
+        };
+    };
+
+    // Listings that don't select the password hash get a placeholder instead
+    public static final RowMapper<User> USER = rs -> {
+        Rows.Columns columns = Rows.columns(rs);
+        int id = columns.index("id");
+        int name = columns.index("name");
+        int email = columns.index("email");
+        int password = columns.indexIfPresent("password");
+        int role = columns.index("role");
+        int createdAt = columns.index("created_at");
+        return row -> new User(
+                row.getInt(id),
+                row.getString(name),
+                row.getString(email),
+                password > 0 ? row.getString(password) : "[PROTECTED]",
+                row.getString(role),
+                row.getTimestamp(createdAt));
+    };
+
+    public static final RowMapper<BorrowedBookView> BORROWED_BOOK_VIEW = rs -> {
+        Rows.Columns columns = Rows.columns(rs);
+        int id = columns.index("id");
+        int userId = columns.index("user_id");
+        int bookId = columns.index("book_id");
+        int userName = columns.index("user_name");
+        int bookTitle = columns.index("book_title");
+        int borrowDate = columns.index("borrow_date");
+        int dueDate = columns.index("due_date");
+        int returnDate = columns.index("return_date");
+        int fine = columns.index("fine");
+        int status = columns.index("status");
+        return row -> new BorrowedBookView(
+                row.getInt(id),
+                row.getInt(userId),
+                row.getInt(bookId),
+                row.getString(userName),
+                row.getString(bookTitle),
+                row.getTimestamp(borrowDate),
+                row.getTimestamp(dueDate),
+                row.getTimestamp(returnDate),
+                row.getBigDecimal(fine),
+                BorrowedBookDAO.STATUS.read(row, status));
+    };
+
+    public static final RowMapper<Payment> PAYMENT = rs -> {
+        Rows.Columns columns = Rows.columns(rs);
+        int id = columns.index("id");
+        int userId = columns.index("user_id");
+        int amount = columns.index("amount");
+        int paymentDate = columns.index("payment_date");
+        int method = columns.index("method");
+        int description = columns.index("description");
+        return row -> new Payment(
+                row.getInt(id),
+                row.getInt(userId),
+                row.getBigDecimal(amount),
+                row.getTimestamp(paymentDate),
+                row.getString(method),
+                row.getString(description));
+    };
+
+    public static final RowMapper<UserLedger> USER_LEDGER = rs -> {
+        Rows.Columns columns = Rows.columns(rs);
+        int id = columns.index("id");
+        int finesAssessed = columns.index("fines_assessed");
+        int finesPaid = columns.index("fines_paid");
+        int fineBalance = columns.index("fine_balance");
+        int paymentsTotal = columns.index("payments_total");
+        return row -> new UserLedger(
+                row.getInt(id),
+                row.getBigDecimal(finesAssessed),
+                row.getBigDecimal(finesPaid),
+                row.getBigDecimal(fineBalance),
+                row.getBigDecimal(paymentsTotal));
+    };
+
+    public static final RowMapper<Hold> HOLD = rs -> {
+        Rows.Columns columns = Rows.columns(rs);
+        int id = columns.index("id");
+        int userId = columns.index("user_id");
+        int bookId = columns.index("book_id");
+        int priority = columns.index("priority");
+        int placedAt = columns.index("placed_at");
+        int status = columns.index("status");
+        int readyAt = columns.index("ready_at");
+        int expiresAt = columns.index("expires_at");
+        return row -> new Hold(
+                row.getInt(id),
+                row.getInt(userId),
+                row.getInt(bookId),
+                row.getInt(priority),
+                row.getTimestamp(placedAt),
+                HoldDAO.STATUS.read(row, status),
+                row.getTimestamp(readyAt),
+                row.getTimestamp(expiresAt));
+    };
+}
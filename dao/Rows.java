@@ -0,0 +1,91 @@
+package com.library.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Runs a bound statement through a RowMapper: as a list, as a single row,
+ * or streamed row by row to a callback without building a list.
+ * The statement stays open; the caller closes it with its connection.
+ */
+public final class Rows {
+    private Rows() {
+    }
+
+    public static <T> List<T> list(PreparedStatement pstmt, RowMapper<T> mapper) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        forEach(pstmt, mapper, rows::add);
+        return rows;
+    }
+
+    /**
+     * @return The first row, or null if the query matched nothing
+     */
+    public static <T> T first(PreparedStatement pstmt, RowMapper<T> mapper) throws SQLException {
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? mapper.bind(rs).map(rs) : null;
+        }
+    }
+
+    /**
+     * Maps each row and hands it to the consumer as it is read
+     * @return Number of rows read
+     */
+    public static <T> int forEach(PreparedStatement pstmt, RowMapper<T> mapper,
+                                  Consumer<? super T> consumer) throws SQLException {
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return forEach(rs, mapper, consumer);
+        }
+    }
+
+    public static <T> int forEach(ResultSet rs, RowMapper<T> mapper, Consumer<? super T> consumer) throws SQLException {
+        RowMapper.Row<T> row = null;
+        int count = 0;
+        while (rs.next()) {
+            if (row == null) {
+                row = mapper.bind(rs);
+            }
+            consumer.accept(row.map(rs));
+            count++;
+        }
+        return count;
+    }
+
+    public static Columns columns(ResultSet rs) throws SQLException {
+        return new Columns(rs.getMetaData());
+    }
+
+    /**
+     * Column label to position lookup for one result set, case-insensitive
+     */
+    public static final class Columns {
+        private final Map<String, Integer> positions = new HashMap<>();
+
+        private Columns(ResultSetMetaData metaData) throws SQLException {
+            for (int i = metaData.getColumnCount(); i >= 1; i--) {
+                positions.put(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i); // First of duplicates wins
+            }
+        }
+
+        public int index(String label) throws SQLException {
+            int position = indexIfPresent(label);
+            if (position == 0) {
+                throw new SQLException("Column not in result: " + label);
+            }
+            return position;
+        }
+
+        // 0 if the query didn't select the column
+        public int indexIfPresent(String label) {
+            return positions.getOrDefault(label.toLowerCase(Locale.ROOT), 0);
+        }
+    }
+}
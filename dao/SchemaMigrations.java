@@ -0,0 +1,371 @@
+package com.library.dao;
+
+import com.library.utils.DBConnection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned schema migrations from db/migrations, applied in order at startup
+ * and recorded in schema_version.
+ * <p>
+ * A database set up before versioning is baselined: each migration whose
+ * changes are already present is recorded as applied without running it.
+ * CREATE INDEX statements are skipped when an existing index already leads
+ * with the same columns. After migrating, the indexes the DAO queries rely on
+ * are checked so a missing one is reported instead of silently costing a full scan.
+ * Migrations are not locked against a second instance starting at the same time.
+ */
+public class SchemaMigrations {
+    private static final Logger logger = Logger.getLogger(SchemaMigrations.class.getName());
+    private static final String SCRIPT_DIR = "db/migrations/";
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+            "CREATE\\s+(UNIQUE\\s+)?INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)\\s*\\(([^)]*)\\)", Pattern.CASE_INSENSITIVE);
+
+    @FunctionalInterface
+    private interface Check {
+        boolean test(DatabaseMetaData metaData) throws SQLException;
+    }
+
+    /**
+     * One script, db/migrations/V{version}__{name}.sql
+     */
+    private static class Migration {
+        final int version;
+        final String name;
+        final Check alreadyApplied; // Detects the change on databases that predate versioning
+
+        Migration(int version, String name, Check alreadyApplied) {
+            this.version = version;
+            this.name = name;
+            this.alreadyApplied = alreadyApplied;
+        }
+
+        String script() {
+            return "V" + version + "__" + name + ".sql";
+        }
+    }
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "base_schema", metaData -> hasTable(metaData, "borrowed_books")),
+            new Migration(2, "active_borrows", metaData -> hasColumn(metaData, "users", "active_borrows")),
+            new Migration(3, "fine_accrual", metaData -> hasColumn(metaData, "borrowed_books", "fine_accrued_on")),
+            new Migration(4, "report_stats", metaData -> hasTable(metaData, "monthly_stats")),
+            new Migration(5, "access_path_indexes", metaData -> false),
+            new Migration(6, "user_ledger", metaData -> hasColumn(metaData, "users", "fines_assessed")),
+            new Migration(7, "payment_allocations", metaData -> hasTable(metaData, "payment_allocations")),
+            new Migration(8, "holds", metaData -> hasTable(metaData, "holds"))
+    );
+
+    /**
+     * An index a DAO access path needs: any index on the table leading with these columns
+     */
+    public static class RequiredIndex {
+        final String table;
+        final boolean unique;
+        final List<String> columns;
+
+        RequiredIndex(String table, boolean unique, String... columns) {
+            this.table = table;
+            this.unique = unique;
+            this.columns = List.of(columns);
+        }
+
+        @Override
+        public String toString() {
+            return (unique ? "unique " : "") + table + " " + columns;
+        }
+    }
+
+    private static final List<RequiredIndex> REQUIRED_INDEXES = List.of(
+            new RequiredIndex("borrowed_books", false, "status", "due_date"),
+            new RequiredIndex("borrowed_books", false, "user_id", "status"),
+            new RequiredIndex("borrowed_books", false, "book_id", "status"),
+            new RequiredIndex("borrowed_books", false, "borrow_date", "id"),
+            new RequiredIndex("borrowed_books", false, "status", "borrow_date", "id"),
+            new RequiredIndex("books", false, "available"),
+            new RequiredIndex("books", true, "isbn"),
+            new RequiredIndex("users", true, "email"),
+            new RequiredIndex("payments", false, "user_id", "payment_date"),
+            new RequiredIndex("payment_allocations", false, "borrow_id"),
+            new RequiredIndex("holds", false, "status", "book_id")
+    );
+
+    /**
+     * Brings the schema up to the latest version on a pooled connection
+     * @return Number of migrations run
+     */
+    public static int migrate() throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            return migrate(conn);
+        }
+    }
+
+    public static int migrate(Connection conn) throws SQLException {
+        conn.setAutoCommit(true); // MySQL commits DDL implicitly anyway
+        DatabaseMetaData metaData = conn.getMetaData();
+        boolean versioned = hasTable(metaData, "schema_version");
+        if (!versioned) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE schema_version (" +
+                        "version INT PRIMARY KEY, " +
+                        "script VARCHAR(100) NOT NULL, " +
+                        "checksum BIGINT NULL, " +
+                        "installed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            }
+        }
+
+        Map<Integer, Long> applied = appliedVersions(conn);
+        int ran = 0;
+        for (Migration migration : MIGRATIONS) {
+            String script = readScript(migration.script());
+            long checksum = checksum(script);
+            if (applied.containsKey(migration.version)) {
+                Long recorded = applied.get(migration.version);
+                if (recorded != null && recorded != checksum) {
+                    logger.log(Level.WARNING, migration.script() + " changed after it was applied");
+                }
+                continue;
+            }
+
+            if (!versioned && migration.alreadyApplied.test(metaData)) {
+                record(conn, migration, null);
+                logger.log(Level.INFO, "Baselined existing schema at " + migration.script());
+                continue;
+            }
+
+            long start = System.currentTimeMillis();
+            for (String sql : statements(script)) {
+                if (!indexAlreadyCovered(metaData, sql)) {
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute(sql);
+                    } catch (SQLException e) {
+                        throw new SQLException("Migration " + migration.script() + " failed on: " + sql +
+                                " (" + e.getMessage() + ")", e.getSQLState(), e);
+                    }
+                }
+            }
+            afterMigration(migration);
+            record(conn, migration, checksum);
+            ran++;
+            logger.log(Level.INFO, "Applied " + migration.script() + " in " +
+                    (System.currentTimeMillis() - start) + " ms");
+        }
+        return ran;
+    }
+
+    // Data backfills that need Java rather than SQL
+    private static void afterMigration(Migration migration) throws SQLException {
+        if (migration.version == 4) {
+            ReportStatsDAO.rebuild(); // Rollups start empty; fill them from the existing borrow history
+        }
+    }
+
+    /**
+     * Checks that every index the DAO access paths rely on exists
+     * @return The missing ones, empty if all are in place
+     */
+    public static List<RequiredIndex> verifyIndexes() throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            DatabaseMetaData metaData = conn.getMetaData();
+            Map<String, List<IndexInfo>> byTable = new HashMap<>();
+            List<RequiredIndex> missing = new ArrayList<>();
+            for (RequiredIndex required : REQUIRED_INDEXES) {
+                List<IndexInfo> indexes = byTable.get(required.table);
+                if (indexes == null) {
+                    indexes = indexes(metaData, required.table);
+                    byTable.put(required.table, indexes);
+                }
+                if (!covered(indexes, required.columns, required.unique)) {
+                    missing.add(required);
+                }
+            }
+            for (RequiredIndex index : missing) {
+                logger.log(Level.WARNING, "Missing index on " + index + "; queries using it will scan the table");
+            }
+            return missing;
+        }
+    }
+
+    private static boolean indexAlreadyCovered(DatabaseMetaData metaData, String sql) throws SQLException {
+        Matcher matcher = CREATE_INDEX.matcher(sql);
+        if (!matcher.lookingAt()) {
+            return false;
+        }
+        List<String> columns = new ArrayList<>();
+        for (String column : matcher.group(4).split(",")) {
+            columns.add(column.trim().toLowerCase(Locale.ROOT));
+        }
+        if (covered(indexes(metaData, matcher.group(3)), columns, matcher.group(1) != null)) {
+            logger.log(Level.INFO, "Skipping index " + matcher.group(2) + ", an existing index covers " + columns);
+            return true;
+        }
+        return false;
+    }
+
+    // A unique requirement needs a unique index on exactly those columns
+    private static boolean covered(List<IndexInfo> indexes, List<String> columns, boolean unique) {
+        for (IndexInfo index : indexes) {
+            if (unique) {
+                if (index.unique && index.columns.equals(columns)) {
+                    return true;
+                }
+            } else if (index.columns.size() >= columns.size()
+                    && index.columns.subList(0, columns.size()).equals(columns)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class IndexInfo {
+        boolean unique;
+        final List<String> columns = new ArrayList<>();
+    }
+
+    private static List<IndexInfo> indexes(DatabaseMetaData metaData, String table) throws SQLException {
+        Map<String, TreeMap<Short, String>> columnsByIndex = new HashMap<>();
+        Map<String, Boolean> uniqueByIndex = new HashMap<>();
+        for (String name : tableNameCandidates(table)) {
+            try (ResultSet rs = metaData.getIndexInfo(null, null, name, false, true)) {
+                while (rs.next()) {
+                    String indexName = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (indexName == null || column == null) {
+                        continue; // Table statistics row
+                    }
+                    columnsByIndex.computeIfAbsent(indexName, key -> new TreeMap<>())
+                            .put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                    uniqueByIndex.put(indexName, !rs.getBoolean("NON_UNIQUE"));
+                }
+            }
+            if (!columnsByIndex.isEmpty()) {
+                break;
+            }
+        }
+
+        List<IndexInfo> indexes = new ArrayList<>();
+        for (Map.Entry<String, TreeMap<Short, String>> entry : columnsByIndex.entrySet()) {
+            IndexInfo index = new IndexInfo();
+            index.unique = uniqueByIndex.get(entry.getKey());
+            index.columns.addAll(entry.getValue().values());
+            indexes.add(index);
+        }
+        return indexes;
+    }
+
+    private static boolean hasTable(DatabaseMetaData metaData, String table) throws SQLException {
+        for (String name : tableNameCandidates(table)) {
+            try (ResultSet rs = metaData.getTables(null, null, name, new String[]{"TABLE"})) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasColumn(DatabaseMetaData metaData, String table, String column) throws SQLException {
+        for (String name : tableNameCandidates(table)) {
+            try (ResultSet rs = metaData.getColumns(null, null, name, null)) {
+                while (rs.next()) {
+                    if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Metadata lookups are case-sensitive on some databases, which may store names upper-cased
+    private static String[] tableNameCandidates(String table) {
+        return new String[]{table, table.toUpperCase(Locale.ROOT)};
+    }
+
+    private static Map<Integer, Long> appliedVersions(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                long checksum = rs.getLong(2);
+                applied.put(rs.getInt(1), rs.wasNull() ? null : checksum);
+            }
+        }
+        return applied;
+    }
+
+    private static void record(Connection conn, Migration migration, Long checksum) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO schema_version (version, script, checksum) VALUES (?, ?, ?)")) {
+            pstmt.setInt(1, migration.version);
+            pstmt.setString(2, migration.script());
+            if (checksum != null) {
+                pstmt.setLong(3, checksum);
+            } else {
+                pstmt.setNull(3, Types.BIGINT);
+            }
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Scripts ship on the classpath; running from a source checkout reads them from the working directory
+    private static String readScript(String script) throws SQLException {
+        try (InputStream input = SchemaMigrations.class.getClassLoader().getResourceAsStream(SCRIPT_DIR + script)) {
+            if (input != null) {
+                return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            Path path = Paths.get(SCRIPT_DIR + script);
+            if (Files.exists(path)) {
+                return Files.readString(path, StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            throw new SQLException("Could not read migration " + script + ": " + e.getMessage(), e);
+        }
+        throw new SQLException("Migration script not found: " + SCRIPT_DIR + script);
+    }
+
+    // Statements end with ';' and comments are whole '--' lines
+    private static List<String> statements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\\R")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(current.length() == 0 ? "" : "\n").append(line);
+            if (trimmed.endsWith(";")) {
+                current.setLength(current.length() - (line.length() - line.lastIndexOf(';')));
+                statements.add(current.toString().trim());
+                current.setLength(0);
+            }
+        }
+        if (current.toString().trim().length() > 0) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    private static long checksum(String script) {
+        CRC32 crc = new CRC32();
+        crc.update(script.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
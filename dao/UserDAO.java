@@ -1,12 +1,32 @@
 package com.library.dao;
 
 import com.library.model.User;
+import com.library.utils.BulkInsert;
 import com.library.utils.DBConnection;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
 public class UserDAO {
+    private static final BulkInsert<User> bulkInsert = new BulkInsert<>("users",
+            new String[]{"name", "email", "password", "role", "created_at"},
+            (pstmt, i, user) -> {
+                pstmt.setString(i, user.getName());
+                pstmt.setString(i + 1, user.getEmail());
+                pstmt.setString(i + 2, user.getPassword());
+                pstmt.setString(i + 3, user.getRole());
+                pstmt.setTimestamp(i + 4, user.getCreatedAt());
+            });
+
+    private static final String INSERT_USER_SQL = "INSERT INTO users (name, email, password, role, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_USER_BY_EMAIL_SQL = "SELECT id, name, email, password, role, created_at FROM users WHERE email = ?";
+    private static final String SELECT_USER_BY_ID_SQL = "SELECT id, name, email, password, role, created_at FROM users WHERE id = ?";
+    private static final String USER_EXISTS_SQL = "SELECT COUNT(*) FROM users WHERE email = ?";
+    private static final String SELECT_ALL_USERS_SQL = "SELECT id, name, email, role, created_at FROM users";
+    private static final String UPDATE_USER_SQL = "UPDATE users SET name = ?, email = ?, password = ?, role = ? WHERE id = ?";
+    private static final String DELETE_USER_SQL = "DELETE FROM users WHERE id = ?";
+    private static final String SEARCH_USERS_SQL = "SELECT id, name, email, role, created_at FROM users " +
+            "WHERE name LIKE ? OR email LIKE ?";
 
     // Add a new user to the database
     public static boolean addUser(User user) {
@@ -15,9 +35,8 @@ public class UserDAO {
             return false;
         }
 
-        String query = "INSERT INTO users (name, email, password, role, created_at) VALUES (?, ?, ?, ?, ?)";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_USER_SQL, Statement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setString(1, user.getName());
             pstmt.setString(2, user.getEmail());
@@ -40,25 +59,22 @@ public class UserDAO {
         return false;
     }
 
+    // Bulk-load users with multi-row inserts on the caller's connection and set their generated IDs
+    public static void insertUsers(List<User> users, Connection conn) throws SQLException {
+        int[] ids = new int[users.size()];
+        bulkInsert.insert(conn, users, ids);
+        for (int i = 0; i < ids.length; i++) {
+            users.get(i).setId(ids[i]);
+        }
+    }
+
     // Fetch a user by email
     public static User getUserByEmail(String email) {
-        String query = "SELECT id, name, email, password, role, created_at FROM users WHERE email = ?";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_USER_BY_EMAIL_SQL)) {
 
             pstmt.setString(1, email);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                return new User(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("email"),
-                        rs.getString("password"),
-                        rs.getString("role"),
-                        rs.getTimestamp("created_at")
-                );
-            }
+            return Rows.first(pstmt, RowMappers.USER);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -67,24 +83,15 @@ public class UserDAO {
 
     // Fetch a user by id
     public static User getUserById(int id) {
-        String query = "SELECT id, name, email, password, role, created_at FROM users WHERE id = ?";
-
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_USER_BY_ID_SQL)) {
 
             pstmt.setInt(1, id);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                return new User(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("email"),
-                        rs.getString("password"),
-                        rs.getString("role"),
-                        rs.getTimestamp("created_at") != null ? rs.getTimestamp("created_at") : new Timestamp(System.currentTimeMillis()) // Handle NULL case
-                );
+            User user = Rows.first(pstmt, RowMappers.USER);
+            if (user != null && user.getCreatedAt() == null) {
+                user.setCreatedAt(new Timestamp(System.currentTimeMillis())); // Handle NULL case
             }
+            return user;
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -94,9 +101,8 @@ public class UserDAO {
 
     // Check if a user already exists before adding
     public static boolean userExists(String email) {
-        String query = "SELECT COUNT(*) FROM users WHERE email = ?";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
+             PreparedStatement pstmt = conn.prepareStatement(USER_EXISTS_SQL)) {
             pstmt.setString(1, email);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next() && rs.getInt(1) > 0) {
@@ -111,21 +117,9 @@ public class UserDAO {
     // Fetch all users
     public static List<User> getAllUsers() {
         List<User> users = new ArrayList<>();
-        String query = "SELECT id, name, email, role, created_at FROM users";
         try (Connection conn = DBConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-
-            while (rs.next()) {
-                users.add(new User(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("email"),
-                        "[PROTECTED]", // Avoid returning password
-                        rs.getString("role"),
-                        rs.getTimestamp("created_at")
-                ));
-            }
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_ALL_USERS_SQL)) {
+            Rows.forEach(pstmt, RowMappers.USER, users::add); // Password isn't selected, so it comes back masked
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -134,9 +128,8 @@ public class UserDAO {
 
     // Update user details
     public static boolean updateUser(User user) {
-        String query = "UPDATE users SET name = ?, email = ?, password = ?, role = ? WHERE id = ?";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_USER_SQL)) {
 
             pstmt.setString(1, user.getName());
             pstmt.setString(2, user.getEmail());
@@ -153,9 +146,8 @@ public class UserDAO {
 
     // Delete user by ID
     public static boolean deleteUser(int userId) {
-        String query = "DELETE FROM users WHERE id = ?";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
+             PreparedStatement pstmt = conn.prepareStatement(DELETE_USER_SQL)) {
 
             pstmt.setInt(1, userId);
             return pstmt.executeUpdate() > 0;
@@ -168,30 +160,14 @@ public class UserDAO {
     // Search users by a query (e.g., name or email)
     public static List<User> searchUsers(String query) {
         List<User> users = new ArrayList<>();
-        String sql = "SELECT id, name, email, role, created_at FROM users " +
-                "WHERE name LIKE ? OR email LIKE ?";
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SEARCH_USERS_SQL)) {
 
             // Prepare the search query with wildcard patterns
             String searchPattern = "%" + query + "%";
             pstmt.setString(1, searchPattern);
             pstmt.setString(2, searchPattern);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    // Create User object and populate it with database values
-                    User user = new User(
-                            rs.getInt("id"),
-                            rs.getString("name"),
-                            rs.getString("email"),
-                            rs.getString("password"),
-                            rs.getString("role"),
-                            rs.getTimestamp("created_at")
-                    );
-                    users.add(user); // Add the user to the result list
-                }
-            }
+            Rows.forEach(pstmt, RowMappers.USER, users::add);
         } catch (SQLException e) {
             e.printStackTrace();
         }
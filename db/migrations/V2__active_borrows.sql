@@ -0,0 +1,8 @@
+-- Per-user count of open borrows, claimed and released by BorrowedBookDAO
+-- with conditional updates so MAX_BORROW_LIMIT holds under concurrent checkouts.
+ALTER TABLE users ADD COLUMN active_borrows INT NOT NULL DEFAULT 0;
+
+-- Backfill from existing borrow records
+UPDATE users u
+SET active_borrows = (SELECT COUNT(*) FROM borrowed_books bb
+                      WHERE bb.user_id = u.id AND bb.status = 'borrowed');
@@ -0,0 +1,11 @@
+-- Daily fine accrual: the day each open borrow's fine was last brought up to date,
+-- and each user's running outstanding balance, maintained by FineDAO and BorrowedBookDAO.
+ALTER TABLE borrowed_books ADD COLUMN fine_accrued_on DATE NULL;
+ALTER TABLE users ADD COLUMN fine_balance DECIMAL(10, 2) NOT NULL DEFAULT 0.00;
+
+-- The accrual and the overdue screens read open rows by due date
+CREATE INDEX idx_borrowed_books_status_due ON borrowed_books (status, due_date);
+
+-- Backfill balances from the unpaid fines on record
+UPDATE users u
+SET fine_balance = (SELECT COALESCE(SUM(bb.fine), 0) FROM borrowed_books bb WHERE bb.user_id = u.id);
@@ -0,0 +1,27 @@
+-- Report rollups maintained by ReportStatsDAO from the borrow, return,
+-- fine accrual and fine payment paths. Backfill after creating them with:
+--   java com.library.tools.RebuildReportStats
+CREATE TABLE book_stats (
+    book_id INT PRIMARY KEY,
+    times_borrowed INT NOT NULL DEFAULT 0,
+    INDEX idx_book_stats_times_borrowed (times_borrowed),
+    FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE
+);
+
+CREATE TABLE user_stats (
+    user_id INT PRIMARY KEY,
+    total_borrowed INT NOT NULL DEFAULT 0,
+    books_returned INT NOT NULL DEFAULT 0,
+    overdue_books INT NOT NULL DEFAULT 0,
+    INDEX idx_user_stats_total_borrowed (total_borrowed),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Keyed by borrow month (yyyy-MM), like the report always grouped it
+CREATE TABLE monthly_stats (
+    month CHAR(7) PRIMARY KEY,
+    books_borrowed INT NOT NULL DEFAULT 0,
+    books_returned INT NOT NULL DEFAULT 0,
+    overdue_books INT NOT NULL DEFAULT 0,
+    total_fines DECIMAL(12, 2) NOT NULL DEFAULT 0.00
+);
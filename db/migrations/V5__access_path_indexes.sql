@@ -0,0 +1,23 @@
+-- Indexes for the predicates the DAOs filter and sort on. SchemaMigrations skips
+-- any index whose columns an existing index already leads with, and checks the
+-- full set at every startup.
+
+-- A user's open borrows, and the borrow limit checks
+CREATE INDEX idx_borrowed_books_user_status ON borrowed_books (user_id, status);
+
+-- Open borrows of a book, for availability backfills
+CREATE INDEX idx_borrowed_books_book_status ON borrowed_books (book_id, status);
+
+-- Transaction history pages, newest first, unfiltered and by status
+CREATE INDEX idx_borrowed_books_borrow_date ON borrowed_books (borrow_date, id);
+CREATE INDEX idx_borrowed_books_status_borrow_date ON borrowed_books (status, borrow_date, id);
+
+-- Books on the shelf
+CREATE INDEX idx_books_available ON books (available);
+
+-- Lookups by ISBN and email; creating these fails if duplicates are already on record
+CREATE UNIQUE INDEX uk_books_isbn ON books (isbn);
+CREATE UNIQUE INDEX uk_users_email ON users (email);
+
+-- A user's payment history and totals
+CREATE INDEX idx_payments_user_date ON payments (user_id, payment_date);
@@ -0,0 +1,14 @@
+-- Per-user fine ledger next to users.fine_balance (the outstanding amount):
+-- fines ever assessed, fines cleared by payment, and all payments received.
+-- Maintained in the same transactions as fine_balance by FineDAO, BorrowedBookDAO
+-- and PaymentDAO; LedgerDAO.reconcile checks them against the raw tables.
+ALTER TABLE users ADD COLUMN fines_assessed DECIMAL(12, 2) NOT NULL DEFAULT 0.00;
+ALTER TABLE users ADD COLUMN fines_paid DECIMAL(12, 2) NOT NULL DEFAULT 0.00;
+ALTER TABLE users ADD COLUMN payments_total DECIMAL(12, 2) NOT NULL DEFAULT 0.00;
+
+-- Fines cleared before the ledger existed are not on record, so the history
+-- starts as assessed = outstanding with nothing paid
+UPDATE users u
+SET fine_balance = (SELECT COALESCE(SUM(bb.fine), 0) FROM borrowed_books bb WHERE bb.user_id = u.id),
+    fines_assessed = (SELECT COALESCE(SUM(bb.fine), 0) FROM borrowed_books bb WHERE bb.user_id = u.id),
+    payments_total = (SELECT COALESCE(SUM(p.amount), 0) FROM payments p WHERE p.user_id = u.id);
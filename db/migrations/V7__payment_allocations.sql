@@ -0,0 +1,12 @@
+-- How a payment was split across the fines it settled, one line per borrow record.
+-- Written by PaymentDAO.settleFines, which clears a patron's fines under one payment.
+CREATE TABLE payment_allocations (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    payment_id INT NOT NULL,
+    borrow_id INT NOT NULL,
+    amount DECIMAL(10, 2) NOT NULL,
+    FOREIGN KEY (payment_id) REFERENCES payments(id),
+    FOREIGN KEY (borrow_id) REFERENCES borrowed_books(id)
+);
+
+CREATE INDEX idx_payment_allocations_borrow ON payment_allocations (borrow_id);
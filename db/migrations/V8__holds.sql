@@ -0,0 +1,20 @@
+-- Hold queue: patrons waiting for a copy of a book. HoldDAO keeps the waiting
+-- and ready holds in memory, ordered per book, and writes every change here.
+-- A returned copy goes to the next eligible waiting patron and stays off the
+-- shelf as 'ready' until picked up or expired.
+CREATE TABLE holds (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    user_id INT NOT NULL,
+    book_id INT NOT NULL,
+    priority INT NOT NULL DEFAULT 0,
+    placed_at TIMESTAMP NOT NULL,
+    status VARCHAR(10) NOT NULL DEFAULT 'waiting',
+    ready_at TIMESTAMP NULL,
+    expires_at TIMESTAMP NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id),
+    FOREIGN KEY (book_id) REFERENCES books(id)
+);
+
+-- Startup loads the open holds; patron screens list their own
+CREATE INDEX idx_holds_status_book ON holds (status, book_id);
+CREATE INDEX idx_holds_user_status ON holds (user_id, status);
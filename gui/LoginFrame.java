@@ -1,6 +1,8 @@
 package com.library.gui;
 
+import com.library.utils.AsyncDB;
 import com.library.utils.DBConnection;
+import com.library.model.User;
 import com.library.model.UserSession;
 import com.library.gui.admin.AdminDashboard;
 
@@ -109,49 +111,36 @@ public class LoginFrame extends JFrame {
                     return;
                 }
 
-                try (Connection conn = DBConnection.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(
-                             "SELECT id, name, role, password FROM users WHERE email = ?")) {
-
-                    stmt.setString(1, email);
-                    ResultSet rs = stmt.executeQuery();
-
-                    if (rs.next()) {
-                        String storedHash = rs.getString("password");
-                        String inputHash = hashPassword(password);
-
-                        // Compare the hashed passwords
-                        if (inputHash.equals(storedHash)) {
-                            int userId = rs.getInt("id");
-                            String userName = rs.getString("name");
-                            String userRole = rs.getString("role");
-
-                            UserSession.setUser(userId, userName);
-                            JOptionPane.showMessageDialog(LoginFrame.this,
-                                    "Login successful!", "Success",
-                                    JOptionPane.INFORMATION_MESSAGE);
-                            dispose();
-
-                            if (userRole != null && userRole.equalsIgnoreCase("admin")) {
-                                new AdminDashboard().setVisible(true);
-                            } else {
-                                System.out.println("Only Admin can login through here");
-                            }
+                // The lookup and hashing run off the EDT; null means the credentials didn't match
+                loginButton.setEnabled(false);
+                setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+                AsyncDB.onEdt(AsyncDB.supply(() -> checkCredentials(email, password)), user -> {
+                    loginButton.setEnabled(true);
+                    setCursor(null);
+                    if (user != null) {
+                        UserSession.setUser(user.getId(), user.getName());
+                        JOptionPane.showMessageDialog(LoginFrame.this,
+                                "Login successful!", "Success",
+                                JOptionPane.INFORMATION_MESSAGE);
+                        dispose();
+
+                        if (user.getRole() != null && user.getRole().equalsIgnoreCase("admin")) {
+                            new AdminDashboard().setVisible(true);
                         } else {
-                            JOptionPane.showMessageDialog(LoginFrame.this,
-                                    "Invalid email or password!",
-                                    "Login Failed", JOptionPane.ERROR_MESSAGE);
+                            System.out.println("Only Admin can login through here");
                         }
                     } else {
                         JOptionPane.showMessageDialog(LoginFrame.this,
                                 "Invalid email or password!",
                                 "Login Failed", JOptionPane.ERROR_MESSAGE);
                     }
-                } catch (SQLException ex) {
+                }, ex -> {
+                    loginButton.setEnabled(true);
+                    setCursor(null);
                     JOptionPane.showMessageDialog(LoginFrame.this,
                             "Database error: " + ex.getMessage(),
                             "Error", JOptionPane.ERROR_MESSAGE);
-                }
+                });
             }
         });
 
@@ -202,6 +191,27 @@ public class LoginFrame extends JFrame {
         });
     }
 
+    /**
+     * Looks up the user by email and checks the password against the stored hash
+     * @return The user if the credentials match, null otherwise
+     */
+    private User checkCredentials(String email, String password) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT id, name, role, password FROM users WHERE email = ?")) {
+
+            stmt.setString(1, email);
+            try (ResultSet rs = stmt.executeQuery()) {
+                // Compare the hashed passwords
+                if (rs.next() && hashPassword(password).equals(rs.getString("password"))) {
+                    return new User(rs.getInt("id"), rs.getString("name"), email,
+                            rs.getString("password"), rs.getString("role"), null);
+                }
+            }
+        }
+        return null;
+    }
+
     // Method to hash password using SHA-256
     private String hashPassword(String password) {
         try {
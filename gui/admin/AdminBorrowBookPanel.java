@@ -1,11 +1,14 @@
 package com.library.gui.admin;
 
 import com.library.dao.BookDAO;
+import com.library.dao.BookSearchIndex;
 import com.library.dao.BorrowedBookDAO;
+import com.library.dao.HoldDAO;
+import com.library.dao.QueryControl;
 import com.library.dao.UserDAO;
 import com.library.model.Book;
 import com.library.model.User;
-import com.library.utils.DBConnection;
+import com.library.utils.AsyncDB;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -14,15 +17,22 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.sql.*;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
-public class AdminBorrowBookPanel extends JPanel {
+public class AdminBorrowBookPanel extends JPanel implements DashboardPanel {
     private JTable bookTable;
     private DefaultTableModel tableModel;
     private JButton borrowButton, refreshButton;
     private JTextField searchField, userIdField;
     private JLabel statusLabel;
     private static final int BORROW_DURATION_DAYS = 14;
+    private int loadRequest;
 
     public AdminBorrowBookPanel() {
         setLayout(new BorderLayout());
@@ -60,6 +70,7 @@ public class AdminBorrowBookPanel extends JPanel {
         // Table Setup
         tableModel = new DefaultTableModel(new String[]{"Book ID", "Title", "Author", "Availability"}, 0);
         bookTable = new JTable(tableModel);
+        bookTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         add(new JScrollPane(bookTable), BorderLayout.CENTER);
 
         // Button Panel
@@ -67,68 +78,101 @@ public class AdminBorrowBookPanel extends JPanel {
         borrowButton = new JButton("📖 Borrow Selected Book");
         borrowButton.addActionListener(new BorrowBookAction());
         refreshButton = new JButton("🔄 Refresh");
-        refreshButton.addActionListener(e -> loadAvailableBooks());
+        refreshButton.addActionListener(e -> loadBooks());
         statusLabel = new JLabel("", SwingConstants.CENTER);
 
         buttonPanel.add(borrowButton);
         buttonPanel.add(refreshButton);
         buttonPanel.add(statusLabel);
         add(buttonPanel, BorderLayout.SOUTH);
+    }
 
-        loadAvailableBooks();
+    @Override
+    public void refresh() {
+        loadBooks();
     }
 
-    private void loadAvailableBooks() {
+    @Override
+    public void release() {
         tableModel.setRowCount(0);
-        try (Connection conn = DBConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(
-                     "SELECT id, title, author, available FROM books WHERE available > 0")) {
-
-            while (rs.next()) {
-                tableModel.addRow(new Object[]{
-                        rs.getInt("id"),
-                        rs.getString("title"),
-                        rs.getString("author"),
-                        rs.getInt("available") > 0 ? "Available" : "Unavailable"
-                });
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this,
-                    "Error loading books: " + e.getMessage(),
-                    "Database Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+    }
+
+    // Lists every book, so copies set aside for a patron and books to place holds on can be picked too
+    private void loadBooks() {
+        int request = ++loadRequest;
+        setBusy("Loading books...");
+        AsyncDB.onEdt(AsyncDB.supply(() -> {
+            Set<Integer> held = HoldDAO.booksWithReadyHolds();
+            List<Object[]> rows = new ArrayList<>();
+            BookDAO.forEachBook(book -> rows.add(toRow(book, held)));
+            return rows;
+        }), rows -> showBooks(request, rows), e -> showError(request, "Error loading books: ", e));
     }
 
     private void searchBooks() {
         String keyword = searchField.getText().trim();
-        tableModel.setRowCount(0);
         if (keyword.isEmpty()) {
-            loadAvailableBooks();
+            loadBooks();
             return;
         }
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT id, title, author, available FROM books " +
-                             "WHERE (title LIKE ? OR author LIKE ?) AND available > 0")) {
-            stmt.setString(1, "%" + keyword + "%");
-            stmt.setString(2, "%" + keyword + "%");
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                tableModel.addRow(new Object[]{
-                        rs.getInt("id"),
-                        rs.getString("title"),
-                        rs.getString("author"),
-                        rs.getInt("available") > 0 ? "Available" : "Unavailable"
-                });
+        int request = ++loadRequest;
+        setBusy("Searching...");
+        AsyncDB.onEdt(AsyncDB.supply(() -> {
+            Set<Integer> held = HoldDAO.booksWithReadyHolds();
+            List<Object[]> rows = new ArrayList<>();
+            for (Book book : BookDAO.searchBooks(keyword,
+                    EnumSet.of(BookSearchIndex.Field.TITLE, BookSearchIndex.Field.AUTHOR), null, QueryControl.NONE)) {
+                rows.add(toRow(book, held));
+            }
+            return rows;
+        }), rows -> {
+            showBooks(request, rows);
+            if (request == loadRequest && rows.size() >= BookDAO.SEARCH_LIMIT) {
+                statusLabel.setText("Showing the first " + BookDAO.SEARCH_LIMIT + " matches");
             }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this,
-                    "Error searching books: " + e.getMessage(),
-                    "Database Error",
-                    JOptionPane.ERROR_MESSAGE);
+        }, e -> showError(request, "Error searching books: ", e));
+    }
+
+    private static Object[] toRow(Book book, Set<Integer> held) {
+        String availability;
+        if (book.getAvailable() > 0) {
+            availability = "Available";
+        } else if (held.contains(book.getBookId())) {
+            availability = "Held for pickup"; // Only the patron it is held for can borrow it
+        } else {
+            availability = "Unavailable - place hold";
         }
+        return new Object[]{book.getBookId(), book.getTitle(), book.getAuthor(), availability};
+    }
+
+    // Only the latest load or search fills the table
+    private void showBooks(int request, List<Object[]> rows) {
+        if (request != loadRequest) {
+            return;
+        }
+        setBusy(null);
+        tableModel.setRowCount(0);
+        for (Object[] row : rows) {
+            tableModel.addRow(row);
+        }
+    }
+
+    private void showError(int request, String message, Throwable e) {
+        if (request != loadRequest) {
+            return;
+        }
+        setBusy(null);
+        JOptionPane.showMessageDialog(this,
+                message + e.getMessage(),
+                "Database Error",
+                JOptionPane.ERROR_MESSAGE);
+    }
+
+    // Shows a loading message and wait cursor, or clears them when message is null
+    private void setBusy(String message) {
+        statusLabel.setText(message != null ? message : "");
+        setCursor(message != null ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+        borrowButton.setEnabled(message == null);
     }
 
     private class BorrowBookAction implements ActionListener {
@@ -150,42 +194,165 @@ public class AdminBorrowBookPanel extends JPanel {
                 return;
             }
 
+            // A stack of books goes through the batch checkout
+            if (bookTable.getSelectedRowCount() > 1) {
+                borrowSelectedBooks(userIdText);
+                return;
+            }
+
+            int userId;
             try {
-                int userId = Integer.parseInt(userIdText);
-                User user = UserDAO.getUserById(userId);
-                if (user == null) {
-                    JOptionPane.showMessageDialog(null, "User not found!", "Error", JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
-
-                Book book = BookDAO.getBookById(bookId);
-                if (book == null || book.getAvailable() <= 0) {
-                    JOptionPane.showMessageDialog(null, "Book not available!", "Error", JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
-                Timestamp borrowDate = new Timestamp(System.currentTimeMillis());
-                Timestamp dueDate = Timestamp.valueOf(LocalDate.now().plusDays(BORROW_DURATION_DAYS).atStartOfDay());
-
-                int confirm = JOptionPane.showConfirmDialog(null,
-                        "Borrow '" + bookTitle + "' for user " + user.getName() + " until " + dueDate + "?",
-                        "Confirm Borrow", JOptionPane.YES_NO_OPTION);
-
-                if (confirm == JOptionPane.YES_OPTION) {
-                    boolean success = BorrowedBookDAO.borrowBook(userId, bookId, borrowDate, dueDate);
+                userId = Integer.parseInt(userIdText);
+            } catch (NumberFormatException ex) {
+                statusLabel.setText("Invalid User ID. Must be a number.");
+                return;
+            }
+
+            setBusy("Checking user and book...");
+            CompletableFuture<User> userLookup = AsyncDB.supply(() -> UserDAO.getUserById(userId));
+            CompletableFuture<Book> bookLookup = AsyncDB.supply(() -> BookDAO.getBookById(bookId));
+            AsyncDB.onEdt(CompletableFuture.allOf(userLookup, bookLookup),
+                    done -> confirmBorrow(userLookup.join(), bookLookup.join(), bookTitle),
+                    error -> showActionError("Error checking the borrow: ", error));
+        }
+    }
+
+    private void confirmBorrow(User user, Book book, String bookTitle) {
+        setBusy(null);
+        if (user == null) {
+            JOptionPane.showMessageDialog(null, "User not found!", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (book == null) {
+            JOptionPane.showMessageDialog(null, "Book not available!", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        // A copy held for this user counts even when none are on the shelf
+        if (book.getAvailable() <= 0 && !HoldDAO.hasReadyHold(user.getId(), book.getBookId())) {
+            offerHold(user, book.getBookId(), bookTitle);
+            return;
+        }
+        Timestamp borrowDate = new Timestamp(System.currentTimeMillis());
+        Timestamp dueDate = Timestamp.valueOf(LocalDate.now().plusDays(BORROW_DURATION_DAYS).atStartOfDay());
+
+        int confirm = JOptionPane.showConfirmDialog(null,
+                "Borrow '" + bookTitle + "' for user " + user.getName() + " until " + dueDate + "?",
+                "Confirm Borrow", JOptionPane.YES_NO_OPTION);
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        setBusy("Borrowing...");
+        AsyncDB.onEdt(AsyncDB.supply(() -> BorrowedBookDAO.borrowBook(user.getId(), book.getBookId(), borrowDate, dueDate)),
+                success -> {
+                    setBusy(null);
                     if (success) {
                         JOptionPane.showMessageDialog(null,
                                 "Book borrowed successfully! Due Date: " + dueDate,
                                 "Success", JOptionPane.INFORMATION_MESSAGE);
-                        loadAvailableBooks();
+                        loadBooks();
                     } else {
                         JOptionPane.showMessageDialog(null,
                                 "Failed to borrow book. It may no longer be available.",
                                 "Error", JOptionPane.ERROR_MESSAGE);
                     }
-                }
-            } catch (NumberFormatException ex) {
-                statusLabel.setText("Invalid User ID. Must be a number.");
-            }
+                },
+                error -> showActionError("Error borrowing book: ", error));
+    }
+
+    private void offerHold(User user, int bookId, String bookTitle) {
+        int confirm = JOptionPane.showConfirmDialog(null,
+                "'" + bookTitle + "' has no copies available.\nPlace a hold for user " + user.getName() + "?",
+                "Book Not Available", JOptionPane.YES_NO_OPTION);
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        setBusy("Placing hold...");
+        AsyncDB.onEdt(AsyncDB.supply(() -> {
+                    HoldDAO.placeHold(user.getId(), bookId, 0);
+                    return HoldDAO.getQueue(bookId).size();
+                }),
+                waiting -> {
+                    setBusy(null);
+                    JOptionPane.showMessageDialog(null,
+                            "Hold placed. Patrons waiting for this book: " + waiting,
+                            "Hold Placed", JOptionPane.INFORMATION_MESSAGE);
+                },
+                error -> showActionError("Error placing hold: ", error));
+    }
+
+    private void borrowSelectedBooks(String userIdText) {
+        int userId;
+        try {
+            userId = Integer.parseInt(userIdText);
+        } catch (NumberFormatException ex) {
+            statusLabel.setText("Invalid User ID. Must be a number.");
+            return;
+        }
+
+        List<Integer> bookIds = new ArrayList<>();
+        Map<Integer, String> titles = new HashMap<>();
+        for (int row : bookTable.getSelectedRows()) {
+            int bookId = (int) tableModel.getValueAt(row, 0);
+            bookIds.add(bookId);
+            titles.put(bookId, (String) tableModel.getValueAt(row, 1));
         }
+
+        setBusy("Checking user...");
+        AsyncDB.onEdt(AsyncDB.supply(() -> UserDAO.getUserById(userId)),
+                user -> confirmBorrowSelected(user, bookIds, titles),
+                error -> showActionError("Error checking the borrow: ", error));
+    }
+
+    private void confirmBorrowSelected(User user, List<Integer> bookIds, Map<Integer, String> titles) {
+        setBusy(null);
+        if (user == null) {
+            JOptionPane.showMessageDialog(null, "User not found!", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        Timestamp borrowDate = new Timestamp(System.currentTimeMillis());
+        Timestamp dueDate = Timestamp.valueOf(LocalDate.now().plusDays(BORROW_DURATION_DAYS).atStartOfDay());
+
+        int confirm = JOptionPane.showConfirmDialog(null,
+                "Borrow " + bookIds.size() + " books for user " + user.getName() + " until " + dueDate + "?",
+                "Confirm Borrow", JOptionPane.YES_NO_OPTION);
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        setBusy("Borrowing " + bookIds.size() + " books...");
+        AsyncDB.onEdt(AsyncDB.supply(() -> BorrowedBookDAO.borrowBooks(user.getId(), bookIds, borrowDate, dueDate)),
+                results -> {
+                    setBusy(null);
+                    StringBuilder summary = new StringBuilder();
+                    int borrowed = 0;
+                    for (BorrowedBookDAO.BatchResult result : results) {
+                        if (result.isSuccess()) {
+                            borrowed++;
+                        }
+                        summary.append(result.isSuccess() ? "✅ " : "❌ ")
+                                .append(titles.get(result.getItemId()))
+                                .append(" - ")
+                                .append(result.getMessage())
+                                .append("\n");
+                    }
+
+                    JOptionPane.showMessageDialog(null,
+                            borrowed + " of " + results.size() + " books borrowed. Due Date: " + dueDate + "\n\n" + summary,
+                            "Borrow Result",
+                            borrowed == results.size() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+                    loadBooks();
+                },
+                error -> showActionError("Error borrowing books: ", error));
+    }
+
+    private void showActionError(String message, Throwable e) {
+        setBusy(null);
+        JOptionPane.showMessageDialog(this,
+                message + e.getMessage(),
+                "Database Error",
+                JOptionPane.ERROR_MESSAGE);
     }
-}
\ No newline at end of file
+}
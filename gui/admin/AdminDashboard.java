@@ -4,11 +4,26 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
 
 public class AdminDashboard extends JFrame {
+    private static final int STALE_AFTER_MILLIS = 60_000; // Shown cards reload data older than this
+    private static final int RELEASE_AFTER_MILLIS = 5 * 60_000; // Hidden cards drop their data after this
     private CardLayout cardLayout;
     private JPanel contentPanel;
 
+    // Cards are built on first show; loadedAt holds only cards that currently have data
+    private final Map<String, Supplier<JPanel>> panelFactories = new LinkedHashMap<>();
+    private final Map<String, JPanel> panels = new HashMap<>();
+    private final Map<String, Long> loadedAt = new HashMap<>();
+    private final Map<String, Long> hiddenSince = new HashMap<>();
+    private String currentCard;
+    private final Timer releaseTimer = new Timer(60_000, e -> releaseIdlePanels());
+
     public AdminDashboard() {
         setTitle("Admin Dashboard");
         setSize(1100, 700); // Slightly larger window
@@ -32,15 +47,15 @@ public class AdminDashboard extends JFrame {
         contentPanel.setBackground(new Color(255, 255, 255)); // White content area
         contentPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20)); // Add padding
 
-        // Adding Panels
-        contentPanel.add(new BookManagementPanel(), "Manage Books");
-        contentPanel.add(new UserManagementPanel(), "Manage Users");
-        contentPanel.add(new TransactionsPanel(), "View Transactions");
-        contentPanel.add(new OverdueBooksPanel(), "View Overdue Books");
-        contentPanel.add(new ReportsPanel(), "Reports");
-        contentPanel.add(new FineManagementPanel(), "Fine Management");
-        contentPanel.add(new AdminBorrowBookPanel(), "Borrow Book");
-        contentPanel.add(new AdminReturnBookPanel(), "Return Book");
+        // Panels are created when their card is first shown
+        panelFactories.put("Manage Books", BookManagementPanel::new);
+        panelFactories.put("Manage Users", UserManagementPanel::new);
+        panelFactories.put("View Transactions", TransactionsPanel::new);
+        panelFactories.put("View Overdue Books", OverdueBooksPanel::new);
+        panelFactories.put("Reports", ReportsPanel::new);
+        panelFactories.put("Fine Management", FineManagementPanel::new);
+        panelFactories.put("Borrow Book", AdminBorrowBookPanel::new);
+        panelFactories.put("Return Book", AdminReturnBookPanel::new);
 
         // Sidebar Buttons
         String[] buttons = {
@@ -96,7 +111,7 @@ public class AdminDashboard extends JFrame {
                     if (text.equals("Logout")) {
                         dispose(); // Close the window on logout
                     } else {
-                        cardLayout.show(contentPanel, text);
+                        showCard(text);
                     }
                 }
             });
@@ -105,6 +120,55 @@ public class AdminDashboard extends JFrame {
         mainPanel.add(sidebar, BorderLayout.WEST);
         mainPanel.add(contentPanel, BorderLayout.CENTER);
         add(mainPanel);
+
+        showCard("Manage Books");
+        releaseTimer.start();
+    }
+
+    /**
+     * Shows a card, building its panel on first use and reloading its data
+     * if it has none or it is older than STALE_AFTER_MILLIS
+     */
+    private void showCard(String name) {
+        long now = System.currentTimeMillis();
+        JPanel panel = panels.get(name);
+        if (panel == null) {
+            panel = panelFactories.get(name).get();
+            panels.put(name, panel);
+            contentPanel.add(panel, name);
+        }
+        if (currentCard != null && !currentCard.equals(name)) {
+            hiddenSince.put(currentCard, now);
+        }
+        hiddenSince.remove(name);
+        currentCard = name;
+        cardLayout.show(contentPanel, name);
+
+        Long loaded = loadedAt.get(name);
+        if (loaded == null || now - loaded > STALE_AFTER_MILLIS) {
+            ((DashboardPanel) panel).refresh();
+            loadedAt.put(name, now);
+        }
+    }
+
+    // Lets panels that have been hidden for a while drop their rows
+    private void releaseIdlePanels() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Long>> it = hiddenSince.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> entry = it.next();
+            if (now - entry.getValue() > RELEASE_AFTER_MILLIS) {
+                ((DashboardPanel) panels.get(entry.getKey())).release();
+                loadedAt.remove(entry.getKey());
+                it.remove();
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        releaseTimer.stop();
+        super.dispose();
     }
 
     public static void main(String[] args) {
@@ -2,9 +2,9 @@ package com.library.gui.admin;
 
 import com.library.dao.BorrowedBookDAO;
 import com.library.dao.UserDAO;
-import com.library.model.BorrowedBook;
+import com.library.model.BorrowedBookView;
 import com.library.model.User;
-import com.library.utils.DBConnection;
+import com.library.utils.AsyncDB;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -14,14 +14,19 @@ import java.awt.event.ActionListener;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
-public class AdminReturnBookPanel extends JPanel {
+public class AdminReturnBookPanel extends JPanel implements DashboardPanel {
     private JTable borrowedBooksTable;
     private DefaultTableModel tableModel;
     private JButton returnButton, refreshButton;
     private JTextField userIdField;
     private JLabel statusLabel;
+    private int loadRequest;
 
     public AdminReturnBookPanel() {
         setLayout(new BorderLayout(10, 10));
@@ -53,7 +58,7 @@ public class AdminReturnBookPanel extends JPanel {
             }
         };
         borrowedBooksTable = new JTable(tableModel);
-        borrowedBooksTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        borrowedBooksTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         add(new JScrollPane(borrowedBooksTable), BorderLayout.CENTER);
 
         // Button Panel
@@ -68,11 +73,20 @@ public class AdminReturnBookPanel extends JPanel {
         buttonPanel.add(refreshButton);
         buttonPanel.add(statusLabel);
         add(buttonPanel, BorderLayout.SOUTH);
+    }
 
+    @Override
+    public void refresh() {
         loadBorrowedBooks();
     }
 
+    @Override
+    public void release() {
+        tableModel.setRowCount(0);
+    }
+
     private void loadBorrowedBooks() {
+        int request = ++loadRequest;
         tableModel.setRowCount(0);
         String userIdText = userIdField.getText().trim();
 
@@ -81,16 +95,31 @@ public class AdminReturnBookPanel extends JPanel {
             return;
         }
 
+        int userId;
         try {
-            int userId = Integer.parseInt(userIdText);
-            User user = UserDAO.getUserById(userId);
+            userId = Integer.parseInt(userIdText);
+        } catch (NumberFormatException e) {
+            statusLabel.setText("Invalid User ID. Must be a number.");
+            return;
+        }
+
+        setBusy("Loading borrowed books...");
+        CompletableFuture<User> userLookup = AsyncDB.supply(() -> UserDAO.getUserById(userId));
+        CompletableFuture<List<BorrowedBookView>> borrowedLookup =
+                AsyncDB.supply(() -> BorrowedBookDAO.getUserBorrowedBooks(userId));
+        AsyncDB.onEdt(CompletableFuture.allOf(userLookup, borrowedLookup), done -> {
+            if (request != loadRequest) {
+                return; // A newer search replaced this one
+            }
+            setBusy(null);
+            User user = userLookup.join();
             if (user == null) {
                 statusLabel.setText("User not found!");
                 return;
             }
 
-            List<BorrowedBook> borrowedBooks = BorrowedBookDAO.getUserBorrowedBooks(userId);
-            for (BorrowedBook book : borrowedBooks) {
+            List<BorrowedBookView> borrowedBooks = borrowedLookup.join();
+            for (BorrowedBookView book : borrowedBooks) {
                 tableModel.addRow(new Object[]{
                         book.getId(),
                         book.getBookTitle(),
@@ -101,14 +130,26 @@ public class AdminReturnBookPanel extends JPanel {
                 });
             }
             statusLabel.setText("Found " + borrowedBooks.size() + " borrowed books for user: " + user.getName());
-        } catch (NumberFormatException e) {
-            statusLabel.setText("Invalid User ID. Must be a number.");
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this,
-                    "Error loading borrowed books: " + e.getMessage(),
-                    "Database Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        }, error -> {
+            if (request == loadRequest) {
+                showError("Error loading borrowed books: ", error);
+            }
+        });
+    }
+
+    // Shows a loading message and wait cursor, or clears them when message is null
+    private void setBusy(String message) {
+        statusLabel.setText(message != null ? message : "");
+        setCursor(message != null ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+        returnButton.setEnabled(message == null);
+    }
+
+    private void showError(String message, Throwable e) {
+        setBusy(null);
+        JOptionPane.showMessageDialog(this,
+                message + e.getMessage(),
+                "Database Error",
+                JOptionPane.ERROR_MESSAGE);
     }
 
     private class ReturnBookAction implements ActionListener {
@@ -120,6 +161,12 @@ public class AdminReturnBookPanel extends JPanel {
                 return;
             }
 
+            // A stack of books goes through the batch return
+            if (borrowedBooksTable.getSelectedRowCount() > 1) {
+                returnSelectedBooks();
+                return;
+            }
+
             int borrowId = (int) tableModel.getValueAt(selectedRow, 0);
             String bookTitle = (String) tableModel.getValueAt(selectedRow, 1);
             String fineAmount = (String) tableModel.getValueAt(selectedRow, 5);
@@ -136,21 +183,64 @@ public class AdminReturnBookPanel extends JPanel {
                 Date returnDate = new Date(System.currentTimeMillis());
 
                 // Update the borrowed book record with return date
-                boolean success = BorrowedBookDAO.returnBook(borrowId);
-
-                if (success) {
-                    JOptionPane.showMessageDialog(null,
-                            "Book returned successfully on " + returnDate +
-                                    (fine.compareTo(BigDecimal.ZERO) > 0 ?
-                                            "\nFine of " + fineAmount + " recorded." : ""),
-                            "Success", JOptionPane.INFORMATION_MESSAGE);
-                    loadBorrowedBooks();
-                } else {
-                    JOptionPane.showMessageDialog(null,
-                            "Failed to return book.",
-                            "Error", JOptionPane.ERROR_MESSAGE);
-                }
+                setBusy("Returning...");
+                AsyncDB.onEdt(AsyncDB.supply(() -> BorrowedBookDAO.returnBook(borrowId)), success -> {
+                    setBusy(null);
+                    if (success) {
+                        JOptionPane.showMessageDialog(null,
+                                "Book returned successfully on " + returnDate +
+                                        (fine.compareTo(BigDecimal.ZERO) > 0 ?
+                                                "\nFine of " + fineAmount + " recorded." : ""),
+                                "Success", JOptionPane.INFORMATION_MESSAGE);
+                        loadBorrowedBooks();
+                    } else {
+                        JOptionPane.showMessageDialog(null,
+                                "Failed to return book.",
+                                "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }, error -> showError("Error returning book: ", error));
             }
         }
     }
-}
\ No newline at end of file
+
+    private void returnSelectedBooks() {
+        List<Integer> borrowIds = new ArrayList<>();
+        Map<Integer, String> titles = new HashMap<>();
+        for (int row : borrowedBooksTable.getSelectedRows()) {
+            int borrowId = (int) tableModel.getValueAt(row, 0);
+            borrowIds.add(borrowId);
+            titles.put(borrowId, (String) tableModel.getValueAt(row, 1));
+        }
+
+        int confirm = JOptionPane.showConfirmDialog(null,
+                "Return " + borrowIds.size() + " books?",
+                "Confirm Return", JOptionPane.YES_NO_OPTION);
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        setBusy("Returning " + borrowIds.size() + " books...");
+        AsyncDB.onEdt(AsyncDB.supply(() -> BorrowedBookDAO.returnBooks(borrowIds)), results -> {
+            setBusy(null);
+            StringBuilder summary = new StringBuilder();
+            int returned = 0;
+            for (BorrowedBookDAO.BatchResult result : results) {
+                if (result.isSuccess()) {
+                    returned++;
+                }
+                summary.append(result.isSuccess() ? "✅ " : "❌ ")
+                        .append(titles.get(result.getItemId()))
+                        .append(" - ")
+                        .append(result.getMessage())
+                        .append("\n");
+            }
+
+            JOptionPane.showMessageDialog(null,
+                    returned + " of " + results.size() + " books returned on " + new Date(System.currentTimeMillis()) +
+                            "\n\n" + summary,
+                    "Return Result",
+                    returned == results.size() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+            loadBorrowedBooks();
+        }, error -> showError("Error returning books: ", error));
+    }
+}
@@ -2,6 +2,7 @@ package com.library.gui.admin;
 
 import com.library.dao.BookDAO;
 import com.library.model.Book;
+import com.library.utils.AsyncDB;
 
 import javax.swing.*;
 import java.awt.*;
@@ -99,23 +100,40 @@ public class BookFormDialog extends JDialog {
 
         Timestamp addedAt = book == null ? Timestamp.valueOf(LocalDateTime.now()) : book.getAddedAt();
 
+        Book toSave;
         if (book == null) {
             // Add new book
-            Book newBook = new Book(0, title, author, genre, isbn, publisher, quantity, quantity, addedAt);
-            BookDAO.addBook(newBook);
+            toSave = new Book(0, title, author, genre, isbn, publisher, quantity, quantity, addedAt);
         } else {
             // Update existing book
-            book.setTitle(title);
-            book.setAuthor(author);
-            book.setGenre(genre);
-            book.setIsbn(isbn);
-            book.setPublisher(publisher);
-            book.setQuantity(quantity);
-            book.setAvailable(quantity); // Reset availability to full quantity
-            BookDAO.updateBook(book);
+            toSave = book;
+            toSave.setTitle(title);
+            toSave.setAuthor(author);
+            toSave.setGenre(genre);
+            toSave.setIsbn(isbn);
+            toSave.setPublisher(publisher);
+            toSave.setQuantity(quantity);
+            toSave.setAvailable(quantity); // Reset availability to full quantity
         }
 
-        parentPanel.loadBooks(); // Ensure this method exists in BookManagementPanel
-        dispose();
+        boolean adding = book == null;
+        saveButton.setEnabled(false);
+        AsyncDB.onEdt(AsyncDB.supply(() -> adding ? BookDAO.addBook(toSave) : BookDAO.updateBook(toSave)),
+                saved -> {
+                    saveButton.setEnabled(true);
+                    if (!saved) {
+                        JOptionPane.showMessageDialog(this,
+                                adding ? "❌ Could not add the book. Its ISBN may already exist." : "❌ Could not update the book.",
+                                "Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    parentPanel.loadBooks(); // Ensure this method exists in BookManagementPanel
+                    dispose();
+                },
+                e -> {
+                    saveButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, "❌ Error saving book: " + e.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                });
     }
 }
@@ -2,6 +2,7 @@ package com.library.gui.admin;
 
 import com.library.dao.BookDAO;
 import com.library.model.Book;
+import com.library.utils.AsyncDB;
 import com.library.utils.DBConnection;
 
 import javax.swing.*;
@@ -10,11 +11,10 @@ import java.awt.*;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
-public class BookManagementPanel extends JPanel {
+public class BookManagementPanel extends JPanel implements DashboardPanel {
     private JTable bookTable;
     private JTextField searchField;
     private JButton addButton, editButton, deleteButton, refreshButton;
@@ -144,11 +144,18 @@ public class BookManagementPanel extends JPanel {
         editButton.addActionListener(e -> editBook());
         deleteButton.addActionListener(e -> deleteBook());
         refreshButton.addActionListener(e -> loadBooks());
+    }
 
-        // Load initial data
+    @Override
+    public void refresh() {
         loadBooks();
     }
 
+    @Override
+    public void release() {
+        model.setRowCount(0);
+    }
+
     private JButton createStyledButton(String text, Color bgColor) {
         JButton button = new JButton(text);
         button.setFont(new Font("Segoe UI", Font.BOLD, 14));
@@ -237,8 +244,27 @@ public class BookManagementPanel extends JPanel {
         int modelRow = bookTable.convertRowIndexToModel(selectedRow);
         int bookId = (int) model.getValueAt(modelRow, 0);
 
-        Book book = BookDAO.getBookById(bookId);
-        new BookFormDialog(book, this).setVisible(true);
+        statusLabel.setText("Loading book...");
+        AsyncDB.onEdt(AsyncDB.supply(() -> BookDAO.getBookById(bookId)),
+                book -> {
+                    statusLabel.setText("");
+                    if (book == null) {
+                        JOptionPane.showMessageDialog(this,
+                                "Book not found. It may have been deleted.",
+                                "Edit Error",
+                                JOptionPane.ERROR_MESSAGE);
+                        loadBooks();
+                        return;
+                    }
+                    new BookFormDialog(book, this).setVisible(true);
+                },
+                e -> {
+                    statusLabel.setText("");
+                    JOptionPane.showMessageDialog(this,
+                            "Error loading book: " + e.getMessage(),
+                            "Database Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
     }
 
     private void deleteBook() {
@@ -256,26 +282,38 @@ public class BookManagementPanel extends JPanel {
         String bookTitle = (String) model.getValueAt(modelRow, 1);
 
         // Check if book is currently borrowed
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT COUNT(*) FROM borrowed_books WHERE book_id = ? AND status = 'borrowed'")) {
-            stmt.setInt(1, bookId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next() && rs.getInt(1) > 0) {
-                JOptionPane.showMessageDialog(this,
-                        "Cannot delete book. There are " + rs.getInt(1) + " copies currently borrowed.",
-                        "Delete Error",
-                        JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this,
-                    "Error checking book status: " + e.getMessage(),
-                    "Database Error",
-                    JOptionPane.ERROR_MESSAGE);
-            return;
-        }
+        statusLabel.setText("Checking borrowed copies...");
+        AsyncDB.onEdt(AsyncDB.supply(() -> {
+                    try (Connection conn = DBConnection.getConnection();
+                         PreparedStatement stmt = conn.prepareStatement(
+                                 "SELECT COUNT(*) FROM borrowed_books WHERE book_id = ? AND status = 'borrowed'")) {
+                        stmt.setInt(1, bookId);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            return rs.next() ? rs.getInt(1) : 0;
+                        }
+                    }
+                }),
+                borrowed -> {
+                    statusLabel.setText("");
+                    if (borrowed > 0) {
+                        JOptionPane.showMessageDialog(this,
+                                "Cannot delete book. There are " + borrowed + " copies currently borrowed.",
+                                "Delete Error",
+                                JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    confirmDelete(bookId, bookTitle);
+                },
+                e -> {
+                    statusLabel.setText("");
+                    JOptionPane.showMessageDialog(this,
+                            "Error checking book status: " + e.getMessage(),
+                            "Database Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+    }
 
+    private void confirmDelete(int bookId, String bookTitle) {
         int confirm = JOptionPane.showConfirmDialog(this,
                 "Delete book '" + bookTitle + "'? This action cannot be undone.",
                 "Confirm Delete",
@@ -0,0 +1,106 @@
+package com.library.gui.admin;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only, read-only table model that stores each column in its own array.
+ * Rows arrive in chunks and each chunk is announced with a single
+ * fireTableRowsInserted, so loading a large result costs one table event per
+ * chunk rather than one per row. Must be used on the EDT.
+ */
+public class ColumnarTableModel extends AbstractTableModel {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private String[] columnNames;
+    private Class<?>[] columnClasses;
+    private Object[][] columns;
+    private int rowCount;
+
+    public ColumnarTableModel(String... columnNames) {
+        setColumns(columnNames, null);
+    }
+
+    /**
+     * Replaces the columns, dropping all rows
+     * @param columnClasses Class of each column, or null to leave them all as Object
+     */
+    public void setColumns(String[] columnNames, Class<?>[] columnClasses) {
+        this.columnNames = columnNames.clone();
+        this.columnClasses = columnClasses != null ? columnClasses.clone() : null;
+        this.columns = new Object[columnNames.length][INITIAL_CAPACITY];
+        this.rowCount = 0;
+        fireTableStructureChanged();
+    }
+
+    public void clear() {
+        if (rowCount == 0) {
+            return;
+        }
+        int lastRow = rowCount - 1;
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new Object[INITIAL_CAPACITY];
+        }
+        rowCount = 0;
+        fireTableRowsDeleted(0, lastRow);
+    }
+
+    /**
+     * Appends rows, each holding one value per column, with one table event
+     */
+    public void appendRows(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        ensureCapacity(rowCount + rows.size());
+        int firstRow = rowCount;
+        for (Object[] row : rows) {
+            for (int column = 0; column < columns.length; column++) {
+                columns[column][rowCount] = column < row.length ? row[column] : null;
+            }
+            rowCount++;
+        }
+        fireTableRowsInserted(firstRow, rowCount - 1);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return columnClasses != null ? columnClasses[column] : Object.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return columns[columnIndex][rowIndex];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (columns.length == 0 || columns[0].length >= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, columns[0].length * 2);
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = Arrays.copyOf(columns[i], newCapacity);
+        }
+    }
+}
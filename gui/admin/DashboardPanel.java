@@ -0,0 +1,18 @@
+package com.library.gui.admin;
+
+/**
+ * A card on the AdminDashboard. The dashboard builds each card the first time
+ * it is shown and decides when its data is loaded and dropped, so panels do
+ * not query anything from their constructors.
+ */
+public interface DashboardPanel {
+    /**
+     * Reloads the panel's data; called on the EDT when the card is shown with stale or no data
+     */
+    void refresh();
+
+    /**
+     * Drops the loaded rows of a panel that has been hidden for a while; the next show refreshes it
+     */
+    void release();
+}
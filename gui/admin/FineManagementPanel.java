@@ -2,26 +2,26 @@ package com.library.gui.admin;
 
 import com.library.dao.BorrowedBookDAO;
 import com.library.dao.PaymentDAO;
-import com.library.model.BorrowedBook;
-import com.library.utils.DBConnection;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.math.BigDecimal;
-import java.sql.Connection;
-import java.sql.SQLException;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
 
-public class FineManagementPanel extends JPanel {
+public class FineManagementPanel extends JPanel implements DashboardPanel {
     private JTable fineTable;
-    private DefaultTableModel tableModel;
+    private ColumnarTableModel tableModel;
     private JLabel statusLabel;
     private JButton refreshButton;
     private JComboBox<String> filterComboBox;
+    private static final int ACTION_COLUMN = 6;
+    private static final String RECORD_PAYMENT = "Record Payment";
+    private static final String VIEW_RECEIPT = "View Receipt";
+    private final LatestQueryRunner fineLoads = new LatestQueryRunner();
 
     public FineManagementPanel() {
         setLayout(new BorderLayout(10, 10));
@@ -50,25 +50,37 @@ public class FineManagementPanel extends JPanel {
 
         // Table Setup
         String[] columnNames = {"Borrow ID", "User Name", "Book Title", "Due Date", "Fine Amount", "Status", "Action"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 6; // Only Action column is editable
-            }
-            @Override
-            public Class<?> getColumnClass(int column) {
-                return switch (column) {
-                    case 0 -> Integer.class; // Borrow ID
-                    case 4 -> BigDecimal.class; // Fine Amount
-                    default -> String.class;
-                };
-            }
-        };
+        tableModel = new ColumnarTableModel();
+        tableModel.setColumns(columnNames, new Class<?>[]{
+                Integer.class, // Borrow ID
+                String.class, String.class, String.class,
+                BigDecimal.class, // Fine Amount
+                String.class, String.class
+        });
 
         fineTable = new JTable(tableModel);
         fineTable.setRowHeight(30);
         fineTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         fineTable.setAutoCreateRowSorter(true);
+        fineTable.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                // The Action column holds a label; clicking it runs the action for that row
+                int viewRow = fineTable.rowAtPoint(e.getPoint());
+                int viewColumn = fineTable.columnAtPoint(e.getPoint());
+                if (viewRow == -1 || fineTable.convertColumnIndexToModel(viewColumn) != ACTION_COLUMN) {
+                    return;
+                }
+                fineTable.setRowSelectionInterval(viewRow, viewRow);
+                int row = fineTable.convertRowIndexToModel(viewRow);
+                int borrowId = (int) tableModel.getValueAt(row, 0);
+                String action = (String) tableModel.getValueAt(row, ACTION_COLUMN);
+                ActionListener listener = VIEW_RECEIPT.equals(action)
+                        ? new ViewReceiptAction(borrowId)
+                        : new RecordPaymentAction(borrowId);
+                listener.actionPerformed(new ActionEvent(fineTable, ActionEvent.ACTION_PERFORMED, action));
+            }
+        });
 
         // Set column widths
         fineTable.getColumnModel().getColumn(0).setPreferredWidth(80);  // Borrow ID
@@ -86,68 +98,46 @@ public class FineManagementPanel extends JPanel {
         statusLabel = new JLabel("", SwingConstants.CENTER);
         statusLabel.setForeground(Color.WHITE);
         add(statusLabel, BorderLayout.SOUTH);
+    }
 
-        // Load initial data
+    @Override
+    public void refresh() {
         loadFineData();
     }
 
+    @Override
+    public void release() {
+        fineLoads.cancel();
+        tableModel.clear();
+    }
+
     private void loadFineData() {
         statusLabel.setText("Loading fine data...");
-        SwingWorker<Void, Void> worker = new SwingWorker<>() {
-            @Override
-            protected Void doInBackground() throws Exception {
-                tableModel.setRowCount(0);
-                try {
-                    String filter = (String) filterComboBox.getSelectedItem();
-                    List<BorrowedBook> fines = BorrowedBookDAO.getFinesWithDetails(filter);
-
-                    for (BorrowedBook fine : fines) {
-                        SwingUtilities.invokeLater(() -> {
-                            JButton actionButton;
-                            if ("Paid".equals(fine.getStatus())) {
-                                actionButton = new JButton("View Receipt");
-                                actionButton.addActionListener(new ViewReceiptAction(fine.getId()));
-                                actionButton.setBackground(new Color(100, 149, 237));
-                            } else {
-                                actionButton = new JButton("Record Payment");
-                                actionButton.addActionListener(new RecordPaymentAction(fine.getId()));
-                                actionButton.setBackground(new Color(50, 205, 50));
-                            }
-                            actionButton.setForeground(Color.WHITE);
-                            actionButton.setFocusPainted(false);
-
-                            tableModel.addRow(new Object[]{
-                                    fine.getId(),
-                                    fine.getUserName(),
-                                    fine.getBookTitle(),
-                                    fine.getDueDate(),
-                                    fine.getFine(),
-                                    fine.getStatus(),
-                                    actionButton
-                            });
-                        });
-                    }
-                } catch (SQLException e) {
-                    SwingUtilities.invokeLater(() ->
-                            JOptionPane.showMessageDialog(FineManagementPanel.this,
-                                    "Error loading fines: " + e.getMessage(),
-                                    "Database Error",
-                                    JOptionPane.ERROR_MESSAGE));
-                }
-                return null;
-            }
-
-            @Override
-            protected void done() {
-                try {
-                    get();
-                    statusLabel.setText("");
-                } catch (InterruptedException | ExecutionException e) {
+        tableModel.clear(); // A load still running is aborted below and publishes nothing more
+
+        String filter = (String) filterComboBox.getSelectedItem();
+        fineLoads.run(new StreamingTableLoader(tableModel, (sink, control) ->
+                BorrowedBookDAO.forEachFineWithDetails(filter, control, fine -> {
+                    // Settled fines are zeroed, so anything left owing still needs a payment
+                    boolean paid = fine.getFine() == null || fine.getFine().signum() == 0;
+                    sink.accept(new Object[]{
+                            fine.getId(),
+                            fine.getUserName(),
+                            fine.getBookTitle(),
+                            fine.getDueDate(),
+                            fine.getFine(),
+                            fine.getStatus(),
+                            paid ? VIEW_RECEIPT : RECORD_PAYMENT
+                    });
+                }))
+                .onSuccess(rowCount -> statusLabel.setText(""))
+                .onError(e -> {
                     statusLabel.setText("Error loading fines");
-                }
-            }
-        };
-        worker.execute();
+                    JOptionPane.showMessageDialog(FineManagementPanel.this,
+                            "Error loading fines: " + e.getMessage(),
+                            "Database Error",
+                            JOptionPane.ERROR_MESSAGE);
+                }));
     }
 
     private class RecordPaymentAction implements ActionListener {
@@ -159,8 +149,8 @@ public class FineManagementPanel extends JPanel {
 
         @Override
         public void actionPerformed(ActionEvent e) {
-            int selectedRow = fineTable.getSelectedRow();
-            if (selectedRow == -1) return;
+            if (fineTable.getSelectedRow() == -1) return;
+            int selectedRow = fineTable.convertRowIndexToModel(fineTable.getSelectedRow());
 
             BigDecimal fineAmount = (BigDecimal) tableModel.getValueAt(selectedRow, 4);
             String paymentMethod = (String) JOptionPane.showInputDialog(
@@ -180,45 +170,26 @@ public class FineManagementPanel extends JPanel {
                         JOptionPane.YES_NO_OPTION);
 
                 if (confirm == JOptionPane.YES_OPTION) {
-                    SwingWorker<Boolean, Void> worker = new SwingWorker<>() {
+                    String bookTitle = (String) tableModel.getValueAt(selectedRow, 2);
+                    String description = "Fine payment for: " + bookTitle;
+                    SwingWorker<PaymentDAO.Settlement, Void> worker = new SwingWorker<>() {
                         @Override
-                        protected Boolean doInBackground() throws Exception {
-                            Connection conn = null;
-                            try {
-                                conn = DBConnection.getConnection();
-                                conn.setAutoCommit(false);
-
-                                // 1. Update borrowed_books
-                                if (!BorrowedBookDAO.clearFine(borrowId, conn)) {
-                                    return false;
-                                }
-
-                                // 2. Record payment
-                                int userId = (int) tableModel.getValueAt(selectedRow, 0);
-                                String bookTitle = (String) tableModel.getValueAt(selectedRow, 2);
-                                String description = "Fine payment for: " + bookTitle;
-
-                                if (!PaymentDAO.recordPayment(userId, fineAmount, paymentMethod, description, conn)) {
-                                    return false;
-                                }
-
-                                conn.commit();
-                                return true;
-                            } catch (SQLException ex) {
-                                if (conn != null) conn.rollback();
-                                throw ex;
-                            } finally {
-                                if (conn != null) conn.close();
-                            }
+                        protected PaymentDAO.Settlement doInBackground() throws Exception {
+                            // Charges the patron who owns the record whatever it still owes
+                            return PaymentDAO.settleFines(List.of(borrowId), paymentMethod, description);
                         }
 
                         @Override
                         protected void done() {
                             try {
-                                if (get()) {
+                                PaymentDAO.Settlement settlement = get();
+                                if (settlement.getSettledCount() > 0) {
                                     JOptionPane.showMessageDialog(null, "Payment recorded successfully!");
-                                    loadFineData();
+                                } else {
+                                    JOptionPane.showMessageDialog(null,
+                                            "No payment recorded: " + settlement.getItems().get(0).getMessage());
                                 }
+                                loadFineData();
                             } catch (Exception ex) {
                                 JOptionPane.showMessageDialog(null,
                                         "Error recording payment: " + ex.getMessage(),
@@ -0,0 +1,24 @@
+package com.library.gui.admin;
+
+/**
+ * Runs a panel's table loads so that only the most recent one counts.
+ * Starting a load aborts the one before it, cancelling its statement on the
+ * database, so superseded queries neither publish rows nor hold a pooled
+ * connection. Must be used on the EDT.
+ */
+public class LatestQueryRunner {
+    private StreamingTableLoader current;
+
+    public void run(StreamingTableLoader loader) {
+        cancel();
+        current = loader;
+        loader.execute();
+    }
+
+    public void cancel() {
+        if (current != null) {
+            current.abort();
+            current = null;
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package com.library.gui.admin;
 
-import com.library.utils.DBConnection;
+import com.library.dao.BorrowedBookDAO;
+import com.library.dao.PaymentDAO;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
@@ -10,13 +10,18 @@ import java.sql.*;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
-public class OverdueBooksPanel extends JPanel {
+public class OverdueBooksPanel extends JPanel implements DashboardPanel {
     private JTable overdueTable;
-    private DefaultTableModel tableModel;
+    private ColumnarTableModel tableModel;
     private JButton markPaidButton;
     private JButton refreshButton;
     private JLabel statusLabel;
+    private final LatestQueryRunner overdueLoads = new LatestQueryRunner();
     public static final int FINE_PER_DAY = 5; // ₹5 per day fine
 
     public OverdueBooksPanel() {
@@ -30,25 +35,17 @@ public class OverdueBooksPanel extends JPanel {
         add(titleLabel, BorderLayout.NORTH);
 
         // Table Setup
-        tableModel = new DefaultTableModel(
+        tableModel = new ColumnarTableModel();
+        tableModel.setColumns(
                 new String[]{"Borrow ID", "User Name", "Book Title", "Author", "Due Date", "Days Overdue", "Fine (₹)"},
-                0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table non-editable
-            }
-            @Override
-            public Class<?> getColumnClass(int columnIndex) {
-                return switch (columnIndex) {
-                    case 0, 5 -> Integer.class; // Borrow ID, Days Overdue
-                    case 6 -> BigDecimal.class; // Fine
-                    default -> String.class;
-                };
-            }
-        };
+                new Class<?>[]{
+                        Integer.class, String.class, String.class, String.class, String.class,
+                        Integer.class, // Days Overdue
+                        BigDecimal.class // Fine
+                });
 
         overdueTable = new JTable(tableModel);
-        overdueTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        overdueTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         overdueTable.setAutoCreateRowSorter(true);
         overdueTable.setFillsViewportHeight(true);
 
@@ -65,7 +62,7 @@ public class OverdueBooksPanel extends JPanel {
         add(scrollPane, BorderLayout.CENTER);
 
         // Button Panel
-        markPaidButton = new JButton("✅ Mark Fine as Paid");
+        markPaidButton = new JButton("✅ Mark Fines as Paid");
         markPaidButton.setBackground(new Color(34, 177, 76));
         markPaidButton.setForeground(Color.BLACK);
         markPaidButton.setFont(new Font("Arial", Font.BOLD, 14));
@@ -83,150 +80,123 @@ public class OverdueBooksPanel extends JPanel {
         buttonPanel.add(refreshButton);
         buttonPanel.add(statusLabel);
         add(buttonPanel, BorderLayout.SOUTH);
+    }
 
+    @Override
+    public void refresh() {
         loadOverdueBooks();
     }
 
+    @Override
+    public void release() {
+        overdueLoads.cancel();
+        tableModel.clear();
+    }
+
     private void loadOverdueBooks() {
-        tableModel.setRowCount(0);
+        tableModel.clear(); // A load still running is aborted below and publishes nothing more
         statusLabel.setText("Loading overdue books...");
 
-        SwingWorker<Void, Void> worker = new SwingWorker<>() {
-            @Override
-            protected Void doInBackground() throws Exception {
-                try (Connection conn = DBConnection.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(
-                             "SELECT bb.id, u.name, b.title, b.author, bb.due_date, bb.fine, bb.return_date " +
-                                     "FROM borrowed_books bb " +
-                                     "JOIN users u ON bb.user_id = u.id " +
-                                     "JOIN books b ON bb.book_id = b.id " +
-                                     "WHERE bb.status = 'borrowed' AND bb.due_date < CURRENT_DATE " +
-                                     "ORDER BY bb.due_date")) {
-
-                    ResultSet rs = stmt.executeQuery();
-
-                    while (rs.next()) {
-                        int borrowId = rs.getInt("id");
-                        String userName = rs.getString("name");
-                        String bookTitle = rs.getString("title");
-                        String author = rs.getString("author");
-                        Date dueDate = rs.getDate("due_date");
-                        BigDecimal fine = rs.getBigDecimal("fine");
-
-                        // Calculate days overdue and current fine
-                        LocalDate due = dueDate.toLocalDate();
-                        long daysOverdue = ChronoUnit.DAYS.between(due, LocalDate.now());
-                        BigDecimal currentFine = (fine != null) ? fine :
-                                BigDecimal.valueOf(daysOverdue * FINE_PER_DAY);
-
-                        SwingUtilities.invokeLater(() -> {
-                            tableModel.addRow(new Object[]{
-                                    borrowId,
-                                    userName,
-                                    bookTitle,
-                                    author,
+        LocalDate today = LocalDate.now();
+        overdueLoads.run(StreamingTableLoader.forQuery(tableModel,
+                        "SELECT bb.id, u.name, b.title, b.author, bb.due_date, bb.fine " +
+                                "FROM borrowed_books bb " +
+                                "JOIN users u ON bb.user_id = u.id " +
+                                "JOIN books b ON bb.book_id = b.id " +
+                                "WHERE bb.status = 'borrowed' AND bb.due_date < CURRENT_DATE " +
+                                "ORDER BY bb.due_date",
+                        null,
+                        rs -> {
+                            Date dueDate = rs.getDate("due_date");
+                            BigDecimal fine = rs.getBigDecimal("fine");
+
+                            // Fines are kept current by the daily accrual run
+                            return new Object[]{
+                                    rs.getInt("id"),
+                                    rs.getString("name"),
+                                    rs.getString("title"),
+                                    rs.getString("author"),
                                     dueDate,
-                                    daysOverdue,
-                                    currentFine
-                            });
-                        });
-                    }
-                } catch (SQLException e) {
-                    SwingUtilities.invokeLater(() ->
-                            JOptionPane.showMessageDialog(OverdueBooksPanel.this,
-                                    "Error loading overdue books: " + e.getMessage(),
-                                    "Database Error",
-                                    JOptionPane.ERROR_MESSAGE));
-                }
-                return null;
-            }
-
-            @Override
-            protected void done() {
-                statusLabel.setText("");
-            }
-        };
-        worker.execute();
+                                    (int) ChronoUnit.DAYS.between(dueDate.toLocalDate(), today),
+                                    (fine != null) ? fine : BigDecimal.ZERO
+                            };
+                        })
+                .onSuccess(rowCount -> statusLabel.setText(""))
+                .onError(e -> {
+                    statusLabel.setText("");
+                    JOptionPane.showMessageDialog(OverdueBooksPanel.this,
+                            "Error loading overdue books: " + e.getMessage(),
+                            "Database Error",
+                            JOptionPane.ERROR_MESSAGE);
+                }));
     }
 
     private class MarkFinePaidAction implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            int selectedRow = overdueTable.getSelectedRow();
-            if (selectedRow == -1) {
+            int[] selectedRows = overdueTable.getSelectedRows();
+            if (selectedRows.length == 0) {
                 JOptionPane.showMessageDialog(null,
-                        "Please select a fine to mark as paid.",
+                        "Please select the fines to mark as paid.",
                         "No Selection",
                         JOptionPane.WARNING_MESSAGE);
                 return;
             }
 
-            int borrowId = (int) tableModel.getValueAt(selectedRow, 0);
-            String userName = (String) tableModel.getValueAt(selectedRow, 1);
-            BigDecimal fineAmount = (BigDecimal) tableModel.getValueAt(selectedRow, 6);
+            // A patron paying off several items at the counter is settled as one payment
+            List<Integer> borrowIds = new ArrayList<>(selectedRows.length);
+            Set<String> userNames = new LinkedHashSet<>();
+            BigDecimal total = BigDecimal.ZERO;
+            for (int viewRow : selectedRows) {
+                int row = overdueTable.convertRowIndexToModel(viewRow);
+                borrowIds.add((int) tableModel.getValueAt(row, 0));
+                userNames.add((String) tableModel.getValueAt(row, 1));
+                total = total.add((BigDecimal) tableModel.getValueAt(row, 6));
+            }
+            if (userNames.size() > 1) {
+                JOptionPane.showMessageDialog(null,
+                        "Please select fines of one patron at a time.",
+                        "Several Patrons Selected",
+                        JOptionPane.WARNING_MESSAGE);
+                return;
+            }
 
             int confirm = JOptionPane.showConfirmDialog(null,
-                    "Mark fine of ₹" + fineAmount + " for " + userName + " as paid?",
+                    "Mark " + borrowIds.size() + (borrowIds.size() == 1 ? " fine" : " fines") +
+                            " of ₹" + total + " for " + userNames.iterator().next() + " as paid?",
                     "Confirm Payment",
                     JOptionPane.YES_NO_OPTION);
 
             if (confirm == JOptionPane.YES_OPTION) {
-                markFineAsPaid(borrowId, fineAmount);
+                markFinesAsPaid(borrowIds);
             }
         }
     }
 
-    private void markFineAsPaid(int borrowId, BigDecimal fineAmount) {
-        SwingWorker<Boolean, Void> worker = new SwingWorker<>() {
+    private void markFinesAsPaid(List<Integer> borrowIds) {
+        SwingWorker<PaymentDAO.Settlement, Void> worker = new SwingWorker<>() {
             @Override
-            protected Boolean doInBackground() throws Exception {
-                Connection conn = null;
-                try {
-                    conn = DBConnection.getConnection();
-                    conn.setAutoCommit(false);
-
-                    // 1. Update borrowed_books record
-                    try (PreparedStatement stmt = conn.prepareStatement(
-                            "UPDATE borrowed_books SET fine = 0 WHERE id = ?")) {
-                        stmt.setInt(1, borrowId);
-                        if (stmt.executeUpdate() == 0) {
-                            throw new SQLException("Failed to update fine status");
-                        }
-                    }
-
-                    // 2. Record payment in payments table
-                    try (PreparedStatement stmt = conn.prepareStatement(
-                            "INSERT INTO payments (user_id, amount, payment_date, description) " +
-                                    "VALUES ((SELECT user_id FROM borrowed_books WHERE id = ?), ?, CURRENT_DATE, ?)")) {
-                        stmt.setInt(1, borrowId);
-                        stmt.setBigDecimal(2, fineAmount);
-                        stmt.setString(3, "Late return fine payment");
-                        stmt.executeUpdate();
-                    }
-
-                    conn.commit();
-                    return true;
-                } catch (SQLException e) {
-                    if (conn != null) conn.rollback();
-                    throw e;
-                } finally {
-                    if (conn != null) {
-                        conn.setAutoCommit(true);
-                        conn.close();
-                    }
-                }
+            protected PaymentDAO.Settlement doInBackground() throws Exception {
+                return PaymentDAO.settleFines(borrowIds, null, "Late return fine payment");
             }
 
             @Override
             protected void done() {
                 try {
-                    if (get()) {
-                        JOptionPane.showMessageDialog(null,
-                                "Fine marked as paid successfully.",
-                                "Success",
-                                JOptionPane.INFORMATION_MESSAGE);
-                        loadOverdueBooks();
+                    PaymentDAO.Settlement settlement = get();
+                    StringBuilder message = new StringBuilder();
+                    message.append(settlement.getSettledCount()).append(" of ").append(borrowIds.size())
+                            .append(" fines marked as paid, ₹").append(settlement.getTotal()).append(" recorded.");
+                    for (BorrowedBookDAO.BatchResult item : settlement.getItems()) {
+                        if (!item.isSuccess()) {
+                            message.append("\nBorrow ").append(item.getItemId()).append(": ").append(item.getMessage());
+                        }
                     }
+                    JOptionPane.showMessageDialog(null,
+                            message.toString(),
+                            "Success",
+                            JOptionPane.INFORMATION_MESSAGE);
+                    loadOverdueBooks();
                 } catch (Exception e) {
                     JOptionPane.showMessageDialog(OverdueBooksPanel.this,
                             "Error updating fine: " + e.getMessage(),
@@ -237,4 +207,4 @@ public class OverdueBooksPanel extends JPanel {
         };
         worker.execute();
     }
-}
\ No newline at end of file
+}
@@ -1,27 +1,26 @@
 package com.library.gui.admin;
 
 import com.opencsv.CSVWriter;
-import com.library.utils.DBConnection;
+import com.library.dao.ReportStatsDAO;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.sql.*;
+import java.sql.Date;
 import java.time.LocalDate;
-import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class ReportsPanel extends JPanel {
+public class ReportsPanel extends JPanel implements DashboardPanel {
     private JTable reportsTable;
-    private DefaultTableModel tableModel;
+    private ColumnarTableModel tableModel;
     private JComboBox<String> reportTypeComboBox;
     private JButton generateReportButton;
     private JButton exportButton;
     private JLabel statusLabel;
     private JPanel chartPanel;
+    private final LatestQueryRunner reportQueries = new LatestQueryRunner();
     private static final Logger logger = Logger.getLogger(ReportsPanel.class.getName());
 
     public ReportsPanel() {
@@ -49,6 +48,7 @@ public class ReportsPanel extends JPanel {
                 "Popular Books",
                 "Monthly Statistics"
         });
+        reportTypeComboBox.addActionListener(e -> generateReport());
 
         generateReportButton = new JButton("📄 Generate Report");
         generateReportButton.setBackground(new Color(0, 153, 255));
@@ -79,12 +79,7 @@ public class ReportsPanel extends JPanel {
         add(filterPanel, BorderLayout.NORTH);
 
         // Table Setup
-        tableModel = new DefaultTableModel() {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new ColumnarTableModel();
 
         reportsTable = new JTable(tableModel);
         reportsTable.setBackground(new Color(240, 240, 240)); // 60, 60, 60
@@ -95,149 +90,117 @@ public class ReportsPanel extends JPanel {
 
         JScrollPane scrollPane = new JScrollPane(reportsTable);
         add(scrollPane, BorderLayout.CENTER);
+    }
 
-        // Initialize with default report
+    @Override
+    public void refresh() {
         generateReport();
     }
 
+    @Override
+    public void release() {
+        reportQueries.cancel();
+        tableModel.clear();
+    }
+
     private void generateReport() {
         String selectedReport = reportTypeComboBox.getSelectedItem().toString();
+        statusLabel.setForeground(Color.WHITE);
         statusLabel.setText("Generating " + selectedReport + " report...");
-        generateReportButton.setEnabled(false);
-
-        SwingWorker<Void, Void> worker = new SwingWorker<>() {
-            @Override
-            protected Void doInBackground() throws Exception {
-                tableModel.setRowCount(0);
-
-                String sql = "";
-                String[] columnNames = {};
-
-                switch (selectedReport) {
-                    case "Current Borrowings":
-                        sql = "SELECT bb.id, u.name AS user_name, b.title AS book_title, " +
-                                "b.author, bb.borrow_date, bb.due_date " +
-                                "FROM borrowed_books bb " +
-                                "JOIN users u ON bb.user_id = u.id " +
-                                "JOIN books b ON bb.book_id = b.id " +
-                                "WHERE bb.status = 'borrowed' " +
-                                "ORDER BY bb.due_date";
-                        columnNames = new String[]{"Borrow ID", "User Name", "Book Title", "Author", "Borrow Date", "Due Date"};
-                        break;
-
-                    case "Recent Returns":
-                        sql = "SELECT bb.id, u.name AS user_name, b.title AS book_title, " +
-                                "b.author, bb.borrow_date, bb.return_date, bb.fine " +
-                                "FROM borrowed_books bb " +
-                                "JOIN users u ON bb.user_id = u.id " +
-                                "JOIN books b ON bb.book_id = b.id " +
-                                "WHERE bb.status = 'returned' AND bb.return_date >= ? " +
-                                "ORDER BY bb.return_date DESC";
-                        columnNames = new String[]{"Borrow ID", "User Name", "Book Title", "Author", "Borrow Date", "Return Date", "Fine (₹)"};
-                        break;
-
-                    case "Overdue Books":
-                        sql = "SELECT bb.id, u.name AS user_name, b.title AS book_title, " +
-                                "b.author, bb.due_date, DATEDIFF(CURRENT_DATE, bb.due_date) AS overdue_days, " +
-                                "bb.fine AS current_fine " +
-                                "FROM borrowed_books bb " +
-                                "JOIN users u ON bb.user_id = u.id " +
-                                "JOIN books b ON bb.book_id = b.id " +
-                                "WHERE bb.status = 'borrowed' AND bb.due_date < CURRENT_DATE " +
-                                "ORDER BY overdue_days DESC";
-                        columnNames = new String[]{"Borrow ID", "User Name", "Book Title", "Author", "Due Date", "Days Overdue", "Fine (₹)"};
-                        break;
-
-                    case "User Activity":
-                        sql = "SELECT u.id, u.name, " +
-                                "COUNT(bb.id) AS total_borrowed, " +
-                                "SUM(CASE WHEN bb.status = 'returned' THEN 1 ELSE 0 END) AS books_returned, " +
-                                "SUM(CASE WHEN bb.due_date < CURRENT_DATE AND bb.status = 'borrowed' THEN 1 ELSE 0 END) AS overdue_books " +
-                                "FROM users u " +
-                                "LEFT JOIN borrowed_books bb ON u.id = bb.user_id " +
-                                "GROUP BY u.id, u.name " +
-                                "ORDER BY total_borrowed DESC";
-                        columnNames = new String[]{"User ID", "Name", "Total Borrowed", "Books Returned", "Overdue Books"};
-                        break;
-
-                    case "Popular Books":
-                        sql = "SELECT b.id, b.title, b.author, b.genre, " +
-                                "COUNT(bb.id) AS times_borrowed, " +
-                                "b.quantity - b.available AS currently_borrowed " +
-                                "FROM books b " +
-                                "LEFT JOIN borrowed_books bb ON b.id = bb.book_id " +
-                                "GROUP BY b.id, b.title, b.author, b.genre, b.quantity, b.available " +
-                                "ORDER BY times_borrowed DESC " +
-                                "LIMIT 20";
-                        columnNames = new String[]{"Book ID", "Title", "Author", "Genre", "Times Borrowed", "Currently Borrowed"};
-                        break;
-
-                    case "Monthly Statistics":
-                        sql = "SELECT DATE_FORMAT(bb.borrow_date, '%Y-%m') AS month, " +
-                                "COUNT(*) AS books_borrowed, " +
-                                "SUM(CASE WHEN bb.status = 'returned' THEN 1 ELSE 0 END) AS books_returned, " +
-                                "SUM(CASE WHEN bb.due_date < CURRENT_DATE AND bb.status = 'borrowed' THEN 1 ELSE 0 END) AS overdue_books, " +
-                                "SUM(bb.fine) AS total_fines " +
-                                "FROM borrowed_books bb " +
-                                "WHERE bb.borrow_date >= DATE_SUB(CURRENT_DATE, INTERVAL 12 MONTH) " +
-                                "GROUP BY DATE_FORMAT(bb.borrow_date, '%Y-%m') " +
-                                "ORDER BY month DESC";
-                        columnNames = new String[]{"Month", "Books Borrowed", "Books Returned", "Overdue Books", "Total Fines (₹)"};
-                        break;
-                }
 
-                String[] finalColumnNames = columnNames;
-                SwingUtilities.invokeLater(() -> {
-                    tableModel.setColumnIdentifiers(finalColumnNames);
-                });
-
-                try (Connection conn = DBConnection.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+        String sql = "";
+        String[] columnNames = {};
+
+        switch (selectedReport) {
+            case "Current Borrowings":
+                sql = "SELECT bb.id, u.name AS user_name, b.title AS book_title, " +
+                        "b.author, bb.borrow_date, bb.due_date " +
+                        "FROM borrowed_books bb " +
+                        "JOIN users u ON bb.user_id = u.id " +
+                        "JOIN books b ON bb.book_id = b.id " +
+                        "WHERE bb.status = 'borrowed' " +
+                        "ORDER BY bb.due_date";
+                columnNames = new String[]{"Borrow ID", "User Name", "Book Title", "Author", "Borrow Date", "Due Date"};
+                break;
+
+            case "Recent Returns":
+                sql = "SELECT bb.id, u.name AS user_name, b.title AS book_title, " +
+                        "b.author, bb.borrow_date, bb.return_date, bb.fine " +
+                        "FROM borrowed_books bb " +
+                        "JOIN users u ON bb.user_id = u.id " +
+                        "JOIN books b ON bb.book_id = b.id " +
+                        "WHERE bb.status = 'returned' AND bb.return_date >= ? " +
+                        "ORDER BY bb.return_date DESC";
+                columnNames = new String[]{"Borrow ID", "User Name", "Book Title", "Author", "Borrow Date", "Return Date", "Fine (₹)"};
+                break;
+
+            case "Overdue Books":
+                sql = "SELECT bb.id, u.name AS user_name, b.title AS book_title, " +
+                        "b.author, bb.due_date, DATEDIFF(CURRENT_DATE, bb.due_date) AS overdue_days, " +
+                        "bb.fine AS current_fine " +
+                        "FROM borrowed_books bb " +
+                        "JOIN users u ON bb.user_id = u.id " +
+                        "JOIN books b ON bb.book_id = b.id " +
+                        "WHERE bb.status = 'borrowed' AND bb.due_date < CURRENT_DATE " +
+                        "ORDER BY overdue_days DESC";
+                columnNames = new String[]{"Borrow ID", "User Name", "Book Title", "Author", "Due Date", "Days Overdue", "Fine (₹)"};
+                break;
+
+            // The aggregate reports read the rollups kept by ReportStatsDAO
+            case "User Activity":
+                // Users who never borrowed have no rollup row and still list with zeros
+                sql = "SELECT u.id, u.name, COALESCE(s.total_borrowed, 0) AS total_borrowed, " +
+                        "COALESCE(s.books_returned, 0) AS books_returned, " +
+                        "COALESCE(s.overdue_books, 0) AS overdue_books " +
+                        "FROM users u " +
+                        "LEFT JOIN user_stats s ON s.user_id = u.id " +
+                        "ORDER BY total_borrowed DESC";
+                columnNames = new String[]{"User ID", "Name", "Total Borrowed", "Books Returned", "Overdue Books"};
+                break;
+
+            case "Popular Books":
+                sql = "SELECT b.id, b.title, b.author, b.genre, s.times_borrowed, " +
+                        "b.quantity - b.available AS currently_borrowed " +
+                        "FROM book_stats s " +
+                        "JOIN books b ON s.book_id = b.id " +
+                        "ORDER BY s.times_borrowed DESC " +
+                        "LIMIT 20";
+                columnNames = new String[]{"Book ID", "Title", "Author", "Genre", "Times Borrowed", "Currently Borrowed"};
+                break;
+
+            case "Monthly Statistics":
+                sql = "SELECT month, books_borrowed, books_returned, overdue_books, total_fines " +
+                        "FROM monthly_stats " +
+                        "WHERE month >= ? " +
+                        "ORDER BY month DESC";
+                columnNames = new String[]{"Month", "Books Borrowed", "Books Returned", "Overdue Books", "Total Fines (₹)"};
+                break;
+        }
 
+        // Replaces any report still loading; its rows never reach the new columns
+        tableModel.setColumns(columnNames, null);
+        StreamingTableLoader loader = StreamingTableLoader.forQuery(tableModel, sql, stmt -> {
                     // Set parameter for Recent Returns report
                     if ("Recent Returns".equals(selectedReport)) {
                         stmt.setDate(1, Date.valueOf(LocalDate.now().minusMonths(1)));
+                    } else if ("Monthly Statistics".equals(selectedReport)) {
+                        stmt.setString(1, ReportStatsDAO.monthKey(LocalDate.now().minusMonths(12)));
                     }
-
-                    ResultSet rs = stmt.executeQuery();
-                    ResultSetMetaData metaData = rs.getMetaData();
-                    int columnCount = metaData.getColumnCount();
-
-                    while (rs.next()) {
-                        Object[] rowData = new Object[columnCount];
-                        for (int i = 0; i < columnCount; i++) {
-                            rowData[i] = rs.getObject(i + 1);
-                        }
-                        SwingUtilities.invokeLater(() -> {
-                            tableModel.addRow(rowData);
-                        });
-                    }
-                } catch (SQLException e) {
-                    SwingUtilities.invokeLater(() -> {
-                        JOptionPane.showMessageDialog(ReportsPanel.this,
-                                "Error generating report: " + e.getMessage(),
-                                "Database Error",
-                                JOptionPane.ERROR_MESSAGE);
-                    });
-                }
-                return null;
-            }
-
-            @Override
-            protected void done() {
-                try {
-                    get();
+                }, StreamingTableLoader.ALL_COLUMNS)
+                .onSuccess(rowCount -> {
                     statusLabel.setForeground(Color.WHITE);
-                    statusLabel.setText("Report generated successfully");
-                } catch (InterruptedException | ExecutionException e) {
+                    statusLabel.setText("Report generated successfully (" + rowCount + " rows)");
+                })
+                .onError(e -> {
+                    logger.log(Level.SEVERE, "Error generating report", e);
                     statusLabel.setForeground(Color.RED);
                     statusLabel.setText("Error generating report");
-                } finally {
-                    generateReportButton.setEnabled(true);
-                }
-            }
-        };
-        worker.execute();
+                    JOptionPane.showMessageDialog(ReportsPanel.this,
+                            "Error generating report: " + e.getMessage(),
+                            "Database Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+        reportQueries.run(loader);
     }
 
     private void exportToCSV() {
@@ -271,24 +234,33 @@ public class ReportsPanel extends JPanel {
         progressDialog.setSize(300, 100);
         progressDialog.setLocationRelativeTo(this);
 
+        // The model is EDT-only and a new report replaces its columns, so the worker writes a copy
+        int columnCount = tableModel.getColumnCount();
+        String[] header = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            header[i] = tableModel.getColumnName(i);
+        }
+        Object[][] rows = new Object[tableModel.getRowCount()][];
+        for (int row = 0; row < rows.length; row++) {
+            rows[row] = new Object[columnCount];
+            for (int col = 0; col < columnCount; col++) {
+                rows[row][col] = tableModel.getValueAt(row, col);
+            }
+        }
+
         File finalFileToSave = fileToSave;
         SwingWorker<Boolean, Void> worker = new SwingWorker<Boolean, Void>() {
             @Override
             protected Boolean doInBackground() throws Exception {
                 try (CSVWriter writer = new CSVWriter(new FileWriter(finalFileToSave))) {
                     // Write header
-                    int columnCount = tableModel.getColumnCount();
-                    String[] header = new String[columnCount];
-                    for (int i = 0; i < columnCount; i++) {
-                        header[i] = tableModel.getColumnName(i);
-                    }
                     writer.writeNext(header);
 
                     // Write data
-                    for (int row = 0; row < tableModel.getRowCount(); row++) {
+                    for (Object[] row : rows) {
                         String[] rowData = new String[columnCount];
                         for (int col = 0; col < columnCount; col++) {
-                            Object value = tableModel.getValueAt(row, col);
+                            Object value = row[col];
                             rowData[col] = (value != null) ? value.toString() : "";
                         }
                         writer.writeNext(rowData);
@@ -1,22 +1,24 @@
 package com.library.gui.admin;
 
-import com.library.utils.DBConnection;
+import com.library.dao.BookDAO;
+import com.library.dao.BookSearchIndex;
+import com.library.model.Book;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.sql.*;
-import java.util.concurrent.ExecutionException;
+import java.util.EnumSet;
+import java.util.Locale;
 
 public class SearchBookPanel extends JPanel {
     private JTextField searchField;
     private JComboBox<String> searchCategory;
     private JComboBox<String> availabilityFilter;
     private JTable bookTable;
-    private DefaultTableModel tableModel;
+    private ColumnarTableModel tableModel;
     private JLabel statusLabel;
     private JButton searchButton;
+    private final LatestQueryRunner searches = new LatestQueryRunner();
 
     public SearchBookPanel() {
         setLayout(new BorderLayout());
@@ -48,6 +50,7 @@ public class SearchBookPanel extends JPanel {
         searchButton.setForeground(Color.WHITE);
         searchButton.setFont(new Font("Arial", Font.BOLD, 14));
         searchButton.addActionListener(new SearchAction());
+        searchField.addActionListener(new SearchAction());
 
         // Add components to search panel
         gbc.gridx = 0; gbc.gridy = 0;
@@ -68,14 +71,7 @@ public class SearchBookPanel extends JPanel {
         add(searchPanel, BorderLayout.NORTH);
 
         // Table Setup
-        tableModel = new DefaultTableModel(
-                new String[]{"ID", "Title", "Author", "Genre", "ISBN", "Publisher", "Status", "Qty"},
-                0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table non-editable
-            }
-        };
+        tableModel = new ColumnarTableModel("ID", "Title", "Author", "Genre", "ISBN", "Publisher", "Status", "Qty");
 
         bookTable = new JTable(tableModel);
         bookTable.setBackground(new Color(50, 50, 50));
@@ -114,79 +110,65 @@ public class SearchBookPanel extends JPanel {
 
     private void searchBooks(String queryText, String category, String availability) {
         statusLabel.setText("Searching...");
-        searchButton.setEnabled(false);
-
-        SwingWorker<Void, Void> worker = new SwingWorker<>() {
-            @Override
-            protected Void doInBackground() throws Exception {
-                tableModel.setRowCount(0);
-
-                String sql = "SELECT b.id, b.title, b.author, b.genre, b.isbn, b.publisher, " +
-                        "b.quantity, b.available, " +
-                        "CASE WHEN b.available > 0 THEN 'Available' ELSE 'Unavailable' END as status " +
-                        "FROM books b WHERE 1=1";
-
-                // Add search condition
-                if (!queryText.isEmpty()) {
-                    sql += " AND LOWER(b." + category + ") LIKE ?";
-                }
-
-                // Add availability condition
-                if (!"All".equals(availability)) {
-                    sql += " AND b.available " + ("Available".equals(availability) ? "> 0" : "= 0");
+        tableModel.clear(); // A search still running is aborted below and publishes nothing more
+
+        StreamingTableLoader loader;
+        if (!queryText.isEmpty()) {
+            // Text searches go through the in-memory index instead of a LIKE scan
+            Boolean availableOnly = "All".equals(availability) ? null : "Available".equals(availability);
+            loader = new StreamingTableLoader(tableModel, (sink, control) -> {
+                BookSearchIndex.Field field = BookSearchIndex.Field.valueOf(category.toUpperCase(Locale.ROOT));
+                for (Book book : BookDAO.searchBooks(queryText, EnumSet.of(field), availableOnly, control)) {
+                    boolean available = book.getAvailable() > 0;
+                    sink.accept(new Object[]{
+                            book.getBookId(),
+                            book.getTitle(),
+                            book.getAuthor(),
+                            book.getGenre(),
+                            book.getIsbn(),
+                            book.getPublisher(),
+                            available ? "Available" : "Unavailable",
+                            book.getAvailable() + "/" + book.getQuantity()
+                    });
                 }
-
-                sql += " ORDER BY b.title";
-
-                try (Connection conn = DBConnection.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-                    if (!queryText.isEmpty()) {
-                        stmt.setString(1, "%" + queryText.toLowerCase() + "%");
-                    }
-
-                    ResultSet rs = stmt.executeQuery();
-
-                    while (rs.next()) {
-                        SwingUtilities.invokeLater(() -> {
-                            try {
-                                tableModel.addRow(new Object[]{
-                                        rs.getInt("id"),
-                                        rs.getString("title"),
-                                        rs.getString("author"),
-                                        rs.getString("genre"),
-                                        rs.getString("isbn"),
-                                        rs.getString("publisher"),
-                                        rs.getString("status"),
-                                        rs.getInt("available") + "/" + rs.getInt("quantity")
-                                });
-                            } catch (SQLException e) {
-                                throw new RuntimeException(e);
-                            }
-                        });
-                    }
-                } catch (SQLException e) {
-                    SwingUtilities.invokeLater(() ->
-                            JOptionPane.showMessageDialog(SearchBookPanel.this,
-                                    "Error searching books: " + e.getMessage(),
-                                    "Database Error",
-                                    JOptionPane.ERROR_MESSAGE));
-                }
-                return null;
+            });
+        } else {
+            String sql = "SELECT b.id, b.title, b.author, b.genre, b.isbn, b.publisher, " +
+                    "b.quantity, b.available, " +
+                    "CASE WHEN b.available > 0 THEN 'Available' ELSE 'Unavailable' END as status " +
+                    "FROM books b WHERE 1=1";
+
+            // Add availability condition
+            if (!"All".equals(availability)) {
+                sql += " AND b.available " + ("Available".equals(availability) ? "> 0" : "= 0");
             }
 
-            @Override
-            protected void done() {
-                try {
-                    get(); // Check for exceptions
-                    statusLabel.setText("");
-                } catch (InterruptedException | ExecutionException e) {
+            sql += " ORDER BY b.title";
+
+            loader = StreamingTableLoader.forQuery(tableModel, sql, null, rs -> new Object[]{
+                    rs.getInt("id"),
+                    rs.getString("title"),
+                    rs.getString("author"),
+                    rs.getString("genre"),
+                    rs.getString("isbn"),
+                    rs.getString("publisher"),
+                    rs.getString("status"),
+                    rs.getInt("available") + "/" + rs.getInt("quantity")
+            });
+        }
+
+        // Text searches return the best SEARCH_LIMIT matches only
+        boolean capped = !queryText.isEmpty();
+        loader.onSuccess(rowCount -> statusLabel.setText(capped && rowCount >= BookDAO.SEARCH_LIMIT
+                        ? "Showing the first " + BookDAO.SEARCH_LIMIT + " matches; refine the search to see the rest"
+                        : ""))
+                .onError(e -> {
                     statusLabel.setText("Search failed");
-                } finally {
-                    searchButton.setEnabled(true);
-                }
-            }
-        };
-        worker.execute();
+                    JOptionPane.showMessageDialog(SearchBookPanel.this,
+                            "Error searching books: " + e.getMessage(),
+                            "Database Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+        searches.run(loader);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,199 @@
+package com.library.gui.admin;
+
+import com.library.dao.QueryControl;
+import com.library.utils.DBConnection;
+
+import javax.swing.*;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Streams rows into a ColumnarTableModel from a background thread.
+ * Rows are buffered into chunks and handed to the EDT with publish/process,
+ * which appends everything that arrived since the last pass in one call, so
+ * the EDT sees a handful of table events however large the result is.
+ * Query results are read with the configured JDBC fetch size and query timeout,
+ * and abort() cancels the statement in flight as well as the worker. Row sources
+ * get the same through the QueryControl they pass on to the DAO.
+ */
+public class StreamingTableLoader extends SwingWorker<Integer, List<Object[]>> {
+    private static final int DEFAULT_CHUNK_SIZE = 500;
+    private static final long MAX_CHUNK_DELAY_MILLIS = 100; // Show the first rows quickly on slow queries
+
+    @FunctionalInterface
+    public interface StatementBinder {
+        void bind(PreparedStatement pstmt) throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface RowReader {
+        Object[] read(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Produces rows by calling the sink once per row, on the worker thread.
+     * Queries it runs should be given the control, so they get the loader's
+     * timeout and abort() can cancel them.
+     */
+    @FunctionalInterface
+    public interface RowSource {
+        void stream(Consumer<Object[]> sink, QueryControl control) throws Exception;
+    }
+
+    // Every column of the result, in select order
+    public static final RowReader ALL_COLUMNS = rs -> {
+        Object[] row = new Object[rs.getMetaData().getColumnCount()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = rs.getObject(i + 1);
+        }
+        return row;
+    };
+
+    private final ColumnarTableModel model;
+    private final RowSource source; // Null for query loaders
+    private String sql;
+    private StatementBinder binder;
+    private RowReader reader;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private final QueryControl control = new QueryControl(DBConnection.getQueryTimeout());
+    private Consumer<Integer> onSuccess = rowCount -> { };
+    private Consumer<Exception> onError = e -> { };
+
+    private List<Object[]> chunk;
+    private long chunkStarted;
+    private int rowCount;
+
+    public StreamingTableLoader(ColumnarTableModel model, RowSource source) {
+        this.model = model;
+        this.source = source;
+    }
+
+    /**
+     * Loader for a query; the binder may be null when the query has no parameters
+     */
+    public static StreamingTableLoader forQuery(ColumnarTableModel model, String sql,
+                                                StatementBinder binder, RowReader reader) {
+        StreamingTableLoader loader = new StreamingTableLoader(model, null);
+        loader.sql = sql;
+        loader.binder = binder;
+        loader.reader = reader;
+        return loader;
+    }
+
+    private void query(Consumer<Object[]> sink) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(DBConnection.getFetchSize());
+            if (binder != null) {
+                binder.bind(pstmt);
+            }
+            control.attach(pstmt);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    sink.accept(reader.read(rs));
+                }
+            }
+        } finally {
+            control.detach();
+        }
+    }
+
+    public StreamingTableLoader chunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    // Seconds before the database gives up on the query, 0 for no limit
+    public StreamingTableLoader queryTimeout(int seconds) {
+        control.setTimeoutSeconds(seconds);
+        return this;
+    }
+
+    /**
+     * Stops the load: nothing more is published, the callbacks are not called, and a
+     * query still running on the database is cancelled so its connection goes back
+     * to the pool instead of waiting for the result
+     */
+    public void abort() {
+        cancel(false);
+        control.cancel();
+    }
+
+    // Called on the EDT with the total row count once everything has been appended
+    public StreamingTableLoader onSuccess(Consumer<Integer> onSuccess) {
+        this.onSuccess = onSuccess;
+        return this;
+    }
+
+    // Called on the EDT with the cause if loading fails; not called when cancelled
+    public StreamingTableLoader onError(Consumer<Exception> onError) {
+        this.onError = onError;
+        return this;
+    }
+
+    @Override
+    protected Integer doInBackground() throws Exception {
+        chunk = new ArrayList<>(chunkSize);
+        chunkStarted = System.currentTimeMillis();
+        if (source != null) {
+            source.stream(this::accept, control);
+        } else {
+            query(this::accept);
+        }
+        if (!chunk.isEmpty()) {
+            publish(chunk);
+        }
+        return rowCount;
+    }
+
+    private void accept(Object[] row) {
+        if (isCancelled()) {
+            throw new CancellationException(); // Unwinds the source and closes its statement
+        }
+        chunk.add(row);
+        rowCount++;
+        if (chunk.size() >= chunkSize || System.currentTimeMillis() - chunkStarted >= MAX_CHUNK_DELAY_MILLIS) {
+            publish(chunk);
+            chunk = new ArrayList<>(chunkSize);
+            chunkStarted = System.currentTimeMillis();
+        }
+    }
+
+    @Override
+    protected void process(List<List<Object[]>> chunks) {
+        if (isCancelled()) {
+            return;
+        }
+        if (chunks.size() == 1) {
+            model.appendRows(chunks.get(0));
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (List<Object[]> published : chunks) {
+            rows.addAll(published);
+        }
+        model.appendRows(rows);
+    }
+
+    @Override
+    protected void done() {
+        if (isCancelled()) {
+            return;
+        }
+        try {
+            onSuccess.accept(get());
+        } catch (ExecutionException e) {
+            onError.accept(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,19 +1,16 @@
 package com.library.gui.admin;
 
 import com.library.dao.BorrowedBookDAO;
-import com.library.model.BorrowedBook;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.sql.SQLException;
-import java.util.List;
 
-public class TransactionsPanel extends JPanel {
+public class TransactionsPanel extends JPanel implements DashboardPanel {
     private JTable transactionsTable;
-    private DefaultTableModel tableModel;
+    private TransactionsTableModel tableModel;
     private JButton refreshButton;
     private JComboBox<String> filterComboBox;
+    private JLabel statusLabel;
 
     public TransactionsPanel() {
         setLayout(new BorderLayout(10, 10));
@@ -43,50 +40,47 @@ public class TransactionsPanel extends JPanel {
         add(filterPanel, BorderLayout.NORTH);
 
         // Table Setup
-        tableModel = new DefaultTableModel(
-                new String[]{"ID", "User", "Book", "Borrow Date", "Due Date", "Return Date", "Status", "Fine"},
-                0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new TransactionsTableModel(BorrowedBookDAO.DEFAULT_PAGE_SIZE, this::showLoadError);
+        statusLabel = new JLabel("", SwingConstants.CENTER);
+        tableModel.setLoadingListener(loading -> {
+            statusLabel.setText(loading ? "Loading transactions..." : "");
+            setCursor(loading ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+        });
 
         transactionsTable = new JTable(tableModel);
         transactionsTable.setRowHeight(30);
         transactionsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-        transactionsTable.setAutoCreateRowSorter(true);
 
         JScrollPane scrollPane = new JScrollPane(transactionsTable);
+        // Fetch the next page as the user scrolls towards the end of what is loaded
+        scrollPane.getViewport().addChangeListener(e -> {
+            Rectangle visible = transactionsTable.getVisibleRect();
+            int lastVisibleRow = transactionsTable.rowAtPoint(new Point(0, visible.y + visible.height - 1));
+            tableModel.ensureLoaded(lastVisibleRow == -1 ? tableModel.getRowCount() - 1 : lastVisibleRow);
+        });
         add(scrollPane, BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
+    }
 
-        // Load initial data
+    @Override
+    public void refresh() {
         loadTransactions();
     }
 
+    @Override
+    public void release() {
+        tableModel.clear();
+    }
+
     private void loadTransactions() {
-        tableModel.setRowCount(0);
         String filter = (String) filterComboBox.getSelectedItem();
+        tableModel.reset(filter);
+    }
 
-        try {
-            List<BorrowedBook> transactions = BorrowedBookDAO.getAllTransactions(filter);
-            for (BorrowedBook transaction : transactions) {
-                tableModel.addRow(new Object[]{
-                        transaction.getId(),
-                        transaction.getUserName(),
-                        transaction.getBookTitle(),
-                        transaction.getBorrowDate(),
-                        transaction.getDueDate(),
-                        transaction.getReturnDate(),
-                        transaction.getStatus(),
-                        transaction.getFine() != null ? "₹" + transaction.getFine() : "No Fine"
-                });
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this,
-                    "Error loading transactions: " + e.getMessage(),
-                    "Database Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+    private void showLoadError(Exception e) {
+        JOptionPane.showMessageDialog(this,
+                "Error loading transactions: " + e.getMessage(),
+                "Database Error",
+                JOptionPane.ERROR_MESSAGE);
     }
-}
\ No newline at end of file
+}
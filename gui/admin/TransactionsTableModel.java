@@ -0,0 +1,207 @@
+package com.library.gui.admin;
+
+import com.library.dao.BorrowedBookDAO;
+import com.library.model.BorrowedBookView;
+import com.library.utils.AsyncDB;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Virtualized table model for the transaction history.
+ * Rows are fetched page by page with keyset pagination as the user scrolls,
+ * and only a bounded number of pages are kept in memory. Evicted pages are
+ * re-fetched from their recorded anchor when they scroll back into view.
+ */
+public class TransactionsTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"ID", "User", "Book", "Borrow Date", "Due Date", "Return Date", "Status", "Fine"};
+    private static final int MAX_RESIDENT_PAGES = 10;
+
+    private final int pageSize;
+    private final Consumer<Exception> errorHandler;
+    private Consumer<Boolean> loadingListener = loading -> { };
+
+    // anchors.get(p) is the last row of page p - 1 (null for the first page)
+    private final List<BorrowedBookView> anchors = new ArrayList<>();
+    private final Map<Integer, List<BorrowedBookView>> pages =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, List<BorrowedBookView>> eldest) {
+                    return size() > MAX_RESIDENT_PAGES;
+                }
+            };
+    private final Set<Integer> loading = new HashSet<>();
+
+    private String filter;
+    private int rowCount;
+    private int loadedPages;
+    private boolean exhausted;
+    private int generation;
+
+    public TransactionsTableModel(int pageSize, Consumer<Exception> errorHandler) {
+        this.pageSize = pageSize;
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Told on the EDT whether any page is being fetched, for a loading indicator
+     */
+    public void setLoadingListener(Consumer<Boolean> loadingListener) {
+        this.loadingListener = loadingListener;
+    }
+
+    /**
+     * Discards all loaded rows and starts over from the newest transaction.
+     * Must be called on the EDT.
+     */
+    public void reset(String filter) {
+        this.filter = filter;
+        clear();
+
+        exhausted = false;
+        anchors.add(null);
+        requestPage(0);
+    }
+
+    /**
+     * Drops all loaded rows without fetching anything until the next reset.
+     * Must be called on the EDT.
+     */
+    public void clear() {
+        generation++;
+        anchors.clear();
+        pages.clear();
+        loading.clear();
+        loadingChanged();
+        rowCount = 0;
+        loadedPages = 0;
+        exhausted = true;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Fetches the next page when the given row is within half a page of the
+     * end of what has been loaded so far. Must be called on the EDT.
+     */
+    public void ensureLoaded(int lastVisibleRow) {
+        if (exhausted || lastVisibleRow < rowCount - pageSize / 2) {
+            return;
+        }
+        requestPage(loadedPages);
+    }
+
+    public boolean isLoading() {
+        return !loading.isEmpty();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        int page = rowIndex / pageSize;
+        List<BorrowedBookView> rows = pages.get(page);
+        if (rows == null) {
+            requestPage(page); // Evicted; show blanks until it is back
+            return null;
+        }
+        int offset = rowIndex % pageSize;
+        if (offset >= rows.size()) {
+            return null;
+        }
+
+        BorrowedBookView transaction = rows.get(offset);
+        return switch (columnIndex) {
+            case 0 -> transaction.getId();
+            case 1 -> transaction.getUserName();
+            case 2 -> transaction.getBookTitle();
+            case 3 -> transaction.getBorrowDate();
+            case 4 -> transaction.getDueDate();
+            case 5 -> transaction.getReturnDate();
+            case 6 -> transaction.getStatus();
+            case 7 -> transaction.getFine() != null ? "₹" + transaction.getFine() : "No Fine";
+            default -> null;
+        };
+    }
+
+    private void requestPage(int page) {
+        if (page >= anchors.size() || pages.containsKey(page) || !loading.add(page)) {
+            return;
+        }
+
+        BorrowedBookView anchor = anchors.get(page);
+        String pageFilter = filter;
+        int requestGeneration = generation;
+
+        loadingChanged();
+        AsyncDB.onEdt(AsyncDB.supply(() -> BorrowedBookDAO.getTransactionsPage(
+                pageFilter,
+                anchor != null ? anchor.getBorrowDate() : null,
+                anchor != null ? anchor.getId() : 0,
+                pageSize)), rows -> {
+            if (requestGeneration != generation) {
+                return; // Superseded by a reset
+            }
+            loading.remove(page);
+            loadingChanged();
+            pageLoaded(page, rows);
+        }, error -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            loading.remove(page);
+            loadingChanged();
+            exhausted = true;
+            errorHandler.accept(error instanceof Exception ? (Exception) error : new RuntimeException(error));
+        });
+    }
+
+    private void loadingChanged() {
+        loadingListener.accept(!loading.isEmpty());
+    }
+
+    private void pageLoaded(int page, List<BorrowedBookView> rows) {
+        pages.put(page, rows);
+        int firstRow = page * pageSize;
+
+        if (page == loadedPages) {
+            // New page at the end of the history
+            loadedPages++;
+            if (rows.size() < pageSize) {
+                exhausted = true;
+            } else {
+                anchors.add(rows.get(rows.size() - 1));
+            }
+            if (!rows.isEmpty()) {
+                rowCount += rows.size();
+                fireTableRowsInserted(firstRow, firstRow + rows.size() - 1);
+            }
+        } else if (!rows.isEmpty()) {
+            // Re-fetched an evicted page
+            fireTableRowsUpdated(firstRow, firstRow + rows.size() - 1);
+        }
+    }
+}
@@ -2,17 +2,20 @@ package com.library.gui.admin;
 
 import com.library.dao.UserDAO;
 import com.library.model.User;
+import com.library.utils.AsyncDB;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
-public class UserManagementPanel extends JPanel {
+public class UserManagementPanel extends JPanel implements DashboardPanel {
     private JTable userTable;
     private JTextField searchField;
     private JButton addButton, editButton, deleteButton, refreshButton;
     private DefaultTableModel model;
+    private int loadRequest;
 
     public UserManagementPanel() {
         setLayout(new BorderLayout());
@@ -65,9 +68,6 @@ public class UserManagementPanel extends JPanel {
 
         add(controlPanel, BorderLayout.SOUTH);
 
-        // Load user data
-        loadUsers();
-
         // Button actions
         addButton.addActionListener(e -> addUser());
         editButton.addActionListener(e -> editUser());
@@ -76,12 +76,51 @@ public class UserManagementPanel extends JPanel {
         searchField.addActionListener(e -> searchUsers());
     }
 
-    public void loadUsers() {
+    @Override
+    public void refresh() {
+        loadUsers();
+    }
+
+    @Override
+    public void release() {
         model.setRowCount(0);
-        List<User> users = UserDAO.getAllUsers();
-        for (User user : users) {
-            model.addRow(new Object[]{user.getId(), user.getName(), user.getEmail(), user.getRole()});
-        }
+    }
+
+    public void loadUsers() {
+        showUsers(AsyncDB.supply(UserDAO::getAllUsers));
+    }
+
+    // Only the latest load or search fills the table
+    private void showUsers(CompletableFuture<List<User>> lookup) {
+        int request = ++loadRequest;
+        setBusy(true);
+        AsyncDB.onEdt(lookup, users -> {
+            if (request != loadRequest) {
+                return;
+            }
+            setBusy(false);
+            model.setRowCount(0);
+            for (User user : users) {
+                model.addRow(new Object[]{user.getId(), user.getName(), user.getEmail(), user.getRole()});
+            }
+        }, error -> {
+            if (request == loadRequest) {
+                showError("Error loading users: ", error);
+            }
+        });
+    }
+
+    // Wait cursor and disabled controls while a database call is running
+    private void setBusy(boolean busy) {
+        setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+        refreshButton.setEnabled(!busy);
+        editButton.setEnabled(!busy);
+        deleteButton.setEnabled(!busy);
+    }
+
+    private void showError(String message, Throwable e) {
+        setBusy(false);
+        JOptionPane.showMessageDialog(this, message + e.getMessage(), "Database Error", JOptionPane.ERROR_MESSAGE);
     }
 
     private void addUser() {
@@ -95,8 +134,11 @@ public class UserManagementPanel extends JPanel {
             return;
         }
         int userId = (int) model.getValueAt(selectedRow, 0);
-        User user = UserDAO.getUserById(userId);
-        new UserFormDialog(user, this);
+        setBusy(true);
+        AsyncDB.onEdt(AsyncDB.supply(() -> UserDAO.getUserById(userId)), user -> {
+            setBusy(false);
+            new UserFormDialog(user, this);
+        }, error -> showError("Error loading user: ", error));
     }
 
     private void deleteUser() {
@@ -108,17 +150,15 @@ public class UserManagementPanel extends JPanel {
         int userId = (int) model.getValueAt(selectedRow, 0);
         int confirm = JOptionPane.showConfirmDialog(this, "Are you sure you want to delete this user?", "Confirm Delete", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
-            UserDAO.deleteUser(userId);
-            loadUsers();
+            setBusy(true);
+            AsyncDB.onEdt(AsyncDB.run(() -> UserDAO.deleteUser(userId)),
+                    done -> loadUsers(),
+                    error -> showError("Error deleting user: ", error));
         }
     }
 
     private void searchUsers() {
         String query = searchField.getText().trim();
-        model.setRowCount(0);
-        List<User> users = UserDAO.searchUsers(query);
-        for (User user : users) {
-            model.addRow(new Object[]{user.getId(), user.getName(), user.getEmail(), user.getRole()});
-        }
+        showUsers(AsyncDB.supply(() -> UserDAO.searchUsers(query)));
     }
 }
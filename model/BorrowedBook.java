@@ -2,10 +2,6 @@ package com.library.model;
 
 import java.sql.Timestamp;
 import java.math.BigDecimal;
-import java.util.Objects;
-
-import static com.library.dao.BookDAO.getBookById;
-import static com.library.dao.UserDAO.getUserById;
 
 public class BorrowedBook {
     private int id;
@@ -99,11 +95,4 @@ public class BorrowedBook {
     public void setStatus(Status status) {
         this.status = status;
     }
-
-    public String getUserName() {
-        return Objects.requireNonNull(getUserById(userId)).getName();
-    }
-    public String getBookTitle() {
-        return Objects.requireNonNull(getBookById(bookId)).getTitle();
-    }
 }
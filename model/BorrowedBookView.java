@@ -0,0 +1,88 @@
+package com.library.model;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+/**
+ * Read-only projection of a borrow record joined with its user and book.
+ * Filled by the DAO in a single pass over the join, so listing screens
+ * never need to look up the user or book again per row.
+ * Timestamps are mutable, so they are copied on the way in and out.
+ */
+public final class BorrowedBookView {
+    private final int id;
+    private final int userId;
+    private final int bookId;
+    private final String userName;
+    private final String bookTitle;
+    private final Timestamp borrowDate;
+    private final Timestamp dueDate;
+    private final Timestamp returnDate; // Can be null
+    private final BigDecimal fine;
+    private final BorrowedBook.Status status;
+
+    public BorrowedBookView(int id, int userId, int bookId, String userName, String bookTitle,
+                            Timestamp borrowDate, Timestamp dueDate, Timestamp returnDate,
+                            BigDecimal fine, BorrowedBook.Status status) {
+        this.id = id;
+        this.userId = userId;
+        this.bookId = bookId;
+        this.userName = userName;
+        this.bookTitle = bookTitle;
+        this.borrowDate = copy(borrowDate);
+        this.dueDate = copy(dueDate);
+        this.returnDate = copy(returnDate);
+        this.fine = (fine != null) ? fine : BigDecimal.ZERO; // Ensure fine is never null
+        this.status = status;
+    }
+
+    // Getters
+    public int getId() {
+        return id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public int getBookId() {
+        return bookId;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public String getBookTitle() {
+        return bookTitle;
+    }
+
+    public Timestamp getBorrowDate() {
+        return copy(borrowDate);
+    }
+
+    public Timestamp getDueDate() {
+        return copy(dueDate);
+    }
+
+    public Timestamp getReturnDate() {
+        return copy(returnDate);
+    }
+
+    public BigDecimal getFine() {
+        return fine;
+    }
+
+    public BorrowedBook.Status getStatus() {
+        return status;
+    }
+
+    private static Timestamp copy(Timestamp timestamp) {
+        if (timestamp == null) {
+            return null;
+        }
+        Timestamp copy = new Timestamp(timestamp.getTime());
+        copy.setNanos(timestamp.getNanos());
+        return copy;
+    }
+}
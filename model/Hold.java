@@ -0,0 +1,97 @@
+package com.library.model;
+
+import java.sql.Timestamp;
+
+public class Hold {
+    private int id;
+    private int userId;
+    private int bookId;
+    private int priority; // Higher goes first; equal priorities are first come, first served
+    private Timestamp placedAt;
+    private Status status;
+    private Timestamp readyAt; // Set once a copy is set aside
+    private Timestamp expiresAt; // Pickup deadline of a ready hold
+
+    // WAITING for a copy, READY with a copy set aside, then FULFILLED by the borrow, CANCELLED or EXPIRED
+    public enum Status {
+        WAITING, READY, FULFILLED, CANCELLED, EXPIRED
+    }
+
+    // Constructor
+    public Hold(int id, int userId, int bookId, int priority, Timestamp placedAt, Status status,
+                Timestamp readyAt, Timestamp expiresAt) {
+        this.id = id;
+        this.userId = userId;
+        this.bookId = bookId;
+        this.priority = priority;
+        this.placedAt = placedAt;
+        this.status = status;
+        this.readyAt = readyAt;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and Setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public int getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(int bookId) {
+        this.bookId = bookId;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public Timestamp getPlacedAt() {
+        return placedAt;
+    }
+
+    public void setPlacedAt(Timestamp placedAt) {
+        this.placedAt = placedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Timestamp getReadyAt() {
+        return readyAt;
+    }
+
+    public void setReadyAt(Timestamp readyAt) {
+        this.readyAt = readyAt;
+    }
+
+    public Timestamp getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Timestamp expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
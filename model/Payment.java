@@ -0,0 +1,72 @@
+package com.library.model;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+public class Payment {
+    private int id;
+    private int userId;
+    private BigDecimal amount;
+    private Timestamp paymentDate;
+    private String method;
+    private String description;
+
+    // Constructor
+    public Payment(int id, int userId, BigDecimal amount, Timestamp paymentDate, String method, String description) {
+        this.id = id;
+        this.userId = userId;
+        this.amount = amount;
+        this.paymentDate = paymentDate;
+        this.method = method;
+        this.description = description;
+    }
+
+    // Getters and Setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public Timestamp getPaymentDate() {
+        return paymentDate;
+    }
+
+    public void setPaymentDate(Timestamp paymentDate) {
+        this.paymentDate = paymentDate;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,52 @@
+package com.library.model;
+
+import java.math.BigDecimal;
+
+/**
+ * A user's running fine and payment totals, as kept on the users row.
+ * Outstanding is what fines_assessed less fines_paid should come to.
+ */
+public final class UserLedger {
+    private final int userId;
+    private final BigDecimal finesAssessed;
+    private final BigDecimal finesPaid;
+    private final BigDecimal outstanding;
+    private final BigDecimal paymentsTotal;
+
+    public UserLedger(int userId, BigDecimal finesAssessed, BigDecimal finesPaid,
+                      BigDecimal outstanding, BigDecimal paymentsTotal) {
+        this.userId = userId;
+        this.finesAssessed = finesAssessed;
+        this.finesPaid = finesPaid;
+        this.outstanding = outstanding;
+        this.paymentsTotal = paymentsTotal;
+    }
+
+    // Getters
+    public int getUserId() {
+        return userId;
+    }
+
+    public BigDecimal getFinesAssessed() {
+        return finesAssessed;
+    }
+
+    public BigDecimal getFinesPaid() {
+        return finesPaid;
+    }
+
+    public BigDecimal getOutstanding() {
+        return outstanding;
+    }
+
+    // All payments received, fines or otherwise
+    public BigDecimal getPaymentsTotal() {
+        return paymentsTotal;
+    }
+
+    @Override
+    public String toString() {
+        return "UserLedger{userId=" + userId + ", assessed=" + finesAssessed + ", paid=" + finesPaid +
+                ", outstanding=" + outstanding + ", payments=" + paymentsTotal + "}";
+    }
+}
@@ -0,0 +1,360 @@
+package com.library.tools;
+
+import com.library.dao.BookDAO;
+import com.library.dao.BorrowedBookDAO;
+import com.library.dao.PaymentDAO;
+import com.library.dao.ReportStatsDAO;
+import com.library.dao.UserDAO;
+import com.library.model.Book;
+import com.library.model.BorrowedBook;
+import com.library.model.Payment;
+import com.library.model.User;
+import com.library.utils.DBConnection;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.library.gui.admin.OverdueBooksPanel.FINE_PER_DAY;
+
+/**
+ * Bulk-loads a synthetic catalog, user base and circulation history into the
+ * configured database, for load testing at production scale.
+ * <p>
+ * Popularity is skewed (a small share of books and users account for most
+ * borrows), borrow dates run chronologically so IDs follow time as they do in
+ * production, a share of returns are late and carry fines, and part of those
+ * fines are paid. Open borrows respect the borrow limit and stock, and book
+ * availability, users' active_borrows and fine ledgers are left consistent.
+ * <p>
+ * Rows go through the DAOs' multi-row insert paths in chunks of CHUNK_SIZE,
+ * one transaction per chunk.
+ * <pre>
+ * java com.library.tools.DataGenerator --users 200000 --books 500000 --history 10000000
+ * </pre>
+ */
+public class DataGenerator {
+    private static final Logger logger = Logger.getLogger(DataGenerator.class.getName());
+
+    public static final List<String> TITLE_WORDS = List.of(
+            "shadow", "river", "garden", "winter", "empire", "secret", "silent", "midnight", "ocean", "journey",
+            "kingdom", "mirror", "forest", "golden", "broken", "hidden", "summer", "storm", "crown", "stone",
+            "library", "voyage", "dragon", "memory", "island", "letter", "paper", "glass", "thunder", "harbor",
+            "history", "science", "mountain", "desert", "city", "night", "fire", "light", "house", "road");
+    private static final String[] GENRES = {"Fiction", "Mystery", "Fantasy", "Science", "History",
+            "Biography", "Poetry", "Romance", "Thriller", "Children"};
+    private static final String[] FIRST_NAMES = {"Asha", "Ravi", "Maya", "Arjun", "Leela", "Vikram", "Nisha",
+            "Kiran", "Dev", "Anya", "Rohan", "Priya", "Sameer", "Tara", "Neel", "Isha"};
+    private static final String[] LAST_NAMES = {"Sharma", "Patel", "Iyer", "Khan", "Das", "Menon", "Rao",
+            "Gupta", "Nair", "Bose", "Singh", "Joshi", "Reddy", "Kapoor"};
+    private static final String[] PAYMENT_METHODS = {"Cash", "Credit Card", "Debit Card", "UPI"};
+    // SHA-256 of "password", so generated accounts can log in
+    private static final String PASSWORD_HASH = "5e884898da28047151d0e56f8dc6292773603d0d6aabbdd62a11ef721d1542d8";
+
+    private static final int CHUNK_SIZE = 10000;
+    private static final int LOAN_DAYS = 14;
+    private static final int OPEN_WINDOW_DAYS = 30; // Borrows older than this have all been returned
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final Random random;
+    private int historyDays = 3 * 365;
+    private int maxOpenPerUser = BorrowedBookDAO.MAX_BORROW_LIMIT;
+    private int minCopiesOnShelf = 0;
+    private double lateReturnRate = 0.15;
+    private double finePaidRate = 0.6;
+
+    public DataGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public void setHistoryDays(int historyDays) {
+        this.historyDays = historyDays;
+    }
+
+    public void setMaxOpenPerUser(int maxOpenPerUser) {
+        this.maxOpenPerUser = maxOpenPerUser;
+    }
+
+    // Copies of each book that open borrows must leave on the shelf
+    public void setMinCopiesOnShelf(int minCopiesOnShelf) {
+        this.minCopiesOnShelf = minCopiesOnShelf;
+    }
+
+    public void setLateReturnRate(double lateReturnRate) {
+        this.lateReturnRate = lateReturnRate;
+    }
+
+    public void setFinePaidRate(double finePaidRate) {
+        this.finePaidRate = finePaidRate;
+    }
+
+    /**
+     * Generates and loads everything through a single pooled connection.
+     * Existing rows are left alone; generated emails and ISBNs start past them.
+     */
+    public void generate(int userCount, int bookCount, int historySize) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                long start = System.currentTimeMillis();
+                int[] userIds = generateUsers(conn, userCount);
+                int[] bookIds = new int[bookCount];
+                int[] quantities = new int[bookCount];
+                generateBooks(conn, bookIds, quantities);
+                generateHistory(conn, userIds, bookIds, quantities, historySize);
+                logger.info(String.format("Generated %d users, %d books and %d borrow records in %d s",
+                        userCount, bookCount, historySize, (System.currentTimeMillis() - start) / 1000));
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+
+        // Bulk inserts bypass the incremental rollups
+        ReportStatsDAO.rebuild();
+    }
+
+    private int[] generateUsers(Connection conn, int userCount) throws SQLException {
+        int firstNumber = maxId(conn, "users") + 1;
+        long now = System.currentTimeMillis();
+        int[] userIds = new int[userCount];
+        List<User> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        for (int i = 0; i < userCount; i++) {
+            String name = pick(FIRST_NAMES) + " " + pick(LAST_NAMES);
+            Timestamp createdAt = new Timestamp(now - (long) random.nextInt(historyDays + 365) * DAY_MILLIS);
+            chunk.add(new User(0, name, "user" + (firstNumber + i) + "@loadtest.example", PASSWORD_HASH,
+                    "user", createdAt));
+            if (chunk.size() == CHUNK_SIZE || i == userCount - 1) {
+                UserDAO.insertUsers(chunk, conn);
+                conn.commit();
+                for (int j = 0; j < chunk.size(); j++) {
+                    userIds[i - chunk.size() + 1 + j] = chunk.get(j).getId();
+                }
+                chunk.clear();
+                logProgress("users", i + 1, userCount);
+            }
+        }
+        return userIds;
+    }
+
+    private void generateBooks(Connection conn, int[] bookIds, int[] quantities) throws SQLException {
+        int bookCount = bookIds.length;
+        long firstIsbn = maxId(conn, "books") + 1L;
+        long now = System.currentTimeMillis();
+        int authorCount = Math.max(1, bookCount / 8); // Authors typically have several books
+        List<Book> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        for (int i = 0; i < bookCount; i++) {
+            // Low indexes are the popular titles (see pickSkewed), so they get extra copies
+            int quantity = minCopiesOnShelf + 1 + random.nextInt(3) + (i < bookCount / 100 ? 3 : 0);
+            quantities[i] = quantity;
+            int author = random.nextInt(authorCount);
+            String title = capitalize(pick(TITLE_WORDS)) + " " + (random.nextBoolean() ? "of the " : "and ")
+                    + capitalize(pick(TITLE_WORDS)) + " " + (i + 1);
+            chunk.add(new Book(0, title,
+                    FIRST_NAMES[author % FIRST_NAMES.length] + " " + LAST_NAMES[(author / FIRST_NAMES.length) % LAST_NAMES.length]
+                            + (author >= FIRST_NAMES.length * LAST_NAMES.length ? " " + author : ""),
+                    pick(GENRES),
+                    String.format("979%010d", firstIsbn + i),
+                    capitalize(pick(TITLE_WORDS)) + " Press",
+                    quantity,
+                    quantity,
+                    new Timestamp(now - (long) random.nextInt(historyDays + 365) * DAY_MILLIS)));
+            if (chunk.size() == CHUNK_SIZE || i == bookCount - 1) {
+                BookDAO.insertBooks(chunk, conn);
+                conn.commit();
+                for (int j = 0; j < chunk.size(); j++) {
+                    bookIds[i - chunk.size() + 1 + j] = chunk.get(j).getBookId();
+                }
+                chunk.clear();
+                logProgress("books", i + 1, bookCount);
+            }
+        }
+    }
+
+    private void generateHistory(Connection conn, int[] userIds, int[] bookIds, int[] quantities,
+                                 int historySize) throws SQLException {
+        int[] openPerUser = new int[userIds.length];
+        int[] openPerBook = new int[bookIds.length];
+        long[] unpaidPerUser = new long[userIds.length];
+        long[] paidPerUser = new long[userIds.length];
+        long now = System.currentTimeMillis();
+        long start = now - historyDays * DAY_MILLIS;
+        long span = now - start;
+
+        List<BorrowedBook> records = new ArrayList<>(CHUNK_SIZE);
+        List<Payment> payments = new ArrayList<>();
+
+        for (int i = 0; i < historySize; i++) {
+            int user = pickSkewed(userIds.length, 2.0);
+            int book = pickSkewed(bookIds.length, 3.0);
+            // Chronological with jitter, so IDs follow borrow dates
+            long borrowTime = Math.min(now, start + (long) ((double) i / historySize * span)
+                    + random.nextInt((int) TimeUnit.HOURS.toMillis(6)));
+            long dueTime = borrowTime + LOAN_DAYS * DAY_MILLIS;
+            long ageDays = (now - borrowTime) / DAY_MILLIS;
+
+            boolean open = ageDays < OPEN_WINDOW_DAYS
+                    && random.nextDouble() < 0.8 * (1.0 - (double) ageDays / OPEN_WINDOW_DAYS)
+                    && openPerUser[user] < maxOpenPerUser
+                    && openPerBook[book] < quantities[book] - minCopiesOnShelf;
+
+            BorrowedBook record;
+            if (open) {
+                openPerUser[user]++;
+                openPerBook[book]++;
+                record = new BorrowedBook(0, userIds[user], bookIds[book], new Timestamp(borrowTime),
+                        new Timestamp(dueTime), null, BigDecimal.ZERO, BorrowedBook.Status.BORROWED);
+            } else {
+                long returnTime = random.nextDouble() < lateReturnRate
+                        ? dueTime + (1 + geometric(6.0)) * DAY_MILLIS
+                        : borrowTime + (1 + random.nextInt(LOAN_DAYS)) * DAY_MILLIS;
+                returnTime = Math.min(returnTime, now);
+                long daysLate = Math.max(0, (returnTime - dueTime) / DAY_MILLIS);
+                BigDecimal fine = BigDecimal.valueOf(daysLate * FINE_PER_DAY);
+
+                if (daysLate > 0 && random.nextDouble() < finePaidRate) {
+                    long paidTime = Math.min(now, returnTime + random.nextInt(7) * DAY_MILLIS);
+                    payments.add(new Payment(0, userIds[user], fine, new Timestamp(paidTime),
+                            pick(PAYMENT_METHODS), "Late return fine payment"));
+                    paidPerUser[user] += fine.longValue();
+                    fine = BigDecimal.ZERO; // Paid fines are cleared on the record
+                }
+                unpaidPerUser[user] += fine.longValue();
+                record = new BorrowedBook(0, userIds[user], bookIds[book], new Timestamp(borrowTime),
+                        new Timestamp(dueTime), new Timestamp(returnTime), fine, BorrowedBook.Status.RETURNED);
+            }
+            records.add(record);
+
+            if (records.size() == CHUNK_SIZE || i == historySize - 1) {
+                BorrowedBookDAO.insertBorrowRecords(records, conn);
+                PaymentDAO.insertPayments(payments, conn);
+                conn.commit();
+                records.clear();
+                payments.clear();
+                logProgress("borrow records", i + 1, historySize);
+            }
+        }
+
+        // Open overdue borrows are left for the first fine accrual run to charge
+        syncCounters(conn, "UPDATE books SET available = available - ? WHERE id = ?", bookIds, toLongs(openPerBook));
+        syncCounters(conn, "UPDATE users SET active_borrows = active_borrows + ? WHERE id = ?", userIds, toLongs(openPerUser));
+        syncCounters(conn, "UPDATE users SET fine_balance = fine_balance + ?, fines_assessed = fines_assessed + ? " +
+                "WHERE id = ?", userIds, unpaidPerUser);
+        // Every generated payment settles a fine
+        syncCounters(conn, "UPDATE users SET fines_paid = fines_paid + ?, fines_assessed = fines_assessed + ?, " +
+                "payments_total = payments_total + ? WHERE id = ?", userIds, paidPerUser);
+    }
+
+    // Applies per-row amounts to denormalized counters, in batches, skipping zeros.
+    // Every parameter but the last (the id) takes the amount.
+    private static void syncCounters(Connection conn, String sql, int[] ids, long[] amounts) throws SQLException {
+        int idParam = (int) sql.chars().filter(c -> c == '?').count();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int pending = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (amounts[i] > 0) {
+                    for (int param = 1; param < idParam; param++) {
+                        pstmt.setLong(param, amounts[i]);
+                    }
+                    pstmt.setInt(idParam, ids[i]);
+                    pstmt.addBatch();
+                    if (++pending == CHUNK_SIZE) {
+                        pstmt.executeBatch();
+                        pending = 0;
+                    }
+                }
+            }
+            pstmt.executeBatch();
+        }
+        conn.commit();
+    }
+
+    private static long[] toLongs(int[] values) {
+        long[] longs = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            longs[i] = values[i];
+        }
+        return longs;
+    }
+
+    private static int maxId(Connection conn, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    // Index in [0, size) biased towards 0; higher skew concentrates more on the head
+    private int pickSkewed(int size, double skew) {
+        return Math.min(size - 1, (int) (size * Math.pow(random.nextDouble(), skew)));
+    }
+
+    // Geometric number of extra days with the given mean, capped at ten weeks
+    private long geometric(double mean) {
+        return Math.min(70, (long) (Math.log(1.0 - random.nextDouble()) * -mean));
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private String pick(List<String> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static void logProgress(String what, int done, int total) {
+        if (done == total || done % (CHUNK_SIZE * 10) == 0) {
+            logger.info(String.format("Loaded %d/%d %s", done, total, what));
+        }
+    }
+
+    public static void main(String[] args) {
+        int users = 10000;
+        int books = 50000;
+        int history = 1000000;
+        long seed = 42;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--users" -> users = Integer.parseInt(args[i + 1]);
+                case "--books" -> books = Integer.parseInt(args[i + 1]);
+                case "--history" -> history = Integer.parseInt(args[i + 1]);
+                case "--seed" -> seed = Long.parseLong(args[i + 1]);
+                default -> {
+                    System.err.println("Unknown option: " + args[i]);
+                    System.err.println("Usage: DataGenerator [--users N] [--books N] [--history N] [--seed N]");
+                    System.exit(2);
+                }
+            }
+        }
+
+        try {
+            new DataGenerator(seed).generate(users, books, history);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Data generation failed", e);
+            System.exit(1);
+        } finally {
+            DBConnection.shutdown();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.library.tools;
+
+import com.library.dao.ReportStatsDAO;
+import com.library.utils.DBConnection;
+
+import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Backfills the report rollup tables from the borrow history, e.g. after
+ * bulk-loading data (the V4 migration runs it once when it creates them):
+ * <pre>
+ * java com.library.tools.RebuildReportStats
+ * </pre>
+ */
+public class RebuildReportStats {
+    private static final Logger logger = Logger.getLogger(RebuildReportStats.class.getName());
+
+    public static void main(String[] args) {
+        try {
+            ReportStatsDAO.rebuild();
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Rebuilding report rollups failed", e);
+            System.exit(1);
+        } finally {
+            DBConnection.shutdown();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.library.tools;
+
+import com.library.dao.LedgerDAO;
+import com.library.utils.DBConnection;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Checks every user's fine ledger against borrowed_books and payments, and with
+ * --repair rewrites the ones that disagree. Exits with status 2 if mismatches were found.
+ * <pre>
+ * java com.library.tools.ReconcileLedgers [--repair]
+ * </pre>
+ */
+public class ReconcileLedgers {
+    private static final Logger logger = Logger.getLogger(ReconcileLedgers.class.getName());
+
+    public static void main(String[] args) {
+        boolean repair = args.length > 0 && "--repair".equals(args[0]);
+        int status = 0;
+        try {
+            List<LedgerDAO.Mismatch> mismatches = LedgerDAO.reconcile(repair);
+            System.out.println(mismatches.isEmpty()
+                    ? "All ledgers match"
+                    : mismatches.size() + " ledgers mismatched" + (repair ? ", repaired" : ""));
+            status = mismatches.isEmpty() ? 0 : 2;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Ledger reconciliation failed", e);
+            status = 1;
+        } finally {
+            DBConnection.shutdown();
+        }
+        System.exit(status);
+    }
+}
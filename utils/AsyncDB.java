@@ -0,0 +1,108 @@
+package com.library.utils;
+
+import javax.swing.*;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs database work off the Swing event thread and hands results back to it.
+ * Work runs on virtual threads when the JDK has them and on a small daemon pool
+ * otherwise; either way at most MAX_CONCURRENT calls hold a connection at once,
+ * leaving the rest of the pool to the SwingWorkers and background jobs.
+ */
+public class AsyncDB {
+    private static final Logger logger = Logger.getLogger(AsyncDB.class.getName());
+    private static final int MAX_CONCURRENT = 8;
+
+    // Runs callbacks on the EDT, for use with the *Async methods of CompletableFuture
+    public static final Executor EDT = SwingUtilities::invokeLater;
+
+    private static final Semaphore permits = new Semaphore(MAX_CONCURRENT);
+    private static final ExecutorService executor = createExecutor();
+
+    @FunctionalInterface
+    public interface Query<T> {
+        T call() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Update {
+        void run() throws Exception;
+    }
+
+    private static ExecutorService createExecutor() {
+        try {
+            // Looked up reflectively so the code still runs on JDKs before 21
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            logger.log(Level.FINE, "Running database calls on virtual threads");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            return Executors.newFixedThreadPool(MAX_CONCURRENT, runnable -> {
+                Thread thread = new Thread(runnable, "db-async-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Runs a query in the background
+     * @return Future completed with the result, or exceptionally with whatever the query threw
+     */
+    public static <T> CompletableFuture<T> supply(Query<T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return query.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    public static CompletableFuture<Void> run(Update update) {
+        return supply(() -> {
+            update.run();
+            return null;
+        });
+    }
+
+    /**
+     * Calls one of the handlers on the EDT once the future completes.
+     * The error handler gets the exception the work threw, not the CompletionException around it.
+     */
+    public static <T> void onEdt(CompletableFuture<T> future, Consumer<? super T> onSuccess,
+                                 Consumer<Throwable> onError) {
+        future.whenCompleteAsync((result, error) -> {
+            if (error == null) {
+                onSuccess.accept(result);
+            } else {
+                onError.accept(unwrap(error));
+            }
+        }, EDT);
+    }
+
+    public static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
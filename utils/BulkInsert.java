@@ -0,0 +1,103 @@
+package com.library.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Multi-row INSERT writer for bulk loads.
+ * Rows are sent as INSERT ... VALUES (...), (...), ... statements of up to
+ * ROWS_PER_STATEMENT rows each, which costs one round trip and one parse per
+ * chunk instead of one per row. The statement for a full chunk is prepared
+ * once and reused; only the trailing partial chunk gets its own statement.
+ */
+public final class BulkInsert<T> {
+    private static final int ROWS_PER_STATEMENT = 1000;
+    private static final int MAX_PLACEHOLDERS = 65535; // MySQL protocol limit per statement
+
+    /**
+     * Binds one row's values starting at the given 1-based parameter index
+     */
+    @FunctionalInterface
+    public interface Binder<T> {
+        void bind(PreparedStatement pstmt, int index, T row) throws SQLException;
+    }
+
+    private final String insertPrefix;
+    private final String rowPlaceholders;
+    private final int columnCount;
+    private final int rowsPerStatement;
+    private final Binder<T> binder;
+
+    public BulkInsert(String table, String[] columns, Binder<T> binder) {
+        this.insertPrefix = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ";
+        this.rowPlaceholders = "(" + "?, ".repeat(columns.length - 1) + "?)";
+        this.columnCount = columns.length;
+        this.rowsPerStatement = Math.min(ROWS_PER_STATEMENT, MAX_PLACEHOLDERS / columns.length);
+        this.binder = binder;
+    }
+
+    /**
+     * Inserts all rows on the given connection. Transaction handling is left to the caller.
+     * @param generatedKeys if not null, receives the generated key of each row, in row order
+     * @return number of rows inserted
+     */
+    public int insert(Connection conn, List<T> rows, int[] generatedKeys) throws SQLException {
+        int inserted = 0;
+        int fullChunks = rows.size() / rowsPerStatement;
+
+        if (fullChunks > 0) {
+            try (PreparedStatement pstmt = prepare(conn, rowsPerStatement, generatedKeys != null)) {
+                for (int chunk = 0; chunk < fullChunks; chunk++) {
+                    inserted += execute(pstmt, rows, chunk * rowsPerStatement, rowsPerStatement, generatedKeys);
+                }
+            }
+        }
+
+        int remaining = rows.size() - inserted;
+        if (remaining > 0) {
+            try (PreparedStatement pstmt = prepare(conn, remaining, generatedKeys != null)) {
+                inserted += execute(pstmt, rows, inserted, remaining, generatedKeys);
+            }
+        }
+        return inserted;
+    }
+
+    private PreparedStatement prepare(Connection conn, int rowCount, boolean returnKeys) throws SQLException {
+        StringBuilder sql = new StringBuilder(insertPrefix.length() + rowCount * (rowPlaceholders.length() + 2));
+        sql.append(insertPrefix);
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(rowPlaceholders);
+        }
+        return returnKeys
+                ? conn.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS)
+                : conn.prepareStatement(sql.toString());
+    }
+
+    private int execute(PreparedStatement pstmt, List<T> rows, int from, int count,
+                        int[] generatedKeys) throws SQLException {
+        for (int i = 0; i < count; i++) {
+            binder.bind(pstmt, i * columnCount + 1, rows.get(from + i));
+        }
+        int affected = pstmt.executeUpdate();
+
+        if (generatedKeys != null) {
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                int row = from;
+                while (keys.next() && row < from + count) {
+                    generatedKeys[row++] = keys.getInt(1);
+                }
+                if (row != from + count) {
+                    throw new SQLException("Expected " + count + " generated keys, got " + (row - from));
+                }
+            }
+        }
+        return affected;
+    }
+}
@@ -2,22 +2,45 @@ package com.library.utils;
 
 import java.sql.*;
 import java.util.Properties;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.PrintWriter;
 import org.apache.commons.dbcp2.BasicDataSource;
 
+import javax.management.StandardMBean;
+
 public class DBConnection {
     private static BasicDataSource dataSource;
+    // Pool defaults, each overridable in config.properties (see initializeDataSource)
     private static final int INITIAL_POOL_SIZE = 5;
     private static final int MAX_POOL_SIZE = 20;
     private static final long MAX_WAIT_MILLIS = 5000; // 5 seconds
+    private static final long VALIDATION_INTERVAL_MILLIS = 30000; // Idle connections are checked this often
+    private static final long MIN_EVICTABLE_IDLE_MILLIS = 60000; // 1 minute
+    private static final int ABANDONED_TIMEOUT_SECONDS = 300; // Longer than any report or export holds a connection
+    private static final int MAX_OPEN_PREPARED_STATEMENTS = 100; // Per connection
+    private static final int MYSQL_STATEMENT_CACHE_SIZE = 250; // Per connection, in the driver
+    private static final String DEFAULT_DRIVER = "com.mysql.cj.jdbc.Driver";
+    private static final int DEFAULT_FETCH_SIZE = 500;
+    private static int fetchSize = DEFAULT_FETCH_SIZE;
+    private static final int DEFAULT_QUERY_TIMEOUT_SECONDS = 30;
+    private static int queryTimeoutSeconds = DEFAULT_QUERY_TIMEOUT_SECONDS;
+    private static final long DEFAULT_METRICS_LOG_SECONDS = 300;
+    private static boolean metricsEnabled = true;
+    private static final long DEFAULT_AVAILABILITY_FLUSH_MILLIS = 1000;
+    private static boolean inMemoryAvailability = false;
+    private static long availabilityFlushMillis = DEFAULT_AVAILABILITY_FLUSH_MILLIS;
+    private static final Metrics.Timer borrowTimer = Metrics.timer("pool.borrow");
+    // System property naming a config file to use instead of config.properties on the classpath
+    public static final String CONFIG_PATH_PROPERTY = "library.config";
 
     static {
         initializeDataSource();
     }
 
     private static void initializeDataSource() {
-        try (InputStream input = DBConnection.class.getClassLoader()
-                .getResourceAsStream("config.properties")) {
+        try (InputStream input = openConfig()) {
 
             if (input == null) {
                 throw new RuntimeException("config.properties not found in classpath");
@@ -40,17 +63,74 @@ public class DBConnection {
             dataSource.setUrl(url);
             dataSource.setUsername(username);
             dataSource.setPassword(password);
-            dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
+            dataSource.setDriverClassName(prop.getProperty("db.driver", DEFAULT_DRIVER));
+            fetchSize = intProperty(prop, "db.fetchSize", DEFAULT_FETCH_SIZE);
+            queryTimeoutSeconds = intProperty(prop, "db.queryTimeoutSeconds", DEFAULT_QUERY_TIMEOUT_SECONDS);
+            metricsEnabled = Boolean.parseBoolean(prop.getProperty("db.metrics", "true"));
+            inMemoryAvailability = Boolean.parseBoolean(prop.getProperty("db.availability.inMemory", "false"));
+            availabilityFlushMillis = longProperty(prop, "db.availability.flushMillis", DEFAULT_AVAILABILITY_FLUSH_MILLIS);
 
             // Connection pool configuration
-            dataSource.setInitialSize(INITIAL_POOL_SIZE);
-            dataSource.setMaxTotal(MAX_POOL_SIZE);
-            dataSource.setMaxWaitMillis(MAX_WAIT_MILLIS);
-            dataSource.setValidationQuery("SELECT 1");
-            dataSource.setTestOnBorrow(true);
+            int maxTotal = intProperty(prop, "db.pool.maxTotal", MAX_POOL_SIZE);
+            dataSource.setInitialSize(intProperty(prop, "db.pool.initialSize", INITIAL_POOL_SIZE));
+            dataSource.setMaxTotal(maxTotal);
+            dataSource.setMaxIdle(intProperty(prop, "db.pool.maxIdle", maxTotal));
+            dataSource.setMinIdle(intProperty(prop, "db.pool.minIdle", 0));
+            dataSource.setMaxWaitMillis(longProperty(prop, "db.pool.maxWaitMillis", MAX_WAIT_MILLIS));
+
+            // Validation: with no validation query DBCP uses the driver's JDBC4 isValid().
+            // Connections are checked by the evictor once idle for the validation interval
+            // rather than on every borrow, which would cost a round trip per getConnection.
+            String validationQuery = prop.getProperty("db.pool.validationQuery");
+            if (validationQuery != null && !validationQuery.isBlank()) {
+                dataSource.setValidationQuery(validationQuery);
+            }
+            dataSource.setValidationQueryTimeout(intProperty(prop, "db.pool.validationTimeoutSeconds", 5));
+            dataSource.setTestOnBorrow(Boolean.parseBoolean(prop.getProperty("db.pool.testOnBorrow", "false")));
             dataSource.setTestWhileIdle(true);
-            dataSource.setTimeBetweenEvictionRunsMillis(30000); // 30 seconds
-            dataSource.setMinEvictableIdleTimeMillis(60000); // 1 minute
+            dataSource.setTimeBetweenEvictionRunsMillis(
+                    longProperty(prop, "db.pool.validationIntervalMillis", VALIDATION_INTERVAL_MILLIS));
+            dataSource.setMinEvictableIdleTimeMillis(
+                    longProperty(prop, "db.pool.minEvictableIdleMillis", MIN_EVICTABLE_IDLE_MILLIS));
+
+            // Prepared statements are pooled per connection, so repeated DAO queries skip the prepare.
+            // The DAOs keep their SQL in constants, which the pool keys its statements on.
+            dataSource.setPoolPreparedStatements(
+                    Boolean.parseBoolean(prop.getProperty("db.pool.poolPreparedStatements", "true")));
+            dataSource.setMaxOpenPreparedStatements(
+                    intProperty(prop, "db.pool.maxOpenPreparedStatements", MAX_OPEN_PREPARED_STATEMENTS));
+
+            // On MySQL, prepare on the server so a pooled statement is parsed and planned once,
+            // and let the driver keep the handles of statements the pool has evicted
+            if (url.startsWith("jdbc:mysql:")
+                    && Boolean.parseBoolean(prop.getProperty("db.mysql.serverPrepStmts", "true"))) {
+                dataSource.addConnectionProperty("useServerPrepStmts", "true");
+                dataSource.addConnectionProperty("cachePrepStmts", "true");
+                dataSource.addConnectionProperty("prepStmtCacheSize",
+                        String.valueOf(intProperty(prop, "db.mysql.prepStmtCacheSize", MYSQL_STATEMENT_CACHE_SIZE)));
+                dataSource.addConnectionProperty("prepStmtCacheSqlLimit", "4096"); // Longest DAO statement fits
+            }
+
+            // Leak detection: a connection held past the abandoned timeout is reclaimed, and with
+            // logAbandoned the stack trace of the code that borrowed it is printed so the leak can be found.
+            // Capturing the trace costs an exception per borrow; set db.pool.logAbandoned=false if that shows up.
+            if (Boolean.parseBoolean(prop.getProperty("db.pool.removeAbandoned", "true"))) {
+                dataSource.setRemoveAbandonedOnMaintenance(true);
+                dataSource.setRemoveAbandonedOnBorrow(true); // Only kicks in when the pool is nearly exhausted
+                dataSource.setRemoveAbandonedTimeout(
+                        intProperty(prop, "db.pool.removeAbandonedTimeoutSeconds", ABANDONED_TIMEOUT_SECONDS));
+                dataSource.setLogAbandoned(Boolean.parseBoolean(prop.getProperty("db.pool.logAbandoned", "true")));
+                dataSource.setAbandonedLogWriter(new PrintWriter(System.err, true));
+            }
+
+            // Default connection state is restored by the pool, which caches it and only
+            // issues the calls when a connection comes back in a different state
+            dataSource.setDefaultAutoCommit(Boolean.parseBoolean(prop.getProperty("db.pool.defaultAutoCommit", "true")));
+            dataSource.setDefaultTransactionIsolation(
+                    isolationLevel(prop.getProperty("db.pool.defaultIsolation", "READ_COMMITTED")));
+            dataSource.setCacheState(true);
+            dataSource.setRollbackOnReturn(true);
+            dataSource.setAutoCommitOnReturn(true);
 
             // Test the initial connection
             try (Connection testConn = dataSource.getConnection()) {
@@ -59,28 +139,161 @@ public class DBConnection {
                 }
             }
 
+            if (metricsEnabled) {
+                Metrics.register("type=ConnectionPool", new StandardMBean(new PoolStats(), PoolStatsMBean.class, false));
+                Metrics.startLogDump(longProperty(prop, "metrics.logIntervalSeconds", DEFAULT_METRICS_LOG_SECONDS),
+                        DBConnection::poolReport);
+            }
+
         } catch (Exception e) {
             throw new RuntimeException("Failed to initialize database connection pool: " + e.getMessage(), e);
         }
     }
 
+    private static int intProperty(Properties prop, String key, int defaultValue) {
+        String value = prop.getProperty(key);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    private static long longProperty(Properties prop, String key, long defaultValue) {
+        String value = prop.getProperty(key);
+        return value != null ? Long.parseLong(value.trim()) : defaultValue;
+    }
+
+    private static int isolationLevel(String name) {
+        switch (name.trim().toUpperCase()) {
+            case "READ_UNCOMMITTED":
+                return Connection.TRANSACTION_READ_UNCOMMITTED;
+            case "READ_COMMITTED":
+                return Connection.TRANSACTION_READ_COMMITTED;
+            case "REPEATABLE_READ":
+                return Connection.TRANSACTION_REPEATABLE_READ;
+            case "SERIALIZABLE":
+                return Connection.TRANSACTION_SERIALIZABLE;
+            default:
+                throw new IllegalArgumentException("Unknown db.pool.defaultIsolation: " + name);
+        }
+    }
+
+    private static InputStream openConfig() throws IOException {
+        String configPath = System.getProperty(CONFIG_PATH_PROPERTY);
+        if (configPath != null) {
+            return new FileInputStream(configPath);
+        }
+        return DBConnection.class.getClassLoader().getResourceAsStream("config.properties");
+    }
+
     /**
      * Gets a database connection from the pool
      * @return Connection object
      * @throws SQLException if a database access error occurs
      */
     public static Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
         try {
             Connection conn = dataSource.getConnection();
-            // Set reasonable defaults for library operations
-            conn.setAutoCommit(true);
-            conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
-            return conn;
+            borrowTimer.record(System.nanoTime() - start, false);
+            // Auto-commit and isolation are already the pool defaults (db.pool.default*)
+            return metricsEnabled ? InstrumentedConnection.wrap(conn) : conn;
         } catch (SQLException e) {
+            borrowTimer.record(System.nanoTime() - start, true); // Pool exhausted or database unreachable
             throw new SQLException("Failed to get database connection: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Connection pool gauges and borrow statistics exposed over JMX
+     */
+    public interface PoolStatsMBean {
+        int getNumActive();
+        int getNumIdle();
+        int getMaxTotal();
+        long getBorrowCount();
+        long getBorrowFailures();
+        double getMeanBorrowWaitMillis();
+        double getP99BorrowWaitMillis();
+        double getMaxBorrowWaitMillis();
+    }
+
+    private static class PoolStats implements PoolStatsMBean {
+        @Override
+        public int getNumActive() {
+            return dataSource.getNumActive();
+        }
+
+        @Override
+        public int getNumIdle() {
+            return dataSource.getNumIdle();
+        }
+
+        @Override
+        public int getMaxTotal() {
+            return dataSource.getMaxTotal();
+        }
+
+        @Override
+        public long getBorrowCount() {
+            return borrowTimer.getCount();
+        }
+
+        @Override
+        public long getBorrowFailures() {
+            return borrowTimer.getErrorCount();
+        }
+
+        @Override
+        public double getMeanBorrowWaitMillis() {
+            return borrowTimer.getMeanMillis();
+        }
+
+        @Override
+        public double getP99BorrowWaitMillis() {
+            return borrowTimer.getP99Millis();
+        }
+
+        @Override
+        public double getMaxBorrowWaitMillis() {
+            return borrowTimer.getMaxMillis();
+        }
+    }
+
+    private static String poolReport() {
+        return String.format("Connection pool: %d active, %d idle, %d max; %d borrows, %d failed",
+                dataSource.getNumActive(), dataSource.getNumIdle(), dataSource.getMaxTotal(),
+                borrowTimer.getCount(), borrowTimer.getErrorCount());
+    }
+
+    /**
+     * Rows per round trip for queries that stream large results (db.fetchSize).
+     * MySQL Connector/J only honours it with useCursorFetch=true in db.url;
+     * otherwise it buffers the whole result client-side.
+     */
+    public static int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Default timeout for interactive report and search queries (db.queryTimeoutSeconds), 0 for none
+     */
+    public static int getQueryTimeout() {
+        return queryTimeoutSeconds;
+    }
+
+    /**
+     * Whether book availability is counted in memory and written behind (db.availability.inMemory).
+     * Only safe when this is the only process borrowing and returning against the database.
+     */
+    public static boolean isInMemoryAvailability() {
+        return inMemoryAvailability;
+    }
+
+    /**
+     * How often in-memory availability changes are written to books.available (db.availability.flushMillis)
+     */
+    public static long getAvailabilityFlushMillis() {
+        return availabilityFlushMillis;
+    }
+
     /**
      * Returns a connection to the pool
      * @param conn Connection to close
@@ -0,0 +1,89 @@
+package com.library.utils;
+
+import com.library.dao.FineDAO;
+import com.library.dao.HoldDAO;
+import com.library.dao.LedgerDAO;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the fine accrual once at startup, to catch up on any days the application
+ * was not running, and then shortly after every midnight. Each successful run is
+ * followed by a report-only ledger reconciliation, which logs any user whose
+ * ledger disagrees with the raw tables (repair with tools.ReconcileLedgers).
+ * Holds not picked up in time are expired on the same run.
+ */
+public class FineAccrualScheduler {
+    private static final Logger logger = Logger.getLogger(FineAccrualScheduler.class.getName());
+    private static final Duration AFTER_MIDNIGHT = Duration.ofMinutes(5);
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(15);
+
+    private static ScheduledExecutorService executor;
+
+    public static synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fine-accrual");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(FineAccrualScheduler::runAccrual);
+    }
+
+    public static synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private static void runAccrual() {
+        Duration nextRun;
+        try {
+            FineDAO.accrueFines(LocalDate.now());
+            reconcileLedgers();
+            expireHolds();
+            // Rescheduled from the clock each time, so DST changes and long runs don't make it drift
+            nextRun = Duration.between(LocalDateTime.now(),
+                    LocalDate.now().plusDays(1).atStartOfDay().plus(AFTER_MIDNIGHT));
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Fine accrual failed, retrying in " + RETRY_DELAY.toMinutes() + " minutes", e);
+            nextRun = RETRY_DELAY;
+        }
+        schedule(nextRun);
+    }
+
+    // A failed check is logged and doesn't affect the accrual schedule
+    private static void reconcileLedgers() {
+        try {
+            LedgerDAO.reconcile(false);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Ledger reconciliation failed", e);
+        }
+    }
+
+    // Like the reconciliation, a failure is retried on the next run
+    private static void expireHolds() {
+        try {
+            HoldDAO.expireReadyHolds(new Timestamp(System.currentTimeMillis()));
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Hold expiry failed", e);
+        }
+    }
+
+    private static synchronized void schedule(Duration delay) {
+        if (executor != null && !executor.isShutdown()) {
+            executor.schedule(FineAccrualScheduler::runAccrual, delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+}
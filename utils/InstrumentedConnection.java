@@ -0,0 +1,107 @@
+package com.library.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Connection wrapper that times how long a DAO method holds a pooled connection.
+ * The span from borrow to close() is recorded on a Metrics timer named after the
+ * method that borrowed it (e.g. "BookDAO.getAllBooks"), and counted as an error
+ * if any SQLException was thrown through the connection or its statements,
+ * including ones the DAO catches and logs.
+ */
+class InstrumentedConnection implements InvocationHandler {
+    private static final StackWalker stackWalker = StackWalker.getInstance();
+
+    private final Connection target;
+    private final Metrics.Timer timer;
+    private final long borrowedAt = System.nanoTime();
+    private Connection proxy;
+    private volatile boolean failed;
+    private boolean closed;
+
+    private InstrumentedConnection(Connection target, Metrics.Timer timer) {
+        this.target = target;
+        this.timer = timer;
+    }
+
+    static Connection wrap(Connection conn) {
+        InstrumentedConnection handler = new InstrumentedConnection(conn, Metrics.timer(callerName()));
+        handler.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+        return handler.proxy;
+    }
+
+    // Class.method of the nearest caller outside the utils package
+    private static String callerName() {
+        return stackWalker.walk(frames -> frames
+                .filter(frame -> !frame.getClassName().startsWith("com.library.utils."))
+                .findFirst()
+                .map(frame -> {
+                    String className = frame.getClassName();
+                    String method = frame.getMethodName();
+                    if (method.startsWith("lambda$")) {
+                        // lambda$loadBooks$3 -> loadBooks
+                        int end = method.indexOf('$', 7);
+                        method = end > 0 ? method.substring(7, end) : method.substring(7);
+                    }
+                    return className.substring(className.lastIndexOf('.') + 1).replace('$', '.') + "." + method;
+                })
+                .orElse("unknown"));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "close":
+                if (!closed) {
+                    closed = true;
+                    timer.record(System.nanoTime() - borrowedAt, failed);
+                }
+                break;
+            default:
+                break;
+        }
+        Object result = forward(target, method, args);
+        if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+            return wrapStatement((Statement) result, method.getReturnType());
+        }
+        return result;
+    }
+
+    private Object wrapStatement(Statement statement, Class<?> type) {
+        return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{type},
+                (statementProxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return statementProxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(statementProxy);
+                        case "getConnection":
+                            return proxy;
+                        default:
+                            return forward(statement, method, args);
+                    }
+                });
+    }
+
+    private Object forward(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException) {
+                failed = true;
+            }
+            throw e.getCause();
+        }
+    }
+}
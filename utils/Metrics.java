@@ -0,0 +1,237 @@
+package com.library.utils;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-process latency and error metrics.
+ * <p>
+ * A Timer counts calls and errors and keeps a histogram of latencies in
+ * power-of-two microsecond buckets, so percentiles are cheap to record and
+ * accurate to within a factor of two. Every timer is registered as a JMX MBean
+ * under com.library:type=Timer and can also be dumped to the log periodically.
+ */
+public class Metrics {
+    private static final Logger logger = Logger.getLogger(Metrics.class.getName());
+    private static final String DOMAIN = "com.library";
+
+    private static final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService logDumper;
+
+    /**
+     * Read-only view of a Timer exposed over JMX
+     */
+    public interface TimerMBean {
+        long getCount();
+        long getErrorCount();
+        double getMeanMillis();
+        double getMaxMillis();
+        double getP50Millis();
+        double getP95Millis();
+        double getP99Millis();
+        void reset();
+    }
+
+    public static class Timer implements TimerMBean {
+        // Bucket i holds latencies below 2^i microseconds; the last one holds everything slower
+        private static final int BUCKETS = 28;
+
+        private final String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        private Timer(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void record(long nanos, boolean failed) {
+            count.increment();
+            if (failed) {
+                errors.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            long micros = nanos / 1000;
+            int bucket = micros == 0 ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+            histogram.incrementAndGet(Math.min(bucket, BUCKETS - 1));
+        }
+
+        // Counts a failure that happened outside a timed call
+        public void recordError() {
+            errors.increment();
+        }
+
+        @Override
+        public long getCount() {
+            return count.sum();
+        }
+
+        @Override
+        public long getErrorCount() {
+            return errors.sum();
+        }
+
+        @Override
+        public double getMeanMillis() {
+            long calls = count.sum();
+            return calls == 0 ? 0 : totalNanos.sum() / 1e6 / calls;
+        }
+
+        @Override
+        public double getMaxMillis() {
+            return maxNanos.get() / 1e6;
+        }
+
+        @Override
+        public double getP50Millis() {
+            return percentileMillis(0.50);
+        }
+
+        @Override
+        public double getP95Millis() {
+            return percentileMillis(0.95);
+        }
+
+        @Override
+        public double getP99Millis() {
+            return percentileMillis(0.99);
+        }
+
+        /**
+         * Upper bound of the bucket holding the given percentile, capped at the max seen
+         */
+        public double percentileMillis(double percentile) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = histogram.get(i);
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min((1L << i) / 1000.0, getMaxMillis());
+                }
+            }
+            return getMaxMillis();
+        }
+
+        @Override
+        public void reset() {
+            count.reset();
+            errors.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram.set(i, 0);
+            }
+        }
+    }
+
+    /**
+     * Gets the timer with the given name, creating and registering it on first use
+     */
+    public static Timer timer(String name) {
+        Timer timer = timers.get(name);
+        if (timer != null) {
+            return timer;
+        }
+        return timers.computeIfAbsent(name, key -> {
+            Timer created = new Timer(key);
+            register("type=Timer,name=" + ObjectName.quote(key), new StandardMBean(created, TimerMBean.class, false));
+            return created;
+        });
+    }
+
+    /**
+     * Registers an MBean under the library's JMX domain, replacing any previous one of the same name
+     */
+    public static void register(String properties, Object mbean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(mbean, name);
+        } catch (JMException e) {
+            logger.log(Level.WARNING, "Could not register MBean " + properties, e);
+        }
+    }
+
+    /**
+     * Logs every timer that has been used, plus anything the extra reporter adds,
+     * at INFO on a daemon thread every intervalSeconds
+     */
+    public static synchronized void startLogDump(long intervalSeconds, Supplier<String> extraReport) {
+        if (logDumper != null || intervalSeconds <= 0) {
+            return;
+        }
+        logDumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logDumper.scheduleAtFixedRate(() -> {
+            try {
+                String report = report();
+                if (extraReport != null) {
+                    report += System.lineSeparator() + extraReport.get();
+                }
+                logger.log(Level.INFO, report);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Metrics dump failed", e); // Keep the schedule alive
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stopLogDump() {
+        if (logDumper != null) {
+            logDumper.shutdownNow();
+            logDumper = null;
+        }
+    }
+
+    /**
+     * One line per used timer, sorted by name
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder("Timings (count, errors, mean/p50/p95/p99/max ms):");
+        for (Timer timer : new TreeMap<>(timers).values()) {
+            if (timer.getCount() == 0 && timer.getErrorCount() == 0) {
+                continue;
+            }
+            report.append(String.format("%n  %-45s %8d %6d  %8.2f %8.2f %8.2f %8.2f %8.2f",
+                    timer.getName(), timer.getCount(), timer.getErrorCount(), timer.getMeanMillis(),
+                    timer.getP50Millis(), timer.getP95Millis(), timer.getP99Millis(), timer.getMaxMillis()));
+        }
+        return report.toString();
+    }
+}